@@ -0,0 +1,157 @@
+/*
+    A silent CrawlerListener which stops the crawl after a given number of summoners have been crawled,
+    and lets a benchmark wait for the crawl to end.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.benchmarks;
+
+import com.merakianalytics.orianna.types.core.match.Match;
+import com.merakianalytics.orianna.types.core.match.MatchHistory;
+import com.merakianalytics.orianna.types.core.match.Participant;
+import com.merakianalytics.orianna.types.core.summoner.Summoner;
+import com.omarathon.riotapicrawler.src.Crawler;
+import com.omarathon.riotapicrawler.src.lib.CrawlerConfig;
+import com.omarathon.riotapicrawler.src.lib.CrawlerListener;
+import com.omarathon.riotapicrawler.src.lib.handler.OutputHandler;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BoundedCrawlListener implements CrawlerListener {
+    private final int summoners;
+    private final AtomicInteger crawled = new AtomicInteger();
+    private final CountDownLatch ended = new CountDownLatch(1);
+    private volatile Crawler crawler;
+
+    public BoundedCrawlListener(int summoners) {
+        this.summoners = summoners;
+    }
+
+    // the crawler to stop, which must be set before it runs
+    public void setCrawler(Crawler crawler) {
+        this.crawler = crawler;
+    }
+
+    // waits for the crawl to end, returning the number of summoners crawled
+    public int awaitEnd() throws InterruptedException {
+        ended.await();
+        return crawled.get();
+    }
+
+    // waits at most the given time for the crawl to end, returning whether it has
+    public boolean awaitEnd(long timeout, TimeUnit unit) throws InterruptedException {
+        return ended.await(timeout, unit);
+    }
+
+    public int getCrawled() {
+        return crawled.get();
+    }
+
+    @Override
+    public void onCrawling(Summoner crawlingSummoner) {
+        if (crawled.incrementAndGet() == summoners) crawler.stop();
+    }
+
+    @Override
+    public void onInitialSummonerNotCrawlable(Summoner initialSummoner) {
+        ended.countDown();
+    }
+
+    @Override
+    public void onEndCrawl() {
+        ended.countDown();
+    }
+
+    @Override
+    public void onInitialSummonerCrawlable(Summoner initialSummoner) {}
+
+    @Override
+    public void onInitialCrawlEntry(Summoner initialSummoner) {}
+
+    @Override
+    public void onCrawlSummoner(Summoner crawlingSummoner) {}
+
+    @Override
+    public void onBacktracking(Summoner fromSummoner) {}
+
+    @Override
+    public void onBacktrackFail(Summoner fromSummoner) {}
+
+    @Override
+    public void onBacktrackSuccess(Summoner fromSummoner, MatchHistory seekNextMatchHistory) {}
+
+    @Override
+    public void onObtainedMatchHistory(Summoner crawlingSummoner, MatchHistory crawlingSummonerMatchHistory) {}
+
+    @Override
+    public void onHandleMatchHistory(MatchHistory crawlingSummonerMatchHistory) {}
+
+    @Override
+    public void onSeekNextCrawl(MatchHistory nextCrawlMatchHistory) {}
+
+    @Override
+    public void onSeekNextCrawlFail(MatchHistory nextCrawlMatchHistory) {}
+
+    @Override
+    public void onSeekNextCrawlSuccess(MatchHistory nextCrawlMatchHistory, Summoner nextSummoner) {}
+
+    @Override
+    public void onMatchHistoryNotExist(MatchHistory notExistingMatchHistory) {}
+
+    @Override
+    public void onProcessMatch(Match matchBeingProcessed) {}
+
+    @Override
+    public void onMatchLoaded(Match matchBeingProcessed, long loadNanos) {}
+
+    @Override
+    public void onMatchFiltered(Match matchBeingProcessed, long filterNanos) {}
+
+    @Override
+    public void onCrawlableMatch(Match crawlableMatch) {}
+
+    @Override
+    public void onNotCrawlableMatch(Match notCrawlableMatch) {}
+
+    @Override
+    public void onProcessParticipant(Participant participantBeingProcessed, Match matchBeingProcessed) {}
+
+    @Override
+    public void onSummonerFiltered(Summoner summonerBeingProcessed, long filterNanos) {}
+
+    @Override
+    public void onCrawlableParticipantFound(Participant crawlableParticipant, Summoner summonerOfParticipant, Match matchOfParticipant) {}
+
+    @Override
+    public void onNotCrawlableParticipantFound(Participant notCrawlableParticipant, Summoner summonerOfParticipant, Match matchOfParticipant) {}
+
+    @Override
+    public void onNoNextSummoner(MatchHistory existingButFailingMatchHistory) {}
+
+    @Override
+    public void onStop() {}
+
+    @Override
+    public void onCheckpoint(Path checkpointFile) {}
+
+    @Override
+    public void onCheckpointFail(Path checkpointFile, IOException e) {}
+
+    @Override
+    public void onResume(Path checkpointFile, Summoner initialSummoner) {}
+
+    @Override
+    public void onCrawlerConfigUpdate(CrawlerConfig oldCrawlerConfig, CrawlerConfig newCrawlerConfig) {}
+
+    @Override
+    public void onOutputHandlerUpdate(OutputHandler oldOutputHandler, OutputHandler newOutputHandler) {}
+
+    @Override
+    public void onListenerUpdate(CrawlerListener oldListener, CrawlerListener newListener) {}
+}
@@ -0,0 +1,25 @@
+/*
+    An OutputHandler that only counts the Matches it's given, so benchmarks measure the crawl rather than the output.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.benchmarks;
+
+import com.merakianalytics.orianna.types.core.match.Match;
+import com.omarathon.riotapicrawler.src.lib.handler.OutputHandler;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class CountingOutputHandler extends OutputHandler {
+    private final LongAdder handled = new LongAdder();
+
+    public void handle(Match match) {
+        handled.increment();
+    }
+
+    public long getHandled() {
+        return handled.sum();
+    }
+}
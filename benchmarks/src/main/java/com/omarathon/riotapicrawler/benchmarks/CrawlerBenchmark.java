@@ -0,0 +1,70 @@
+/*
+    Benchmarks whole crawls over a FakeUniverse: each operation crawls a fixed number of summoners from a fresh Crawler,
+    so the score is the time per crawl, including fetching, filtering, backtracking and output.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.benchmarks;
+
+import com.merakianalytics.orianna.Orianna;
+import com.omarathon.riotapicrawler.benchmarks.fake.FakeRiotDataSource;
+import com.omarathon.riotapicrawler.benchmarks.fake.FakeUniverse;
+import com.omarathon.riotapicrawler.presets.crawlerconfigs.BasicCrawlerConfig;
+import com.omarathon.riotapicrawler.src.Crawler;
+import com.omarathon.riotapicrawler.src.lib.CrawlerConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CrawlerBenchmark {
+    @Param({"200"})
+    public int summoners;
+
+    @Param({"1", "4"})
+    public int workers;
+
+    @Param({"0", "4"})
+    public int prefetchThreads;
+
+    private int crawl = 0;
+
+    @Setup
+    public void setUp() {
+        FakeRiotDataSource.install(new FakeUniverse(42));
+    }
+
+    @Benchmark
+    public long crawl() throws InterruptedException {
+        CrawlerConfig config = new BasicCrawlerConfig(20);
+        config.setWorkers(workers);
+        config.setPrefetchThreads(prefetchThreads);
+        CountingOutputHandler output = new CountingOutputHandler();
+        BoundedCrawlListener listener = new BoundedCrawlListener(summoners);
+        Crawler crawler = new Crawler(config, output, listener);
+        listener.setCrawler(crawler);
+
+        // start each crawl from a different summoner, so crawls don't all take the same path
+        int start = (crawl++ * 7919) % FakeRiotDataSource.getUniverse().getSummonerCount();
+        crawler.run(Orianna.summonerWithId(FakeUniverse.summonerIdOf(start)).get());
+        listener.awaitEnd();
+        return output.getHandled();
+    }
+}
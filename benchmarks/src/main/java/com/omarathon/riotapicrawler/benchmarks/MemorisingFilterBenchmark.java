@@ -0,0 +1,85 @@
+/*
+    Benchmarks MemorisingFilter verdicts when they're remembered (hits) and when they aren't (misses, with a cache
+    that remembers nothing), over preloaded Matches so that only the filter's own cost is measured.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.benchmarks;
+
+import com.google.common.cache.CacheBuilder;
+import com.merakianalytics.orianna.Orianna;
+import com.merakianalytics.orianna.types.core.match.Match;
+import com.omarathon.riotapicrawler.benchmarks.fake.FakeRiotDataSource;
+import com.omarathon.riotapicrawler.benchmarks.fake.FakeUniverse;
+import com.omarathon.riotapicrawler.src.lib.filter.MatchFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemorisingFilterBenchmark {
+    private static final int MATCHES = 1024;
+
+    private Match[] matches;
+    private MatchFilter remembering;
+    private MatchFilter forgetting;
+    private int next = 0;
+
+    // passes ranked solo matches longer than 25 minutes, a typical cheap filter
+    private static class LongSoloMatchFilter extends MatchFilter {
+        LongSoloMatchFilter(CacheBuilder<Object, Object> cacheBuilder) {
+            super(cacheBuilder);
+        }
+
+        public boolean filter(Match m) {
+            return m.getQueue().getId() == 420 && m.getDuration().getStandardMinutes() > 25;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        FakeUniverse universe = new FakeUniverse(42);
+        FakeRiotDataSource.install(universe);
+        matches = new Match[MATCHES];
+        for (int i = 0; i < MATCHES; i++) {
+            matches[i] = Orianna.matchWithId(FakeUniverse.FIRST_GAME_ID + i).withPlatform(universe.getPlatform()).get();
+            matches[i].load();
+        }
+        remembering = new LongSoloMatchFilter(CacheBuilder.newBuilder());
+        forgetting = new LongSoloMatchFilter(CacheBuilder.newBuilder().maximumSize(0));
+        for (Match match : matches) {
+            remembering.apply(match);
+        }
+    }
+
+    private Match nextMatch() {
+        next = (next + 1) & (MATCHES - 1);
+        return matches[next];
+    }
+
+    @Benchmark
+    public boolean hit() {
+        return remembering.apply(nextMatch());
+    }
+
+    @Benchmark
+    public boolean miss() {
+        return forgetting.apply(nextMatch());
+    }
+}
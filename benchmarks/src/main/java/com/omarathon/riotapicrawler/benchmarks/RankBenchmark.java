@@ -0,0 +1,98 @@
+/*
+    Benchmarks combining the Ranks of a match's participants into an estimate, with CommonMaxRankCombiner.combine
+    (from a set, and from a RankHistogram of the same ranks), and finding their maximum with EloHelper.getMaxRank,
+    over seeded random sets of Ranks.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.benchmarks;
+
+import com.merakianalytics.orianna.types.common.Division;
+import com.merakianalytics.orianna.types.common.Tier;
+import com.omarathon.riotapicrawler.presets.util.EloHelper;
+import com.omarathon.riotapicrawler.presets.util.Rank;
+import com.omarathon.riotapicrawler.presets.util.RankHistogram;
+import com.omarathon.riotapicrawler.presets.util.estimators.lib.CommonMaxRankCombiner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RankBenchmark {
+    private static final int SETS = 256;
+
+    // number of ranks per set, e.g the ranked participants of a match
+    @Param({"10"})
+    public int ranks;
+
+    private final CommonMaxRankCombiner combiner = new CommonMaxRankCombiner();
+    private Set<Rank>[] sets;
+    private RankHistogram[] histograms;
+    private int next = 0;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        Tier[] tiers = {Tier.IRON, Tier.BRONZE, Tier.SILVER, Tier.GOLD, Tier.PLATINUM, Tier.DIAMOND};
+        sets = new Set[SETS];
+        histograms = new RankHistogram[SETS];
+        for (int i = 0; i < SETS; i++) {
+            sets[i] = new HashSet<>();
+            histograms[i] = new RankHistogram();
+            // neighbouring tiers, as matchmaking would give
+            int base = random.nextInt(tiers.length - 1);
+            for (int r = 0; r < ranks; r++) {
+                sets[i].add(Rank.of(tiers[base + random.nextInt(2)], Division.values()[random.nextInt(4)]));
+            }
+            for (Rank rank : sets[i]) {
+                histograms[i].add(rank);
+            }
+        }
+    }
+
+    private RankHistogram nextHistogram() {
+        next = (next + 1) & (SETS - 1);
+        return histograms[next];
+    }
+
+    private Set<Rank> nextSet() {
+        next = (next + 1) & (SETS - 1);
+        return sets[next];
+    }
+
+    @Benchmark
+    public Rank combine() {
+        return combiner.combine(nextSet());
+    }
+
+    @Benchmark
+    public Rank combineHistogram() {
+        return combiner.combine(nextHistogram());
+    }
+
+    @Benchmark
+    public Rank getMaxRank() {
+        return EloHelper.getMaxRank(nextSet());
+    }
+}
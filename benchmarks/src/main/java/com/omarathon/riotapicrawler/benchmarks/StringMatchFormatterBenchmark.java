@@ -0,0 +1,59 @@
+/*
+    Benchmarks formatting a preloaded Match into JSON with StringMatchFormatter, both with Gson's reflective default
+    and with the compact adapters.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.benchmarks;
+
+import com.merakianalytics.orianna.Orianna;
+import com.merakianalytics.orianna.types.core.match.Match;
+import com.omarathon.riotapicrawler.benchmarks.fake.FakeRiotDataSource;
+import com.omarathon.riotapicrawler.benchmarks.fake.FakeUniverse;
+import com.omarathon.riotapicrawler.presets.matchformatters.StringMatchFormatter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringMatchFormatterBenchmark {
+    private Match match;
+    private final StringMatchFormatter reflective = new StringMatchFormatter();
+    private final StringMatchFormatter compact = StringMatchFormatter.compact();
+
+    @Setup
+    public void setUp() {
+        FakeUniverse universe = new FakeUniverse(42);
+        FakeRiotDataSource.install(universe);
+        match = Orianna.matchWithId(FakeUniverse.FIRST_GAME_ID).withPlatform(universe.getPlatform()).get();
+        match.load();
+        // build the participants' champions and summoners up front, as a crawl would have
+        compact.format(match);
+    }
+
+    @Benchmark
+    public String formatReflective() {
+        return reflective.format(match);
+    }
+
+    @Benchmark
+    public String formatCompact() {
+        return compact.format(match);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+    Benchmarks the SummonerHistory operations made on every crawl step, over a history of already visited summoners,
+    in both its full and compact forms.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.benchmarks;
+
+import com.merakianalytics.orianna.Orianna;
+import com.merakianalytics.orianna.types.core.match.MatchHistory;
+import com.merakianalytics.orianna.types.core.summoner.Summoner;
+import com.omarathon.riotapicrawler.benchmarks.fake.FakeRiotDataSource;
+import com.omarathon.riotapicrawler.benchmarks.fake.FakeUniverse;
+import com.omarathon.riotapicrawler.src.lib.SummonerHistory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SummonerHistoryBenchmark {
+    @Param({"2000"})
+    public int visited;
+
+    @Param({"false", "true"})
+    public boolean compact;
+
+    private SummonerHistory history;
+    private Summoner[] summoners;
+    private MatchHistory[] matchHistories;
+    private int next = 0;
+
+    @Setup
+    public void setUp() {
+        FakeUniverse universe = new FakeUniverse(42);
+        FakeRiotDataSource.install(universe);
+        history = compact ? SummonerHistory.compact(visited * 2, 1, TimeUnit.DAYS) : new SummonerHistory();
+        // the first half is visited, the second half isn't
+        summoners = new Summoner[visited * 2];
+        matchHistories = new MatchHistory[visited * 2];
+        for (int i = 0; i < summoners.length; i++) {
+            summoners[i] = Orianna.summonerWithId(FakeUniverse.summonerIdOf(i)).get();
+            summoners[i].load();
+            matchHistories[i] = summoners[i].matchHistory().withEndIndex(20).get();
+            matchHistories[i].load();
+            if (i < visited) history.addVisitedSummoner(summoners[i], matchHistories[i]);
+            history.claim(summoners[i]);
+        }
+    }
+
+    private int nextIndex() {
+        next = (next + 1) % summoners.length;
+        return next;
+    }
+
+    @Benchmark
+    public boolean wasVisited() {
+        return history.wasVisited(summoners[nextIndex()]);
+    }
+
+    // claims of already claimed summoners, as when workers race for the same summoner
+    @Benchmark
+    public boolean claim() {
+        return history.claim(summoners[nextIndex()]);
+    }
+
+    @Benchmark
+    public MatchHistory getRandomMatchHistory() {
+        return history.getRandomMatchHistory(summoners[nextIndex()]);
+    }
+
+    @Benchmark
+    public void addVisitedSummoner() {
+        int i = nextIndex();
+        history.addVisitedSummoner(summoners[i], matchHistories[i]);
+    }
+}
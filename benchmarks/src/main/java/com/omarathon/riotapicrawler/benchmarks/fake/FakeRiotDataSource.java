@@ -0,0 +1,208 @@
+/*
+    An Orianna data source serving summoners, match histories, matches and league positions (and the little static data
+    Orianna needs to build them) from a FakeUniverse,
+    in place of the Riot API, so crawls run offline, deterministically and (unless simulating) without latency or a rate limit.
+
+    install replaces Orianna's whole pipeline with this source (behind Orianna's GhostLoader), so nothing is cached
+    and every load reaches the universe. Match history filters (queues, seasons, champions and times) are ignored.
+    Counts the requests made of each type, e.g to compare the requests made by different crawler configurations.
+
+    To simulate the real API, each request can be given a latency (a fixed delay plus a uniformly random jitter),
+    and requests can be held to rate limits, which (like Riot's) apply per platform, both overall and per method.
+    Requests over a limit wait for it, rather than failing, as if the client retried at exactly the right time.
+    Static data (the realm and versions) is served without latency or limits, as it would be from Data Dragon.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.benchmarks.fake;
+
+import com.merakianalytics.datapipelines.PipelineContext;
+import com.merakianalytics.datapipelines.sources.AbstractDataSource;
+import com.merakianalytics.datapipelines.sources.Get;
+import com.merakianalytics.orianna.Orianna;
+import com.merakianalytics.orianna.datapipeline.GhostLoader;
+import com.merakianalytics.orianna.datapipeline.PipelineConfiguration;
+import com.merakianalytics.orianna.types.data.league.LeaguePositions;
+import com.merakianalytics.orianna.types.data.match.Match;
+import com.merakianalytics.orianna.types.data.match.MatchList;
+import com.merakianalytics.orianna.types.data.staticdata.Realm;
+import com.merakianalytics.orianna.types.data.staticdata.Versions;
+import com.merakianalytics.orianna.types.data.summoner.Summoner;
+import com.omarathon.riotapicrawler.src.lib.scheduler.RateLimit;
+import com.omarathon.riotapicrawler.src.lib.scheduler.RequestScheduler;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+public class FakeRiotDataSource extends AbstractDataSource {
+    // Orianna constructs the source itself, so the universe it serves is static
+    private static volatile FakeUniverse universe;
+
+    private static final LongAdder summonerRequests = new LongAdder();
+    private static final LongAdder matchListRequests = new LongAdder();
+    private static final LongAdder matchRequests = new LongAdder();
+    private static final LongAdder leaguePositionsRequests = new LongAdder();
+
+    private static volatile long latencyNanos = 0;
+    private static volatile long jitterNanos = 0;
+    // the rate limits of the simulated API, or null if it's unlimited
+    private static volatile RequestScheduler limits = null;
+
+    // makes Orianna load everything from the universe, on its platform by default
+    public static void install(FakeUniverse universe) {
+        FakeRiotDataSource.universe = universe;
+        PipelineConfiguration pipeline = new PipelineConfiguration();
+        pipeline.setElements(Arrays.asList(
+                PipelineConfiguration.PipelineElementConfiguration.defaultConfiguration(GhostLoader.class),
+                PipelineConfiguration.PipelineElementConfiguration.defaultConfiguration(FakeRiotDataSource.class)));
+        pipeline.setTransformers(new HashSet<>());
+
+        Orianna.Configuration configuration = new Orianna.Configuration();
+        configuration.setPipeline(pipeline);
+        configuration.setDefaultPlatform(universe.getPlatform());
+        Orianna.loadConfiguration(configuration);
+        resetRequests();
+    }
+
+    /* INPUTS: the fixed delay of every request, the most random delay added to it, and their unit.
+       THROWS: IllegalArgumentException if:
+        - latency is <0,
+        - jitter is <0. */
+    public static void setLatency(long latency, long jitter, TimeUnit unit) throws IllegalArgumentException {
+        if (latency < 0) throw new IllegalArgumentException("Nonsensical input for latency (less than 0)");
+        if (jitter < 0) throw new IllegalArgumentException("Nonsensical input for latency jitter (less than 0)");
+        latencyNanos = unit.toNanos(latency);
+        jitterNanos = unit.toNanos(jitter);
+    }
+
+    /* Holds every request to the given application rate limits, and each method to its given method rate limits,
+       with the methods of RequestScheduler (e.g RequestScheduler.MATCH). No limits means the API is unlimited. */
+    public static void setRateLimits(RateLimit[] appLimits, Map<String, RateLimit[]> methodLimits) {
+        if (appLimits.length == 0 && methodLimits.isEmpty()) {
+            limits = null;
+            return;
+        }
+        RequestScheduler scheduler = new RequestScheduler(appLimits);
+        for (Map.Entry<String, RateLimit[]> method : methodLimits.entrySet()) {
+            scheduler.setMethodLimits(method.getKey(), method.getValue());
+        }
+        limits = scheduler;
+    }
+
+    // the rate limits requests are held to, or null if the API is unlimited
+    public static RequestScheduler getRateLimits() {
+        return limits;
+    }
+
+    public static FakeUniverse getUniverse() {
+        return universe;
+    }
+
+    public static void resetRequests() {
+        summonerRequests.reset();
+        matchListRequests.reset();
+        matchRequests.reset();
+        leaguePositionsRequests.reset();
+    }
+
+    public static long getSummonerRequests() {
+        return summonerRequests.sum();
+    }
+
+    public static long getMatchListRequests() {
+        return matchListRequests.sum();
+    }
+
+    public static long getMatchRequests() {
+        return matchRequests.sum();
+    }
+
+    public static long getLeaguePositionsRequests() {
+        return leaguePositionsRequests.sum();
+    }
+
+    // number of requests made to the simulated API, excluding static data
+    public static long getRequests() {
+        return getSummonerRequests() + getMatchListRequests() + getMatchRequests() + getLeaguePositionsRequests();
+    }
+
+    @Get(Summoner.class)
+    public Summoner getSummoner(Map<String, Object> query, PipelineContext context) {
+        summonerRequests.increment();
+        if (!onUniverse(query)) return null;
+        simulate(RequestScheduler.SUMMONER);
+        String key = (String) query.get("id");
+        if (key == null) key = (String) query.get("accountId");
+        if (key == null) key = (String) query.get("name");
+        int summoner = universe.summonerIndexOf(key);
+        return (summoner < 0) ? null : universe.summoner(summoner);
+    }
+
+    @Get(MatchList.class)
+    public MatchList getMatchList(Map<String, Object> query, PipelineContext context) {
+        matchListRequests.increment();
+        if (!onUniverse(query)) return null;
+        simulate(RequestScheduler.MATCH_HISTORY);
+        int summoner = universe.summonerIndexOf((String) query.get("accountId"));
+        if (summoner < 0) return null;
+        Number beginIndex = (Number) query.get("beginIndex");
+        Number endIndex = (Number) query.get("endIndex");
+        return universe.matchList(summoner, (beginIndex == null) ? 0 : beginIndex.intValue(), (endIndex == null) ? Integer.MAX_VALUE : endIndex.intValue());
+    }
+
+    @Get(Match.class)
+    public Match getMatch(Map<String, Object> query, PipelineContext context) {
+        matchRequests.increment();
+        if (!onUniverse(query)) return null;
+        simulate(RequestScheduler.MATCH);
+        Number gameId = (Number) query.get("matchId");
+        int match = (gameId == null) ? -1 : universe.matchIndexOf(gameId.longValue());
+        return (match < 0) ? null : universe.match(match);
+    }
+
+    @Get(LeaguePositions.class)
+    public LeaguePositions getLeaguePositions(Map<String, Object> query, PipelineContext context) {
+        leaguePositionsRequests.increment();
+        if (!onUniverse(query)) return null;
+        simulate(RequestScheduler.LEAGUE_POSITIONS);
+        int summoner = universe.summonerIndexOf((String) query.get("summonerId"));
+        return (summoner < 0) ? null : universe.leaguePositions(summoner);
+    }
+
+    @Get(Realm.class)
+    public Realm getRealm(Map<String, Object> query, PipelineContext context) {
+        return onUniverse(query) ? universe.realm() : null;
+    }
+
+    @Get(Versions.class)
+    public Versions getVersions(Map<String, Object> query, PipelineContext context) {
+        return onUniverse(query) ? universe.versions() : null;
+    }
+
+    // waits for the rate limits and the latency of a request of the given method
+    private static void simulate(String method) {
+        RequestScheduler scheduler = limits;
+        if (scheduler != null) scheduler.run(universe.getPlatform(), method, RequestScheduler.Priority.NORMAL, () -> {});
+        long delay = latencyNanos;
+        long jitter = jitterNanos;
+        if (jitter > 0) delay += ThreadLocalRandom.current().nextLong(jitter + 1);
+        // parkNanos may return early, so park until the delay has passed
+        long until = System.nanoTime() + delay;
+        while (delay > 0) {
+            LockSupport.parkNanos(delay);
+            delay = until - System.nanoTime();
+        }
+    }
+
+    private static boolean onUniverse(Map<String, Object> query) {
+        FakeUniverse current = universe;
+        return current != null && query.get("platform") == current.getPlatform();
+    }
+}
@@ -0,0 +1,378 @@
+/*
+    A deterministic, synthetic League of Legends universe for benchmarking without the Riot API:
+    a fixed set of summoners, the ranked matches between them, and their league positions, all derived from a seed.
+
+    Summoner i has summoner ID "summoner-i", account ID "account-i" and name "Summoner i".
+    Each match's ten participants are drawn from a neighbourhood of summoner indices, so the match graph is clustered
+    like real matchmaking, and each summoner plays historyLength matches on average. Match histories are newest first.
+    Summoners are ordered by skill: a summoner's tier follows from their index, in proportion to the real ranked
+    distribution, so neighbouring summoners (and so the participants of a match) have similar ranks.
+
+    The graph is held in flat int arrays (around 80 bytes per summoner with the default history length),
+    so universes of millions of summoners fit in a few hundred megabytes.
+
+    Match and league data is built afresh on each request (see FakeRiotDataSource), from a random seeded by the match
+    or summoner, so the same request always returns the same data.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.benchmarks.fake;
+
+import com.merakianalytics.orianna.types.common.Division;
+import com.merakianalytics.orianna.types.common.Platform;
+import com.merakianalytics.orianna.types.common.Queue;
+import com.merakianalytics.orianna.types.common.Tier;
+import com.merakianalytics.orianna.types.data.league.LeagueEntry;
+import com.merakianalytics.orianna.types.data.league.LeaguePositions;
+import com.merakianalytics.orianna.types.data.match.Match;
+import com.merakianalytics.orianna.types.data.match.MatchList;
+import com.merakianalytics.orianna.types.data.match.MatchReference;
+import com.merakianalytics.orianna.types.data.match.Participant;
+import com.merakianalytics.orianna.types.data.match.ParticipantStats;
+import com.merakianalytics.orianna.types.data.match.Team;
+import com.merakianalytics.orianna.types.data.staticdata.Realm;
+import com.merakianalytics.orianna.types.data.staticdata.Versions;
+import com.merakianalytics.orianna.types.data.summoner.Summoner;
+import org.joda.time.DateTime;
+import org.joda.time.Duration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class FakeUniverse {
+    public static final int PARTICIPANTS = 10;
+    // game IDs of the universe's matches start here
+    public static final long FIRST_GAME_ID = 4_000_000_000L;
+    // the most match references in a page of a match history
+    public static final int MATCH_LIST_PAGE = 100;
+
+    private static final String SUMMONER_PREFIX = "summoner-";
+    private static final String ACCOUNT_PREFIX = "account-";
+    private static final String VERSION = "9.15.281.8734";
+    private static final String STATIC_DATA_VERSION = "9.15.1";
+    private static final int SEASON = 13;
+    private static final long FIRST_CREATION_MILLIS = 1_560_000_000_000L;
+    // the ranked tiers from the lowest, and the fraction of ranked summoners in each
+    private static final Tier[] TIERS = {Tier.IRON, Tier.BRONZE, Tier.SILVER, Tier.GOLD, Tier.PLATINUM, Tier.DIAMOND, Tier.MASTER, Tier.GRANDMASTER, Tier.CHALLENGER};
+    private static final double[] TIER_WEIGHTS = {0.05, 0.2, 0.33, 0.26, 0.11, 0.04, 0.005, 0.003, 0.002};
+    // the index in TIERS of the lowest tier without divisions
+    private static final int APEX_TIER = 6;
+
+    private final Platform platform;
+    private final int summoners;
+    private final long seed;
+    // the summoner indices of each match's participants, blue team first: match g's are at [g * PARTICIPANTS, (g + 1) * PARTICIPANTS)
+    private final int[] participants;
+    // the match indices of each summoner's matches, newest first: summoner s's are at [historyStarts[s], historyStarts[s + 1])
+    private final int[] histories;
+    private final int[] historyStarts;
+
+    // 10000 summoners on EUW playing 20 matches each
+    public FakeUniverse(long seed) {
+        this(Platform.EUROPE_WEST, 10000, 20, seed);
+    }
+
+    /* INPUTS: the platform of every summoner and match, the number of summoners, the average number of matches
+               each summoner plays, and the seed everything is derived from.
+       THROWS: IllegalArgumentException if:
+        - summoners is <PARTICIPANTS,
+        - historyLength is <1,
+        - there would be more than Integer.MAX_VALUE participants. */
+    public FakeUniverse(Platform platform, int summoners, int historyLength, long seed) throws IllegalArgumentException {
+        if (summoners < PARTICIPANTS) throw new IllegalArgumentException("Nonsensical input for number of summoners (less than " + PARTICIPANTS + ")");
+        if (historyLength < 1) throw new IllegalArgumentException("Nonsensical input for history length (less than 1)");
+        if ((long) summoners * historyLength > Integer.MAX_VALUE) throw new IllegalArgumentException("Nonsensical input for universe size (more than " + Integer.MAX_VALUE + " participants)");
+        this.platform = platform;
+        this.summoners = summoners;
+        this.seed = seed;
+
+        int matches = (int) Math.max(1, (long) summoners * historyLength / PARTICIPANTS);
+        int neighbourhood = Math.min(summoners, Math.max(PARTICIPANTS * 10, summoners / 50));
+        participants = new int[matches * PARTICIPANTS];
+        historyStarts = new int[summoners + 1];
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int g = 0; g < matches; g++) {
+            // neighbourhoods don't wrap around, so the lowest and highest ranked summoners never meet
+            int base = random.nextInt(summoners - neighbourhood + 1);
+            int from = g * PARTICIPANTS;
+            for (int p = 0; p < PARTICIPANTS; p++) {
+                int candidate;
+                do {
+                    candidate = base + random.nextInt(neighbourhood);
+                } while (contains(participants, from, from + p, candidate));
+                participants[from + p] = candidate;
+                historyStarts[candidate + 1]++;
+            }
+        }
+
+        for (int s = 0; s < summoners; s++) {
+            historyStarts[s + 1] += historyStarts[s];
+        }
+        histories = new int[participants.length];
+        // fill from the newest match, so histories are newest first
+        int[] filled = Arrays.copyOf(historyStarts, summoners);
+        for (int g = matches - 1; g >= 0; g--) {
+            for (int p = g * PARTICIPANTS; p < (g + 1) * PARTICIPANTS; p++) {
+                histories[filled[participants[p]]++] = g;
+            }
+        }
+    }
+
+    public Platform getPlatform() {
+        return platform;
+    }
+
+    public int getSummonerCount() {
+        return summoners;
+    }
+
+    public int getMatchCount() {
+        return participants.length / PARTICIPANTS;
+    }
+
+    public static String summonerIdOf(int summoner) {
+        return SUMMONER_PREFIX + summoner;
+    }
+
+    public static String accountIdOf(int summoner) {
+        return ACCOUNT_PREFIX + summoner;
+    }
+
+    // the match indices of the summoner's matches, newest first
+    public int[] getHistory(int summoner) {
+        return Arrays.copyOfRange(histories, historyStarts[summoner], historyStarts[summoner + 1]);
+    }
+
+    public int getHistoryLength(int summoner) {
+        return historyStarts[summoner + 1] - historyStarts[summoner];
+    }
+
+    // the summoner indices of the match's participants, blue team first
+    public int[] getParticipants(int match) {
+        return Arrays.copyOfRange(participants, match * PARTICIPANTS, (match + 1) * PARTICIPANTS);
+    }
+
+    // the summoner index of the match's participant (0 to PARTICIPANTS - 1, blue team first)
+    public int getParticipant(int match, int participant) {
+        return participants[match * PARTICIPANTS + participant];
+    }
+
+    // the index of the summoner with the given summoner ID, account ID or name, or -1 if there's no such summoner
+    public int summonerIndexOf(String key) {
+        if (key == null) return -1;
+        String index;
+        if (key.startsWith(SUMMONER_PREFIX)) index = key.substring(SUMMONER_PREFIX.length());
+        else if (key.startsWith(ACCOUNT_PREFIX)) index = key.substring(ACCOUNT_PREFIX.length());
+        else if (key.startsWith("Summoner ")) index = key.substring("Summoner ".length());
+        else return -1;
+        try {
+            int summoner = Integer.parseInt(index);
+            return (summoner >= 0 && summoner < summoners) ? summoner : -1;
+        }
+        catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // the index of the match with the given game ID, or -1 if there's no such match
+    public int matchIndexOf(long gameId) {
+        long match = gameId - FIRST_GAME_ID;
+        return (match >= 0 && match < getMatchCount()) ? (int) match : -1;
+    }
+
+    public Summoner summoner(int summoner) {
+        Summoner data = new Summoner();
+        data.setPlatform(platform.getTag());
+        data.setId(summonerIdOf(summoner));
+        data.setAccountId(accountIdOf(summoner));
+        data.setPuuid("puuid-" + summoner);
+        data.setName("Summoner " + summoner);
+        data.setLevel(30 + summoner % 300);
+        data.setProfileIconId(summoner % 30);
+        data.setUpdated(new DateTime(FIRST_CREATION_MILLIS));
+        return data;
+    }
+
+    /* A page of the references of the summoner's matches from beginIndex (inclusive) to endIndex (exclusive), newest first.
+       Like the Riot API, a page holds at most MATCH_LIST_PAGE references, and Orianna asks for the next page if it needs more. */
+    public MatchList matchList(int summoner, int beginIndex, int endIndex) {
+        int begin = Math.max(0, beginIndex);
+        int end = (int) Math.min(Math.min(endIndex, getHistoryLength(summoner)), (long) begin + MATCH_LIST_PAGE);
+        MatchList list = new MatchList();
+        list.setPlatform(platform.getTag());
+        list.setAccountId(accountIdOf(summoner));
+        list.setMaxSize(MATCH_LIST_PAGE);
+        list.setStartIndex(begin);
+        list.setEndIndex(Math.max(begin, end));
+        // the whole universe's time range, so a short page tells Orianna the history is complete
+        list.setStartTime(new DateTime(FIRST_CREATION_MILLIS));
+        list.setEndTime(creationTimeOf(getMatchCount()));
+        for (int i = begin; i < end; i++) {
+            int match = histories[historyStarts[summoner] + i];
+            MatchReference reference = new MatchReference();
+            reference.setPlatform(platform.getTag());
+            reference.setId(FIRST_GAME_ID + match);
+            reference.setAccountId(accountIdOf(summoner));
+            reference.setChampionId(championOf(match, participantIndexOf(match, summoner)));
+            reference.setQueue(Queue.RANKED_SOLO.getId());
+            reference.setSeason(SEASON);
+            reference.setCreationTime(creationTimeOf(match));
+            reference.setLane("NONE");
+            reference.setRole("NONE");
+            list.add(reference);
+        }
+        return list;
+    }
+
+    public Match match(int match) {
+        SplittableRandom random = new SplittableRandom(seed ^ (FIRST_GAME_ID + match) * 0x9E3779B97F4A7C15L);
+        boolean blueWins = random.nextBoolean();
+        int durationSeconds = 1200 + random.nextInt(1200);
+
+        Match data = new Match();
+        data.setPlatform(platform.getTag());
+        data.setId(FIRST_GAME_ID + match);
+        data.setQueue(Queue.RANKED_SOLO.getId());
+        data.setSeason(SEASON);
+        data.setMap(11);
+        data.setMode("CLASSIC");
+        data.setType("MATCHED_GAME");
+        data.setVersion(VERSION);
+        data.setCreationTime(creationTimeOf(match));
+        data.setDuration(Duration.standardSeconds(durationSeconds));
+        data.setBlueTeam(team(100, blueWins, random));
+        data.setRedTeam(team(200, !blueWins, random));
+
+        List<Participant> players = new ArrayList<>(PARTICIPANTS);
+        for (int p = 0; p < PARTICIPANTS; p++) {
+            int summoner = participants[match * PARTICIPANTS + p];
+            boolean blue = p < PARTICIPANTS / 2;
+            Participant player = new Participant();
+            player.setParticipantId(p + 1);
+            player.setPlatform(platform.getTag());
+            player.setCurrentPlatform(platform.getTag());
+            player.setAccountId(accountIdOf(summoner));
+            player.setCurrentAccountId(accountIdOf(summoner));
+            player.setSummonerId(summonerIdOf(summoner));
+            player.setSummonerName("Summoner " + summoner);
+            player.setChampionId(championOf(match, p));
+            player.setTeam(blue ? 100 : 200);
+            player.setVersion(VERSION);
+            player.setStats(stats(blue == blueWins, durationSeconds, random));
+            players.add(player);
+        }
+        data.setParticipants(players);
+        return data;
+    }
+
+    // the summoner's solo queue position, or none if they're unranked (a fifth of summoners)
+    public LeaguePositions leaguePositions(int summoner) {
+        SplittableRandom random = new SplittableRandom(seed ^ summoner * 0xC2B2AE3D27D4EB4FL);
+        LeaguePositions positions = new LeaguePositions();
+        positions.setPlatform(platform.getTag());
+        positions.setSummonerId(summonerIdOf(summoner));
+        if (random.nextInt(5) == 0) return positions;
+
+        // the summoner's skill is their position in the universe, which falls into a tier's band, and a division within that band
+        double skill = (summoner + 0.5) / summoners;
+        int t = 0;
+        while (t < TIERS.length - 1 && skill >= TIER_WEIGHTS[t]) {
+            skill -= TIER_WEIGHTS[t];
+            t++;
+        }
+        Tier tier = TIERS[t];
+        // apex tiers (from MASTER) only have division I, and divisions go from IV up to I
+        Division division = (t >= APEX_TIER) ? Division.I : Division.values()[3 - Math.min(3, (int) (skill / TIER_WEIGHTS[t] * 4))];
+
+        LeagueEntry entry = new LeagueEntry();
+        entry.setPlatform(platform.getTag());
+        entry.setSummonerId(summonerIdOf(summoner));
+        entry.setSummonerName("Summoner " + summoner);
+        entry.setLeagueId("league-" + tier + "-" + division);
+        entry.setQueue(Queue.RANKED_SOLO.getTag());
+        entry.setTier(tier.toString());
+        entry.setDivision(division.toString());
+        entry.setLeaguePoints(random.nextInt(100));
+        entry.setWins(random.nextInt(200));
+        entry.setLosses(random.nextInt(200));
+        positions.add(entry);
+        return positions;
+    }
+
+    // the static data realm, which Orianna needs to find the current version (e.g when building a match's champions)
+    public Realm realm() {
+        Realm realm = new Realm();
+        realm.setPlatform(platform.getTag());
+        realm.setVersion(STATIC_DATA_VERSION);
+        realm.setLatestDataDragon(STATIC_DATA_VERSION);
+        realm.setDefaultLocale("en_US");
+        return realm;
+    }
+
+    public Versions versions() {
+        Versions versions = new Versions();
+        versions.setPlatform(platform.getTag());
+        versions.add(STATIC_DATA_VERSION);
+        return versions;
+    }
+
+    private Team team(int side, boolean winner, SplittableRandom random) {
+        Team team = new Team();
+        team.setPlatform(platform.getTag());
+        team.setTeamId(side);
+        team.setVersion(VERSION);
+        team.setWinner(winner);
+        team.setFirstBloodKiller(random.nextBoolean());
+        team.setTowerKills(random.nextInt(winner ? 12 : 6));
+        team.setInhibitorKills(winner ? random.nextInt(4) : 0);
+        team.setBaronKills(random.nextInt(2));
+        team.setDragonKills(random.nextInt(5));
+        team.setRiftHeraldKills(random.nextInt(2));
+        team.setBans(new ArrayList<>());
+        return team;
+    }
+
+    private static ParticipantStats stats(boolean winner, int durationSeconds, SplittableRandom random) {
+        int minutes = durationSeconds / 60;
+        ParticipantStats stats = new ParticipantStats();
+        stats.setWinner(winner);
+        stats.setKills(random.nextInt(15));
+        stats.setDeaths(random.nextInt(12));
+        stats.setAssists(random.nextInt(20));
+        stats.setChampionLevel(Math.min(18, 8 + random.nextInt(11)));
+        stats.setGoldEarned(minutes * (250 + random.nextInt(250)));
+        stats.setCreepScore(minutes * random.nextInt(9));
+        stats.setVisionScore(random.nextInt(80));
+        stats.setDamageDealtToChampions(minutes * (300 + random.nextInt(900)));
+        return stats;
+    }
+
+    // a champion ID per participant, distinct within a match
+    private int championOf(int match, int participant) {
+        return 1 + (int) ((match * 31L + participant * 13L + seed) & 0x7FFFFFFF) % 140;
+    }
+
+    private static DateTime creationTimeOf(int match) {
+        // a match every 30 seconds, so later matches are newer
+        return new DateTime(FIRST_CREATION_MILLIS + match * 30_000L);
+    }
+
+    // whether values[from, to) contains the value
+    private static boolean contains(int[] values, int from, int to, int value) {
+        for (int i = from; i < to; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+
+    private int participantIndexOf(int match, int summoner) {
+        for (int p = 0; p < PARTICIPANTS; p++) {
+            if (participants[match * PARTICIPANTS + p] == summoner) return p;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,309 @@
+/*
+    Checks a BatchedFirebaseOutputHandler end to end against a local HTTP server standing in for the Firebase, writing Matches
+    from a FakeUniverse served by FakeRiotDataSource:
+        - batching: a full batch, and a batch flushed once its first Match has waited the maximum delay, are each written
+          as a single PATCH of the path, with each Match's JSON under its own push ID
+        - retrying: a batch answered with 503 is retried with backoff, and written once the server recovers
+        - dropping: a batch answered with 400, or with 503 on every attempt, is reported to the FirebaseBatchListener as dropped
+        - backpressure: with a single batch allowed to wait, batches flushed for waiting too long behind a slow server are
+          neither deadlocked nor lost
+
+    Prints whether each check passed, and exits with status 1 if any failed. Run from the benchmarks jar with:
+        java -cp target/benchmarks.jar com.omarathon.riotapicrawler.benchmarks.firebase.BatchedFirebaseStubCheck
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.benchmarks.firebase;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.merakianalytics.orianna.Orianna;
+import com.merakianalytics.orianna.types.core.match.Match;
+import com.omarathon.riotapicrawler.benchmarks.fake.FakeRiotDataSource;
+import com.omarathon.riotapicrawler.benchmarks.fake.FakeUniverse;
+import com.omarathon.riotapicrawler.presets.matchformatters.StringMatchFormatter;
+import com.omarathon.riotapicrawler.presets.outputhandlers.BatchedFirebaseOutputHandler;
+import com.omarathon.riotapicrawler.presets.outputhandlers.lib.FirebaseBatchListener;
+import com.omarathon.riotapicrawler.presets.outputhandlers.lib.FirebaseConnection;
+import com.omarathon.riotapicrawler.presets.outputhandlers.lib.FirebaseData;
+import com.omarathon.riotapicrawler.presets.outputhandlers.lib.FirebaseDataGenerator;
+import com.omarathon.riotapicrawler.presets.outputhandlers.lib.FirebaseDataMatchFormatter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import net.thegreshams.firebase4j.error.FirebaseException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BatchedFirebaseStubCheck {
+    private static final String PATH = "matches";
+
+    private final StubFirebase stub = new StubFirebase();
+    private final HttpServer server;
+    private final ExecutorService serverExecutor = Executors.newCachedThreadPool();
+    private final FirebaseConnection connection;
+    private final List<Match> matches = new ArrayList<>();
+    private final List<String> failures = new ArrayList<>();
+
+    private BatchedFirebaseStubCheck() throws IOException, FirebaseException {
+        FakeUniverse universe = new FakeUniverse(1);
+        FakeRiotDataSource.install(universe);
+        for (int i = 0; i < 20; i++) {
+            matches.add(Orianna.matchWithId(FakeUniverse.FIRST_GAME_ID + i).withPlatform(universe.getPlatform()).get());
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", stub);
+        server.setExecutor(serverExecutor);
+        server.start();
+        connection = new FirebaseConnection("http://localhost:" + server.getAddress().getPort());
+    }
+
+    public static void main(String[] args) throws Exception {
+        BatchedFirebaseStubCheck check = new BatchedFirebaseStubCheck();
+        try {
+            check.checkBatching();
+            check.checkRetrying();
+            check.checkDropping();
+            check.checkBackpressure();
+        }
+        finally {
+            check.server.stop(0);
+            check.serverExecutor.shutdownNow();
+        }
+        System.out.println(check.failures.isEmpty() ? "All checks passed" : check.failures.size() + " check(s) failed: " + check.failures);
+        System.exit(check.failures.isEmpty() ? 0 : 1);
+    }
+
+    // a full batch and a batch flushed after the maximum delay are each one PATCH, with every Match under a distinct push ID
+    private void checkBatching() throws InterruptedException {
+        stub.reset(0);
+        RecordingListener listener = new RecordingListener();
+        BatchedFirebaseOutputHandler handler = handler(3, 200, 1, 4, listener);
+        for (Match match : matches.subList(0, 5)) {
+            handler.handle(match);
+        }
+        // the last 2 Matches don't fill a batch, so are only flushed once they've waited the maximum delay
+        Thread.sleep(1000);
+        List<Request> requests = stub.getRequests();
+        report("timed flush", requests.size() == 2, requests.size() + " requests before stop, expected 2");
+        handler.stop();
+
+        requests = stub.getRequests();
+        report("batches are PATCHes of the path", requests.size() == 2
+                        && requests.stream().allMatch(r -> r.method.equals("PATCH") && r.path.equals("/" + PATH + ".json")),
+                requests.toString());
+        StringMatchFormatter formatter = new StringMatchFormatter();
+        Set<String> pushIds = new HashSet<>();
+        int matched = 0;
+        for (Request request : requests) {
+            JsonObject body = new JsonParser().parse(request.body).getAsJsonObject();
+            for (Map.Entry<String, JsonElement> child : body.entrySet()) {
+                pushIds.add(child.getKey());
+                if (matched < 5 && child.getValue().equals(new JsonParser().parse(formatter.format(matches.get(matched))))) matched++;
+            }
+        }
+        report("each Match is a child under its own push ID", matched == 5 && pushIds.size() == 5
+                        && pushIds.stream().allMatch(pushId -> pushId.length() == 20),
+                matched + " Matches in order under " + pushIds);
+        report("written batches are reported", listener.events.equals(Arrays.asList("written 3 1", "written 2 1")), listener.events.toString());
+    }
+
+    // a batch answered with 503 is retried with backoff, and written once the server recovers
+    private void checkRetrying() {
+        stub.reset(0, 503, 503);
+        RecordingListener listener = new RecordingListener();
+        BatchedFirebaseOutputHandler handler = handler(2, 60000, 5, 4, listener);
+        handler.handle(matches.get(0));
+        handler.handle(matches.get(1));
+        handler.stop();
+
+        List<Request> requests = stub.getRequests();
+        report("a failed batch is sent again unchanged", requests.size() == 3
+                        && requests.stream().allMatch(r -> r.body.equals(requests.get(0).body)),
+                requests.size() + " requests");
+        report("retries back off, then the batch is written", listener.events.equals(Arrays.asList("retry 2 1", "retry 2 2", "written 2 3"))
+                        && listener.delays.size() == 2 && listener.delays.get(0) <= 500 && listener.delays.get(1) <= 1000,
+                listener.events + " after delays " + listener.delays);
+    }
+
+    // a batch that can't be written is reported as dropped, at once if it isn't retryable, otherwise once it's out of attempts
+    private void checkDropping() {
+        stub.reset(0, 400);
+        RecordingListener listener = new RecordingListener();
+        BatchedFirebaseOutputHandler handler = handler(2, 60000, 5, 4, listener);
+        handler.handle(matches.get(0));
+        handler.handle(matches.get(1));
+        handler.stop();
+        report("a rejected batch is dropped without retrying", stub.getRequests().size() == 1 && listener.events.equals(Arrays.asList("dropped 2 1"))
+                        && listener.reasons.get(0).contains("400"),
+                listener.events + " " + listener.reasons);
+
+        stub.reset(0, 503, 503);
+        listener = new RecordingListener();
+        handler = handler(2, 60000, 2, 4, listener);
+        handler.handle(matches.get(0));
+        handler.handle(matches.get(1));
+        handler.stop();
+        report("a batch out of attempts is dropped", stub.getRequests().size() == 2 && listener.events.equals(Arrays.asList("retry 2 1", "dropped 2 2")),
+                listener.events + " " + listener.reasons);
+    }
+
+    /* Batches flushed for waiting too long wait for space like any other, without holding up the writes that make space:
+       every third Match goes to a second path, whose batches never fill, so are flushed for waiting too long while
+       full batches of the first path hold the only space, behind a slow server. */
+    private void checkBackpressure() throws InterruptedException {
+        stub.reset(50);
+        RecordingListener listener = new RecordingListener();
+        AtomicInteger formatted = new AtomicInteger();
+        FirebaseDataMatchFormatter formatter = new FirebaseDataMatchFormatter(new FirebaseDataGenerator(connection, PATH)) {
+            @Override
+            public FirebaseData format(Match match) {
+                FirebaseData data = super.format(match);
+                String path = (formatted.getAndIncrement() % 3 == 0) ? PATH + "-slow" : PATH;
+                return new FirebaseData(data.getConnection(), path, data.getJsonString());
+            }
+        };
+        BatchedFirebaseOutputHandler handler = new BatchedFirebaseOutputHandler(formatter, 2, 10, TimeUnit.MILLISECONDS, 1, 1, listener);
+        Thread crawl = new Thread(() -> {
+            for (int i = 0; i < 5; i++) {
+                for (Match match : matches) {
+                    handler.handle(match);
+                }
+            }
+            handler.stop();
+        });
+        crawl.setDaemon(true);
+        crawl.start();
+        crawl.join(TimeUnit.SECONDS.toMillis(30));
+        report("timed flushes behind a slow server finish", !crawl.isAlive(), "still handling after 30s");
+        if (crawl.isAlive()) return;
+        int written = 0;
+        for (String event : listener.events) {
+            if (event.startsWith("written ")) written += Integer.parseInt(event.split(" ")[1]);
+        }
+        report("timed flushes behind a slow server lose nothing", written == 5 * matches.size() && listener.reasons.isEmpty(),
+                written + " of " + 5 * matches.size() + " written, " + listener.events);
+    }
+
+    private BatchedFirebaseOutputHandler handler(int batchSize, long maxDelayMillis, int maxAttempts, int maxPendingBatches, FirebaseBatchListener listener) {
+        FirebaseDataMatchFormatter formatter = new FirebaseDataMatchFormatter(new FirebaseDataGenerator(connection, PATH));
+        return new BatchedFirebaseOutputHandler(formatter, batchSize, maxDelayMillis, TimeUnit.MILLISECONDS, maxAttempts, maxPendingBatches, listener);
+    }
+
+    private void report(String check, boolean passed, String detail) {
+        System.out.println((passed ? "PASS " : "FAIL ") + check + (passed ? "" : ": " + detail));
+        if (!passed) failures.add(check);
+    }
+
+    // records the requests made of it, answering each after a delay with the next status it's given, or 200 once they run out
+    private static final class StubFirebase implements HttpHandler {
+        private final List<Request> requests = new ArrayList<>();
+        private final Queue<Integer> statuses = new ConcurrentLinkedQueue<>();
+        private volatile long delayMillis;
+
+        private synchronized void reset(long delayMillis, Integer... statuses) {
+            requests.clear();
+            this.statuses.clear();
+            this.statuses.addAll(Arrays.asList(statuses));
+            this.delayMillis = delayMillis;
+        }
+
+        private synchronized List<Request> getRequests() {
+            return new ArrayList<>(requests);
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            String body = read(exchange.getRequestBody());
+            synchronized (this) {
+                requests.add(new Request(exchange.getRequestMethod(), exchange.getRequestURI().getPath(), body));
+            }
+            try {
+                Thread.sleep(delayMillis);
+            }
+            catch (InterruptedException e) { // answer now, and preserve the interrupt
+                Thread.currentThread().interrupt();
+            }
+            Integer status = statuses.poll();
+            if (status == null) status = 200;
+            // the Firebase answers a successful update with the data written
+            byte[] response = ((status == 200) ? body : "{\"error\":\"stub status " + status + "\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        }
+
+        private static String read(InputStream in) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            for (int read; (read = in.read(buffer)) != -1; ) {
+                bytes.write(buffer, 0, read);
+            }
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class Request {
+        private final String method;
+        private final String path;
+        private final String body;
+
+        private Request(String method, String path, String body) {
+            this.method = method;
+            this.path = path;
+            this.body = body;
+        }
+
+        @Override
+        public String toString() {
+            return method + " " + path;
+        }
+    }
+
+    // records each batch event as e.g "retry <size> <attempt>", with the delays of retries and the reasons batches were dropped
+    private static final class RecordingListener implements FirebaseBatchListener {
+        private final List<String> events = new ArrayList<>();
+        private final List<Long> delays = new ArrayList<>();
+        private final List<String> reasons = new ArrayList<>();
+
+        @Override
+        public synchronized void onBatchWritten(String path, int size, int attempts) {
+            events.add("written " + size + " " + attempts);
+        }
+
+        @Override
+        public synchronized void onBatchRetry(String path, int size, int attempt, String reason, long delayMillis) {
+            events.add("retry " + size + " " + attempt);
+            delays.add(delayMillis);
+        }
+
+        @Override
+        public synchronized void onBatchDropped(String path, int size, int attempts, String reason) {
+            events.add("dropped " + size + " " + attempts);
+            reasons.add(reason);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*
+    Runs a Crawler end to end against a FakeUniverse served by FakeRiotDataSource, for a given duration, and samples
+    how the crawl is going at a fixed period:
+        - api_calls: requests made of the simulated API (summoners, match histories, matches and league positions)
+        - discovered, disc/call: distinct summoners crawled, in total and per API call
+        - backtrack: the fraction of crawl iterations that backtracked rather than crawling from the frontier
+        - matches, dup_rate: Matches output, and the fraction of them that had already been output
+        - heap_mb, history, frontier, B/summ: heap in use, the sizes of the SummonerHistory and Frontier, and the heap
+          grown since the crawl started per summoner in the history
+
+    Scaling problems that only show after hours of live crawling (e.g SummonerHistory heap growth) show in minutes here,
+    since the simulated API answers as fast as it's allowed to: its latency and rate limits are set on FakeRiotDataSource.
+
+    Run from the benchmarks jar with, e.g:
+        java -Xmx4g -cp target/benchmarks.jar com.omarathon.riotapicrawler.benchmarks.simulation.CrawlSimulation \
+            --summoners=2000000 --workers=8 --duration=600 --latency=20 --jitter=30 --app-limit=500/10
+    See usage for every option.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.benchmarks.simulation;
+
+import com.google.common.cache.CacheBuilder;
+import com.merakianalytics.orianna.Orianna;
+import com.merakianalytics.orianna.types.common.Platform;
+import com.omarathon.riotapicrawler.benchmarks.fake.FakeRiotDataSource;
+import com.omarathon.riotapicrawler.benchmarks.fake.FakeUniverse;
+import com.omarathon.riotapicrawler.presets.crawlerconfigs.BasicCrawlerConfig;
+import com.omarathon.riotapicrawler.presets.listeners.MetricsCrawlerListener;
+import com.omarathon.riotapicrawler.src.Crawler;
+import com.omarathon.riotapicrawler.src.lib.CrawlerConfig;
+import com.omarathon.riotapicrawler.src.lib.SummonerHistory;
+import com.omarathon.riotapicrawler.src.lib.scheduler.RateLimit;
+import com.omarathon.riotapicrawler.src.lib.scheduler.RequestScheduler;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class CrawlSimulation {
+    private final FakeUniverse universe;
+    private final CrawlerConfig crawlerConfig;
+    private long durationMillis = TimeUnit.MINUTES.toMillis(1);
+    private long samplePeriodMillis = TimeUnit.SECONDS.toMillis(5);
+    private boolean collectBeforeSampling = true;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    // crawls the universe with the given CrawlerConfig, which mustn't be shared with another simulation
+    public CrawlSimulation(FakeUniverse universe, CrawlerConfig crawlerConfig) {
+        this.universe = universe;
+        this.crawlerConfig = crawlerConfig;
+    }
+
+    /* INPUTS: the longest the crawl runs for (it may end sooner, if it runs out of summoners), and its unit.
+       THROWS: IllegalArgumentException if the duration is <1. */
+    public void setDuration(long duration, TimeUnit unit) throws IllegalArgumentException {
+        if (duration < 1) throw new IllegalArgumentException("Nonsensical input for simulation duration (less than 1)");
+        durationMillis = unit.toMillis(duration);
+    }
+
+    /* INPUTS: the period between samples, and its unit.
+       THROWS: IllegalArgumentException if the period is <1. */
+    public void setSamplePeriod(long period, TimeUnit unit) throws IllegalArgumentException {
+        if (period < 1) throw new IllegalArgumentException("Nonsensical input for sample period (less than 1)");
+        samplePeriodMillis = unit.toMillis(period);
+    }
+
+    /* Whether to collect garbage before measuring the heap of each sample (true by default), so it measures what the crawl
+       keeps rather than when the collector last ran, at the cost of a full collection per sample. */
+    public void setCollectBeforeSampling(boolean collectBeforeSampling) {
+        this.collectBeforeSampling = collectBeforeSampling;
+    }
+
+    /* Installs the universe into Orianna, then crawls it from the given summoner until the duration has passed or the crawl ends,
+       printing a sample every period to out (which may be null). Returns every sample, the last taken once the crawl has ended. */
+    public List<SimulationSample> run(int initialSummoner, PrintStream out) throws InterruptedException {
+        FakeRiotDataSource.install(universe);
+        DistinctMatchOutputHandler output = new DistinctMatchOutputHandler(universe);
+        SimulationListener simulationListener = new SimulationListener(universe);
+        MetricsCrawlerListener metrics = new MetricsCrawlerListener(simulationListener);
+        Crawler crawler = new Crawler(crawlerConfig, output, metrics);
+        simulationListener.setCrawler(crawler);
+
+        long baselineHeap = heapBytes(true);
+        List<SimulationSample> samples = new ArrayList<>();
+        if (out != null) out.println(SimulationSample.header());
+
+        long start = System.currentTimeMillis();
+        crawler.run(Orianna.summonerWithId(FakeUniverse.summonerIdOf(initialSummoner)).get());
+        boolean ended = false;
+        while (!ended) {
+            long elapsed = System.currentTimeMillis() - start;
+            if (elapsed >= durationMillis) {
+                crawler.stop();
+                ended = simulationListener.awaitEnd(Long.MAX_VALUE, TimeUnit.DAYS);
+            }
+            else {
+                ended = simulationListener.awaitEnd(Math.min(samplePeriodMillis, durationMillis - elapsed), TimeUnit.MILLISECONDS);
+            }
+            SimulationSample sample = sample(System.currentTimeMillis() - start, simulationListener, metrics, output);
+            samples.add(sample);
+            if (out != null) out.println(sample.toString(baselineHeap));
+        }
+        return samples;
+    }
+
+    private SimulationSample sample(long elapsedMillis, SimulationListener listener, MetricsCrawlerListener metrics, DistinctMatchOutputHandler output) {
+        long matches = output.getHandled();
+        return new SimulationSample(elapsedMillis, FakeRiotDataSource.getRequests(), listener.getDiscovered(),
+                metrics.getCount(MetricsCrawlerListener.Counter.SUMMONERS_CRAWLED), metrics.getCount(MetricsCrawlerListener.Counter.BACKTRACKS),
+                matches, matches - output.getDistinct(), heapBytes(collectBeforeSampling),
+                crawlerConfig.getSummonerHistory().size(), crawlerConfig.getFrontier().size());
+    }
+
+    private long heapBytes(boolean collect) {
+        if (collect) System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) usage("Unexpected argument: " + arg);
+            int equals = arg.indexOf('=');
+            if (equals < 0) options.put(arg.substring(2), "true");
+            else options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        if (options.containsKey("help")) usage(null);
+
+        try {
+            FakeUniverse universe = new FakeUniverse(Platform.EUROPE_WEST, intOption(options, "summoners", 1_000_000),
+                    intOption(options, "history", 20), longOption(options, "seed", 42));
+
+            CrawlerConfig config = new BasicCrawlerConfig(intOption(options, "max-matches", 20));
+            config.setWorkers(intOption(options, "workers", 4));
+            config.setPrefetchThreads(intOption(options, "prefetch-threads", 0));
+            config.setMaxCandidates(intOption(options, "max-candidates", config.getMaxCandidates()));
+            int historySize = intOption(options, "history-size", 0);
+            boolean compact = options.containsKey("compact");
+            if (compact) {
+                config.setSummonerHistory(SummonerHistory.compact((historySize > 0) ? historySize : 100000, 1, TimeUnit.DAYS));
+            }
+            else if (historySize > 0) {
+                config.setSummonerHistory(new SummonerHistory(CacheBuilder.newBuilder().expireAfterWrite(1, TimeUnit.DAYS).maximumSize(historySize)));
+            }
+
+            FakeRiotDataSource.setLatency(longOption(options, "latency", 0), longOption(options, "jitter", 0), TimeUnit.MILLISECONDS);
+            Map<String, RateLimit[]> methodLimits = new HashMap<>();
+            String matchLimit = options.get("match-limit");
+            if (matchLimit != null) methodLimits.put(RequestScheduler.MATCH, rateLimits(matchLimit));
+            String appLimit = options.get("app-limit");
+            FakeRiotDataSource.setRateLimits((appLimit == null) ? new RateLimit[0] : rateLimits(appLimit), methodLimits);
+
+            CrawlSimulation simulation = new CrawlSimulation(universe, config);
+            simulation.setDuration(longOption(options, "duration", 60), TimeUnit.SECONDS);
+            simulation.setSamplePeriod(longOption(options, "period", 5), TimeUnit.SECONDS);
+            simulation.setCollectBeforeSampling(!options.containsKey("no-gc"));
+            simulation.run(intOption(options, "start", universe.getSummonerCount() / 2), System.out);
+        }
+        catch (IllegalArgumentException e) {
+            usage(e.getMessage());
+        }
+        System.exit(0);
+    }
+
+    // rate limits given as "permits/seconds", separated by commas, e.g "20/1,100/120" for a development key
+    private static RateLimit[] rateLimits(String value) throws IllegalArgumentException {
+        String[] limits = value.split(",");
+        RateLimit[] parsed = new RateLimit[limits.length];
+        for (int i = 0; i < limits.length; i++) {
+            String[] parts = limits[i].trim().split("/");
+            if (parts.length != 2) throw new IllegalArgumentException("Invalid rate limit (expected permits/seconds): " + limits[i]);
+            parsed[i] = new RateLimit(Integer.parseInt(parts[0].trim()), Long.parseLong(parts[1].trim()), TimeUnit.SECONDS);
+        }
+        return parsed;
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) throws IllegalArgumentException {
+        return (int) longOption(options, name, defaultValue);
+    }
+
+    private static long longOption(Map<String, String> options, String name, long defaultValue) throws IllegalArgumentException {
+        String value = options.get(name);
+        if (value == null) return defaultValue;
+        try {
+            return Long.parseLong(value.replace("_", ""));
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for --" + name + ": " + value);
+        }
+    }
+
+    private static void usage(String error) {
+        PrintStream out = (error == null) ? System.out : System.err;
+        if (error != null) out.println(error);
+        out.println("Usage: CrawlSimulation [options]");
+        out.println("  --summoners=N         summoners in the universe (1000000)");
+        out.println("  --history=N           matches each summoner plays on average (20)");
+        out.println("  --seed=N              seed the universe is generated from (42)");
+        out.println("  --start=N             index of the summoner to start crawling from (the middle summoner)");
+        out.println("  --max-matches=N       matches crawled per summoner (20)");
+        out.println("  --workers=N           crawler workers (4)");
+        out.println("  --prefetch-threads=N  crawler prefetch threads (0)");
+        out.println("  --max-candidates=N    most crawlable summoners found per match history, 0 for no limit (the CrawlerConfig's default)");
+        out.println("  --history-size=N      most summoners the SummonerHistory remembers (the CrawlerConfig's default)");
+        out.println("  --compact             use a compact SummonerHistory (remembering 100000 summoners, unless --history-size)");
+        out.println("  --latency=MS          fixed latency of each API call (0)");
+        out.println("  --jitter=MS           most random latency added to each API call (0)");
+        out.println("  --app-limit=P/S,...   application rate limits of the API, as permits per seconds (none)");
+        out.println("  --match-limit=P/S,... method rate limits of match requests (none)");
+        out.println("  --duration=S          longest the crawl runs for, in seconds (60)");
+        out.println("  --period=S            period between samples, in seconds (5)");
+        out.println("  --no-gc               don't collect garbage before measuring the heap");
+        System.exit((error == null) ? 0 : 1);
+    }
+}
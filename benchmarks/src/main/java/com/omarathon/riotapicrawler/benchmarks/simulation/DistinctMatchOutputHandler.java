@@ -0,0 +1,60 @@
+/*
+    An OutputHandler for simulated crawls that records which of a FakeUniverse's Matches it has been given,
+    so the duplicate match rate (the fraction of output Matches that had already been output) can be measured.
+    Uses a single bit per Match of the universe, set without locking.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.benchmarks.simulation;
+
+import com.merakianalytics.orianna.types.core.match.Match;
+import com.omarathon.riotapicrawler.benchmarks.fake.FakeUniverse;
+import com.omarathon.riotapicrawler.src.lib.handler.OutputHandler;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class DistinctMatchOutputHandler extends OutputHandler {
+    private final FakeUniverse universe;
+    private final AtomicLongArray seen;
+    private final LongAdder handled = new LongAdder();
+    private final LongAdder distinct = new LongAdder();
+
+    public DistinctMatchOutputHandler(FakeUniverse universe) {
+        this.universe = universe;
+        this.seen = new AtomicLongArray((universe.getMatchCount() + 63) >>> 6);
+    }
+
+    public void handle(Match match) {
+        handled.increment();
+        int index = universe.matchIndexOf(match.getId());
+        if (index >= 0 && mark(seen, index)) distinct.increment();
+    }
+
+    public long getHandled() {
+        return handled.sum();
+    }
+
+    public long getDistinct() {
+        return distinct.sum();
+    }
+
+    // the fraction of handled Matches that had already been handled (0 if none have been)
+    public double getDuplicateRate() {
+        long total = handled.sum();
+        return (total == 0) ? 0 : (total - distinct.sum()) / (double) total;
+    }
+
+    // sets the bit, returning true if it wasn't already set
+    static boolean mark(AtomicLongArray bits, int index) {
+        int word = index >>> 6;
+        long bit = 1L << index;
+        while (true) {
+            long current = bits.get(word);
+            if ((current & bit) != 0) return false;
+            if (bits.compareAndSet(word, current, current | bit)) return true;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+    A BoundedCrawlListener for simulated crawls that records which of a FakeUniverse's summoners have been crawled,
+    so summoners crawled more than once (e.g after their history entry expired) aren't counted as discovered twice.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.benchmarks.simulation;
+
+import com.merakianalytics.orianna.types.core.summoner.Summoner;
+import com.omarathon.riotapicrawler.benchmarks.BoundedCrawlListener;
+import com.omarathon.riotapicrawler.benchmarks.fake.FakeUniverse;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class SimulationListener extends BoundedCrawlListener {
+    private final FakeUniverse universe;
+    private final AtomicLongArray crawled;
+    private final LongAdder discovered = new LongAdder();
+
+    // never stops the crawl itself
+    public SimulationListener(FakeUniverse universe) {
+        super(Integer.MAX_VALUE);
+        this.universe = universe;
+        this.crawled = new AtomicLongArray((universe.getSummonerCount() + 63) >>> 6);
+    }
+
+    @Override
+    public void onCrawling(Summoner crawlingSummoner) {
+        super.onCrawling(crawlingSummoner);
+        int index = universe.summonerIndexOf(crawlingSummoner.getId());
+        if (index >= 0 && DistinctMatchOutputHandler.mark(crawled, index)) discovered.increment();
+    }
+
+    // number of distinct summoners crawled
+    public long getDiscovered() {
+        return discovered.sum();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+    The state of a simulated crawl at one point in time, as sampled by CrawlSimulation.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.benchmarks.simulation;
+
+import java.util.Locale;
+
+public final class SimulationSample {
+    private final long elapsedMillis;
+    private final long apiCalls;
+    private final long discovered;
+    private final long crawled;
+    private final long backtracks;
+    private final long matchesOutput;
+    private final long duplicateMatches;
+    private final long heapBytes;
+    private final int historySize;
+    private final int frontierSize;
+
+    public SimulationSample(long elapsedMillis, long apiCalls, long discovered, long crawled, long backtracks,
+                            long matchesOutput, long duplicateMatches, long heapBytes, int historySize, int frontierSize) {
+        this.elapsedMillis = elapsedMillis;
+        this.apiCalls = apiCalls;
+        this.discovered = discovered;
+        this.crawled = crawled;
+        this.backtracks = backtracks;
+        this.matchesOutput = matchesOutput;
+        this.duplicateMatches = duplicateMatches;
+        this.heapBytes = heapBytes;
+        this.historySize = historySize;
+        this.frontierSize = frontierSize;
+    }
+
+    // the header of the columns of toString
+    public static String header() {
+        return String.format(Locale.ROOT, "%9s %11s %10s %9s %9s %9s %10s %8s %9s %9s %9s",
+                "elapsed_s", "api_calls", "discovered", "disc/call", "backtrack", "matches", "dup_rate", "heap_mb", "history", "frontier", "B/summ");
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public long getApiCalls() {
+        return apiCalls;
+    }
+
+    // number of distinct summoners crawled
+    public long getDiscovered() {
+        return discovered;
+    }
+
+    // number of summoners crawled, including any crawled more than once
+    public long getCrawled() {
+        return crawled;
+    }
+
+    public long getBacktracks() {
+        return backtracks;
+    }
+
+    public long getMatchesOutput() {
+        return matchesOutput;
+    }
+
+    public long getDuplicateMatches() {
+        return duplicateMatches;
+    }
+
+    // heap in use when sampled, in bytes
+    public long getHeapBytes() {
+        return heapBytes;
+    }
+
+    public int getHistorySize() {
+        return historySize;
+    }
+
+    public int getFrontierSize() {
+        return frontierSize;
+    }
+
+    public double getDiscoveredPerApiCall() {
+        return (apiCalls == 0) ? 0 : discovered / (double) apiCalls;
+    }
+
+    // the fraction of crawl iterations that backtracked rather than crawling a summoner from the frontier
+    public double getBacktrackRatio() {
+        long iterations = backtracks + crawled;
+        return (iterations == 0) ? 0 : backtracks / (double) iterations;
+    }
+
+    public double getDuplicateMatchRate() {
+        return (matchesOutput == 0) ? 0 : duplicateMatches / (double) matchesOutput;
+    }
+
+    // heap growth since the baseline per summoner in the history, in bytes (0 if the history is empty)
+    public long getHeapBytesPerSummoner(long baselineHeapBytes) {
+        return (historySize == 0) ? 0 : (heapBytes - baselineHeapBytes) / historySize;
+    }
+
+    // the sample as a row of the columns of header, with the heap growth measured from the given baseline
+    public String toString(long baselineHeapBytes) {
+        return String.format(Locale.ROOT, "%9.1f %11d %10d %9.4f %9.4f %9d %10.4f %8.1f %9d %9d %9d",
+                elapsedMillis / 1000.0, apiCalls, discovered, getDiscoveredPerApiCall(), getBacktrackRatio(), matchesOutput,
+                getDuplicateMatchRate(), heapBytes / (1024.0 * 1024.0), historySize, frontierSize, getHeapBytesPerSummoner(baselineHeapBytes));
+    }
+
+    @Override
+    public String toString() {
+        return toString(0);
+    }
+}
@@ -0,0 +1,355 @@
+/*
+    An Orianna DataStore that keeps Summoners, MatchLists, LeaguePositions and Matches in a LogStore on disk,
+    so they're fetched from the Riot API once and read back locally across restarts, and by every crawler process on the host
+    that shares the cache's directory.
+
+    Place it in Orianna's pipeline after the InMemoryCache and before the RiotAPI, e.g:
+        List<PipelineElementConfiguration> elements = new ArrayList<>(pipeline.getElements());
+        elements.add(1, DiskCache.configuration(Paths.get("orianna-cache")));
+        pipeline.setElements(elements);
+    or in an Orianna JSON configuration, with the className and configClassName of DiskCache and its Configuration.
+
+    Each type is kept for its expiration period (set per data class name in the Configuration), by default:
+    Summoners for a day, MatchLists for an hour, LeaguePositions for six hours and Matches forever, since they never change.
+    A negative period keeps a type forever, and a period of 0 doesn't keep it at all.
+
+    MatchLists are kept under the query that fetched them, since the Riot API returns a different end index than was asked for
+    when a match history is short: the pipeline puts a fetched MatchList on the thread whose lookup missed, so the missed query is
+    remembered per thread until then, and a MatchList put without one isn't kept.
+
+    Values are compressed, and failures to read or write the cache are counted and treated as misses, so a broken cache only
+    costs the API requests it would have saved.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.datastores;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.merakianalytics.datapipelines.AbstractDataStore;
+import com.merakianalytics.datapipelines.PipelineContext;
+import com.merakianalytics.datapipelines.sinks.Put;
+import com.merakianalytics.datapipelines.sources.Get;
+import com.merakianalytics.orianna.datapipeline.PipelineConfiguration.PipelineElementConfiguration;
+import com.merakianalytics.orianna.datapipeline.common.expiration.ExpirationPeriod;
+import com.merakianalytics.orianna.types.common.Platform;
+import com.merakianalytics.orianna.types.data.CoreData;
+import com.merakianalytics.orianna.types.data.league.LeaguePositions;
+import com.merakianalytics.orianna.types.data.match.Match;
+import com.merakianalytics.orianna.types.data.match.MatchList;
+import com.merakianalytics.orianna.types.data.summoner.Summoner;
+import com.omarathon.riotapicrawler.presets.datastores.lib.LogStore;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+public class DiskCache extends AbstractDataStore {
+    public static class Configuration {
+        private String directory = "orianna-cache";
+        private Map<String, ExpirationPeriod> expirationPeriods = defaultExpirationPeriods();
+        private double compactionRatio = 0.5;
+        private long compactionMinBytes = 16L << 20;
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        // expiration periods by data class name, e.g com.merakianalytics.orianna.types.data.summoner.Summoner
+        public Map<String, ExpirationPeriod> getExpirationPeriods() {
+            return expirationPeriods;
+        }
+
+        public void setExpirationPeriods(Map<String, ExpirationPeriod> expirationPeriods) {
+            this.expirationPeriods = expirationPeriods;
+        }
+
+        public double getCompactionRatio() {
+            return compactionRatio;
+        }
+
+        public void setCompactionRatio(double compactionRatio) {
+            this.compactionRatio = compactionRatio;
+        }
+
+        public long getCompactionMinBytes() {
+            return compactionMinBytes;
+        }
+
+        public void setCompactionMinBytes(long compactionMinBytes) {
+            this.compactionMinBytes = compactionMinBytes;
+        }
+
+        private static Map<String, ExpirationPeriod> defaultExpirationPeriods() {
+            Map<String, ExpirationPeriod> periods = new HashMap<>();
+            periods.put(Summoner.class.getName(), ExpirationPeriod.create(1, TimeUnit.DAYS));
+            periods.put(MatchList.class.getName(), ExpirationPeriod.create(1, TimeUnit.HOURS));
+            periods.put(LeaguePositions.class.getName(), ExpirationPeriod.create(6, TimeUnit.HOURS));
+            periods.put(Match.class.getName(), ExpirationPeriod.create(-1, TimeUnit.MILLISECONDS));
+            return periods;
+        }
+    }
+
+    // kinds of value: data, or the key of the data (for Summoners, which are kept under their summoner ID and looked up by any of their IDs)
+    private static final byte DATA = 0;
+    private static final byte ALIAS = 1;
+
+    // Orianna may build more than one pipeline in a process, so their caches share one store per directory
+    private static final Map<Path, LogStore> stores = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<Deflater> deflaters = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+    private static final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(Inflater::new);
+
+    private final LogStore store;
+    // expiration periods by data class, in milliseconds (negative if it never expires)
+    private final Map<Class<?>, Long> expirations = new HashMap<>();
+    private final LongAdder failures = new LongAdder();
+    // the key of the MatchList query that last missed on each thread, under which the MatchList then fetched is kept
+    private final ThreadLocal<String> missedMatchLists = new ThreadLocal<>();
+
+    public DiskCache() {
+        this(new Configuration());
+    }
+
+    // THROWS: UncheckedIOException if the cache's directory can't be opened
+    public DiskCache(Configuration config) throws UncheckedIOException {
+        Path directory = Paths.get(config.getDirectory()).toAbsolutePath().normalize();
+        store = stores.computeIfAbsent(directory, path -> {
+            try {
+                return new LogStore(path, config.getCompactionRatio(), config.getCompactionMinBytes());
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        for (Class<?> type : new Class<?>[] {Summoner.class, MatchList.class, LeaguePositions.class, Match.class}) {
+            ExpirationPeriod period = config.getExpirationPeriods().get(type.getName());
+            if (period == null) period = Configuration.defaultExpirationPeriods().get(type.getName());
+            expirations.put(type, (period.getPeriod() < 0) ? -1 : period.getUnit().toMillis(period.getPeriod()));
+        }
+    }
+
+    // the configuration of a DiskCache in the given directory with the default expiration periods, for an Orianna pipeline
+    public static PipelineElementConfiguration configuration(Path directory) {
+        Configuration config = new Configuration();
+        config.setDirectory(directory.toString());
+        return configuration(config);
+    }
+
+    public static PipelineElementConfiguration configuration(Configuration config) {
+        PipelineElementConfiguration element = new PipelineElementConfiguration();
+        element.setClassName(DiskCache.class.getName());
+        element.setConfigClassName(Configuration.class.getName());
+        element.setConfig(new ObjectMapper().valueToTree(config));
+        return element;
+    }
+
+    @Get(Summoner.class)
+    public Summoner getSummoner(Map<String, Object> query, PipelineContext context) {
+        String platform = platformOf(query);
+        String key = null;
+        if (query.get("id") != null) key = summonerKey(platform, "id", (String) query.get("id"));
+        else if (query.get("accountId") != null) key = summonerKey(platform, "account", (String) query.get("accountId"));
+        else if (query.get("puuid") != null) key = summonerKey(platform, "puuid", (String) query.get("puuid"));
+        else if (query.get("name") != null) key = summonerKey(platform, "name", normaliseName((String) query.get("name")));
+        return (key == null) ? null : read(Summoner.class, key);
+    }
+
+    @Put(Summoner.class)
+    public void putSummoner(Summoner summoner, PipelineContext context) {
+        if (summoner.getId() == null || summoner.getPlatform() == null) return;
+        String key = summonerKey(summoner.getPlatform(), "id", summoner.getId());
+        long expiresAt = expiryOf(Summoner.class);
+        if (expiresAt == 0 || !write(key, encode(summoner), expiresAt)) return;
+        byte[] alias = alias(key);
+        if (summoner.getAccountId() != null) write(summonerKey(summoner.getPlatform(), "account", summoner.getAccountId()), alias, expiresAt);
+        if (summoner.getPuuid() != null) write(summonerKey(summoner.getPlatform(), "puuid", summoner.getPuuid()), alias, expiresAt);
+        if (summoner.getName() != null) write(summonerKey(summoner.getPlatform(), "name", normaliseName(summoner.getName())), alias, expiresAt);
+    }
+
+    @Get(MatchList.class)
+    public MatchList getMatchList(Map<String, Object> query, PipelineContext context) {
+        String accountId = (String) query.get("accountId");
+        if (accountId == null) return null;
+        String key = "match-list/" + platformOf(query) + "/" + accountId + "/" + query.get("beginIndex") + "-" + query.get("endIndex")
+                + "/t" + query.get("beginTime") + "-" + query.get("endTime")
+                + "/q" + sortedIds((Collection<?>) query.get("queues")) + "/s" + sortedIds((Collection<?>) query.get("seasons"))
+                + "/c" + sortedIds((Collection<?>) query.get("champions"));
+        MatchList matchList = read(MatchList.class, key);
+        if (matchList == null) missedMatchLists.set(key);
+        return matchList;
+    }
+
+    @Put(MatchList.class)
+    public void putMatchList(MatchList matchList, PipelineContext context) {
+        String key = missedMatchLists.get();
+        missedMatchLists.remove();
+        // only keep the MatchList under the query that missed for it
+        if (key == null || !key.startsWith("match-list/" + matchList.getPlatform() + "/" + matchList.getAccountId() + "/")) return;
+        put(MatchList.class, key, matchList);
+    }
+
+    @Get(LeaguePositions.class)
+    public LeaguePositions getLeaguePositions(Map<String, Object> query, PipelineContext context) {
+        String summonerId = (String) query.get("summonerId");
+        return (summonerId == null) ? null : read(LeaguePositions.class, "league-positions/" + platformOf(query) + "/" + summonerId);
+    }
+
+    @Put(LeaguePositions.class)
+    public void putLeaguePositions(LeaguePositions positions, PipelineContext context) {
+        if (positions.getSummonerId() == null || positions.getPlatform() == null) return;
+        put(LeaguePositions.class, "league-positions/" + positions.getPlatform() + "/" + positions.getSummonerId(), positions);
+    }
+
+    @Get(Match.class)
+    public Match getMatch(Map<String, Object> query, PipelineContext context) {
+        Number matchId = (Number) query.get("matchId");
+        // tournament matches are looked up by their code too, so aren't kept
+        if (matchId == null || query.get("tournamentCode") != null) return null;
+        return read(Match.class, "match/" + platformOf(query) + "/" + matchId.longValue());
+    }
+
+    @Put(Match.class)
+    public void putMatch(Match match, PipelineContext context) {
+        if (match.getPlatform() == null) return;
+        put(Match.class, "match/" + match.getPlatform() + "/" + match.getId(), match);
+    }
+
+    private <T extends CoreData> void put(Class<T> type, String key, T data) {
+        long expiresAt = expiryOf(type);
+        if (expiresAt != 0) write(key, encode(data), expiresAt);
+    }
+
+    // the data of the key (following an alias), or null if it's absent, expired or unreadable
+    private <T extends CoreData> T read(Class<T> type, String key) {
+        try {
+            byte[] value = store.get(key);
+            if (value != null && value[0] == ALIAS) value = store.get(new String(value, 1, value.length - 1, StandardCharsets.UTF_8));
+            if (value == null || value[0] != DATA) return null;
+            return CoreData.fromBytes(type, inflate(value));
+        }
+        catch (IOException | DataFormatException | RuntimeException e) {
+            failures.increment();
+            return null;
+        }
+    }
+
+    private boolean write(String key, byte[] value, long expiresAt) {
+        try {
+            store.put(key, value, expiresAt);
+            return true;
+        }
+        catch (IOException | RuntimeException e) {
+            failures.increment();
+            return false;
+        }
+    }
+
+    // when data of the type stored now expires: LogStore.NEVER_EXPIRES if never, or 0 if it isn't kept
+    private long expiryOf(Class<?> type) {
+        long expiration = expirations.get(type);
+        if (expiration < 0) return LogStore.NEVER_EXPIRES;
+        return (expiration == 0) ? 0 : System.currentTimeMillis() + expiration;
+    }
+
+    // the data's bytes, compressed, after the DATA kind and their uncompressed length
+    private static byte[] encode(CoreData data) {
+        byte[] bytes = data.toBytes();
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        deflater.setInput(bytes);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 16);
+        out.write(DATA);
+        out.write(ByteBuffer.allocate(4).putInt(bytes.length).array(), 0, 4);
+        byte[] buffer = new byte[4096];
+        while (!deflater.finished()) {
+            out.write(buffer, 0, deflater.deflate(buffer));
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] inflate(byte[] value) throws DataFormatException {
+        byte[] bytes = new byte[ByteBuffer.wrap(value, 1, 4).getInt()];
+        Inflater inflater = inflaters.get();
+        inflater.reset();
+        inflater.setInput(value, 5, value.length - 5);
+        int inflated = 0;
+        while (inflated < bytes.length) {
+            int read = inflater.inflate(bytes, inflated, bytes.length - inflated);
+            if (read == 0 && (inflater.finished() || inflater.needsInput())) throw new DataFormatException("Truncated DiskCache value");
+            inflated += read;
+        }
+        return bytes;
+    }
+
+    private static byte[] alias(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] alias = new byte[bytes.length + 1];
+        alias[0] = ALIAS;
+        System.arraycopy(bytes, 0, alias, 1, bytes.length);
+        return alias;
+    }
+
+    private static String platformOf(Map<String, Object> query) {
+        Object platform = query.get("platform");
+        return (platform instanceof Platform) ? ((Platform) platform).getTag() : String.valueOf(platform);
+    }
+
+    private static String summonerKey(String platform, String by, String value) {
+        return "summoner/" + platform + "/" + by + "/" + value;
+    }
+
+    // summoner names are looked up ignoring case and spaces
+    private static String normaliseName(String name) {
+        return name.replace(" ", "").toLowerCase(Locale.ROOT);
+    }
+
+    // the IDs in ascending order, separated by commas
+    private static String sortedIds(Collection<?> ids) {
+        if (ids == null || ids.isEmpty()) return "";
+        List<Integer> sorted = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            sorted.add(((Number) id).intValue());
+        }
+        sorted.sort(null);
+        StringBuilder out = new StringBuilder();
+        for (int id : sorted) {
+            if (out.length() > 0) out.append(',');
+            out.append(id);
+        }
+        return out.toString();
+    }
+
+    // metrics
+
+    public LogStore getStore() {
+        return store;
+    }
+
+    // number of reads and writes of the cache that failed, and were treated as misses
+    public long getFailures() {
+        return failures.sum();
+    }
+}
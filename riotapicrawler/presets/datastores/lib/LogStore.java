@@ -0,0 +1,542 @@
+/*
+    A persistent key-value store of byte arrays with per-entry expiry, kept as an append-only log on disk,
+    with an in-memory index from a 64-bit hash of each key to the position of its latest record in the log.
+
+    Every put appends a record, so overwritten and expired records are left behind in the log as dead bytes.
+    Once dead bytes make up more than the compaction ratio of a log of at least the minimum compaction size, the live records
+    are copied into a new log (the next generation) and the old log is deleted.
+
+    Several processes on one host may share a directory: appends and compactions are made under an exclusive lock of the
+    directory's lock file, and each process catches up with the records appended by the others (under a shared lock)
+    when a lookup misses. A compaction marks the log it replaces as superseded, so the other processes move to the new log.
+    Only one LogStore per directory may be open in a single process, as file locks are held per process.
+
+    The log starts with a HEADER_SIZE byte header (the "RALS" magic, the format version, and whether the log is superseded),
+    followed by records of:
+        - int record length (including this header), int CRC32 of the rest of the record,
+        - long expiry time in epoch milliseconds (Long.MAX_VALUE if it never expires),
+        - short key length, the UTF-8 key, and the value.
+    A record that's cut short or fails its CRC (e.g from a crash while writing) is dropped, along with everything after it.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.datastores.lib;
+
+import com.google.common.hash.Hashing;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+public class LogStore implements Closeable {
+    public static final long NEVER_EXPIRES = Long.MAX_VALUE;
+    public static final int HEADER_SIZE = 16;
+    // "RALS"
+    private static final int MAGIC = 0x534c4152;
+    private static final int VERSION = 1;
+    private static final int SUPERSEDED_OFFSET = 8;
+    // record length, CRC, expiry and key length
+    private static final int RECORD_HEADER_SIZE = 4 + 4 + 8 + 2;
+    private static final int MAX_KEY_LENGTH = Short.MAX_VALUE;
+    // how often a lookup that misses checks whether another process has compacted the log
+    private static final long SUPERSEDED_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    // how many puts between sweeps of the index for expired entries, so they count towards compaction
+    private static final int SWEEP_PUTS = 4096;
+
+    private final Path directory;
+    private final double compactionRatio;
+    private final long compactionMinBytes;
+
+    // the position, length and expiry of the latest record of each key hash, replaced whole when the log is replaced
+    private volatile Map<Long, Entry> index = new ConcurrentHashMap<>();
+    // guards the log channel: lookups read under the read lock, anything that appends to, scans or replaces the log takes the write lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final FileChannel lockChannel;
+    private FileChannel log;
+    private long generation;
+    // the end of the last whole record indexed
+    private volatile long indexedTo;
+    private long deadBytes = 0;
+    private int putsSinceSweep = 0;
+    private volatile long lastSupersededCheck = System.nanoTime();
+    private boolean closed = false;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+
+    // compacts once half of a log of at least 16MB is dead
+    public LogStore(Path directory) throws IOException {
+        this(directory, 0.5, 16L << 20);
+    }
+
+    /* INPUTS: the directory of the log (created if it doesn't exist), the fraction of the log that must be dead before it's compacted,
+               and the smallest log that's compacted, in bytes.
+       THROWS: IllegalArgumentException if:
+                - compactionRatio isn't between 0 (exclusive) and 1 (inclusive),
+                - compactionMinBytes is <0,
+               IOException if the directory or log can't be opened, or the log isn't a LogStore log. */
+    public LogStore(Path directory, double compactionRatio, long compactionMinBytes) throws IllegalArgumentException, IOException {
+        if (!(compactionRatio > 0 && compactionRatio <= 1)) throw new IllegalArgumentException("Nonsensical input for compaction ratio (not in (0, 1])");
+        if (compactionMinBytes < 0) throw new IllegalArgumentException("Nonsensical input for minimum compaction size (less than 0)");
+        this.directory = directory;
+        this.compactionRatio = compactionRatio;
+        this.compactionMinBytes = compactionMinBytes;
+        Files.createDirectories(directory);
+        lockChannel = FileChannel.open(directory.resolve("store.lock"), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            FileLock fileLock = lockChannel.lock();
+            try {
+                openLatest(true);
+                deleteOldLogs();
+            }
+            finally {
+                fileLock.release();
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            lockChannel.close();
+            if (log != null) log.close();
+            throw e;
+        }
+    }
+
+    // the value of the key, or null if it's absent or expired
+    public byte[] get(String key) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(keyBytes);
+        while (true) {
+            Entry entry = index.get(hash);
+            if (entry == null && catchUp()) entry = index.get(hash);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (entry.expiresAt <= System.currentTimeMillis()) {
+                expire(hash, entry);
+                expired.increment();
+                misses.increment();
+                return null;
+            }
+
+            ByteBuffer record = ByteBuffer.allocate(entry.length);
+            lock.readLock().lock();
+            try {
+                checkOpen();
+                // the log was compacted since the entry was looked up, so look it up again
+                if (index.get(hash) != entry) continue;
+                readFully(log, record, entry.position);
+            }
+            finally {
+                lock.readLock().unlock();
+            }
+            int keyLength = record.getShort(RECORD_HEADER_SIZE - 2) & 0xffff;
+            // a different key with the same hash
+            if (keyLength != keyBytes.length || !Arrays.equals(keyBytes, Arrays.copyOfRange(record.array(), RECORD_HEADER_SIZE, RECORD_HEADER_SIZE + keyLength))) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return Arrays.copyOfRange(record.array(), RECORD_HEADER_SIZE + keyLength, entry.length);
+        }
+    }
+
+    /* Appends the value of the key, replacing any previous value.
+       INPUTS: the key, its value, and when it expires in epoch milliseconds (NEVER_EXPIRES if it never does).
+       THROWS: IllegalArgumentException if the key is longer than Short.MAX_VALUE bytes, or the record longer than Integer.MAX_VALUE bytes,
+               IOException if the record can't be written. */
+    public void put(String key, byte[] value, long expiresAt) throws IllegalArgumentException, IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length > MAX_KEY_LENGTH) throw new IllegalArgumentException("Nonsensical input for key (longer than " + MAX_KEY_LENGTH + " bytes)");
+        long length = (long) RECORD_HEADER_SIZE + keyBytes.length + value.length;
+        if (length > Integer.MAX_VALUE) throw new IllegalArgumentException("Nonsensical input for value (record longer than " + Integer.MAX_VALUE + " bytes)");
+
+        ByteBuffer record = ByteBuffer.allocate((int) length);
+        record.putInt((int) length).putInt(0).putLong(expiresAt).putShort((short) keyBytes.length).put(keyBytes).put(value);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 8, record.capacity() - 8);
+        record.putInt(4, (int) crc.getValue());
+        record.flip();
+
+        lock.writeLock().lock();
+        try {
+            FileLock fileLock = lockChannel.lock();
+            try {
+                checkOpen();
+                if (isSuperseded()) openLatest(true);
+                else scan(true);
+                long position = log.size();
+                writeFully(log, record, position);
+                index(hash(keyBytes), new Entry(position, (int) length, expiresAt));
+                indexedTo = position + length;
+                puts.increment();
+
+                if (++putsSinceSweep >= SWEEP_PUTS) sweep();
+                long logBytes = indexedTo - HEADER_SIZE;
+                if (logBytes >= compactionMinBytes && deadBytes > compactionRatio * logBytes) compactLocked();
+            }
+            finally {
+                fileLock.release();
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // copies the live records into a new log, and deletes the old one
+    public void compact() throws IOException {
+        lock.writeLock().lock();
+        try {
+            FileLock fileLock = lockChannel.lock();
+            try {
+                checkOpen();
+                if (isSuperseded()) openLatest(true);
+                else scan(true);
+                compactLocked();
+            }
+            finally {
+                fileLock.release();
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // called holding the write lock and the exclusive file lock, with the log fully indexed
+    private void compactLocked() throws IOException {
+        Path target = logPath(generation + 1);
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        long now = System.currentTimeMillis();
+        Map<Long, Entry> compacted = new ConcurrentHashMap<>();
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(out, header(), 0);
+            long position = HEADER_SIZE;
+            for (Map.Entry<Long, Entry> live : index.entrySet()) {
+                Entry entry = live.getValue();
+                if (entry.expiresAt <= now) continue;
+                long copied = 0;
+                while (copied < entry.length) {
+                    copied += log.transferTo(entry.position + copied, entry.length - copied, out.position(position + copied));
+                }
+                compacted.put(live.getKey(), new Entry(position, entry.length, entry.expiresAt));
+                position += entry.length;
+            }
+            out.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+
+        // tell the other processes to move to the new log
+        ByteBuffer superseded = ByteBuffer.allocate(4).putInt(0, 1);
+        writeFully(log, superseded, SUPERSEDED_OFFSET);
+        log.force(false);
+        log.close();
+        Files.deleteIfExists(logPath(generation));
+
+        log = FileChannel.open(target, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        generation++;
+        index = compacted;
+        indexedTo = log.size();
+        deadBytes = 0;
+        compactions.increment();
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (closed) return;
+            closed = true;
+            log.close();
+            lockChannel.close();
+            index = new ConcurrentHashMap<>();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // catches up with records appended (or a compaction made) by another process, returning whether the index may have changed
+    private boolean catchUp() throws IOException {
+        long now = System.nanoTime();
+        boolean checkSuperseded = now - lastSupersededCheck >= SUPERSEDED_CHECK_NANOS;
+        lock.readLock().lock();
+        try {
+            if (closed) return false;
+            if (!checkSuperseded && log.size() <= indexedTo) return false;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            FileLock fileLock = lockChannel.lock(0, Long.MAX_VALUE, true);
+            try {
+                checkOpen();
+                if (checkSuperseded) {
+                    lastSupersededCheck = now;
+                    if (isSuperseded()) {
+                        openLatest(false);
+                        return true;
+                    }
+                }
+                return scan(false);
+            }
+            finally {
+                fileLock.release();
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // opens the log of the latest generation, creating the first if there's none, and indexes it. called holding the file lock.
+    private void openLatest(boolean exclusive) throws IOException {
+        long latest = 0;
+        try (DirectoryStream<Path> logs = Files.newDirectoryStream(directory, "log-*.dat")) {
+            for (Path path : logs) {
+                latest = Math.max(latest, generationOf(path));
+            }
+        }
+        if (log != null) log.close();
+        index = new ConcurrentHashMap<>();
+        deadBytes = 0;
+        if (latest == 0) {
+            if (!exclusive) throw new IOException("No LogStore log in " + directory);
+            latest = 1;
+            log = FileChannel.open(logPath(latest), StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            writeFully(log, header(), 0);
+        }
+        else {
+            log = FileChannel.open(logPath(latest), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            checkHeader(log, logPath(latest));
+        }
+        generation = latest;
+        indexedTo = HEADER_SIZE;
+        scan(exclusive);
+    }
+
+    // deletes logs of earlier generations, e.g left behind by a compaction that didn't finish. called holding the exclusive file lock.
+    private void deleteOldLogs() throws IOException {
+        try (DirectoryStream<Path> logs = Files.newDirectoryStream(directory, "log-*")) {
+            for (Path path : logs) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(".tmp") || generationOf(path) < generation) Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /* Indexes the records from the end of the last indexed record, returning whether any were found.
+       A cut short or corrupt record ends the scan, and is truncated (with everything after it) if holding the exclusive file lock. */
+    private boolean scan(boolean exclusive) throws IOException {
+        long size = log.size();
+        long position = indexedTo;
+        boolean found = false;
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        CRC32 crc = new CRC32();
+        while (position + RECORD_HEADER_SIZE <= size) {
+            header.clear();
+            readFully(log, header, position);
+            int length = header.getInt(0);
+            int keyLength = header.getShort(RECORD_HEADER_SIZE - 2) & 0xffff;
+            if (length < RECORD_HEADER_SIZE + keyLength || position + length > size) break;
+
+            ByteBuffer record = ByteBuffer.allocate(length);
+            readFully(log, record, position);
+            crc.reset();
+            crc.update(record.array(), 8, length - 8);
+            if ((int) crc.getValue() != record.getInt(4)) break;
+
+            long hash = hash(record.array(), RECORD_HEADER_SIZE, keyLength);
+            index(hash, new Entry(position, length, record.getLong(8)));
+            position += length;
+            found = true;
+        }
+        if (position < size && exclusive) log.truncate(position);
+        indexedTo = position;
+        return found;
+    }
+
+    private void index(long hash, Entry entry) {
+        Entry previous = index.put(hash, entry);
+        if (previous != null) deadBytes += previous.length;
+    }
+
+    private void expire(long hash, Entry entry) {
+        lock.writeLock().lock();
+        try {
+            if (index.remove(hash, entry)) deadBytes += entry.length;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // drops every expired entry from the index, counting them as dead. called holding the write lock.
+    private void sweep() {
+        putsSinceSweep = 0;
+        long now = System.currentTimeMillis();
+        Iterator<Entry> entries = index.values().iterator();
+        while (entries.hasNext()) {
+            Entry entry = entries.next();
+            if (entry.expiresAt <= now) {
+                entries.remove();
+                deadBytes += entry.length;
+            }
+        }
+    }
+
+    private boolean isSuperseded() throws IOException {
+        ByteBuffer flag = ByteBuffer.allocate(4);
+        readFully(log, flag, SUPERSEDED_OFFSET);
+        return flag.getInt(0) != 0;
+    }
+
+    private void checkOpen() throws IOException {
+        if (closed) throw new IOException("LogStore is closed: " + directory);
+    }
+
+    private Path logPath(long generation) {
+        return directory.resolve(String.format("log-%016d.dat", generation));
+    }
+
+    private static long generationOf(Path path) {
+        String name = path.getFileName().toString();
+        int end = name.indexOf('.');
+        try {
+            return Long.parseLong(name.substring("log-".length(), (end < 0) ? name.length() : end));
+        }
+        catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return 0;
+        }
+    }
+
+    private static ByteBuffer header() {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(0).putInt(0);
+        header.flip();
+        return header;
+    }
+
+    // THROWS: IOException if the channel's file doesn't start with a LogStore header
+    private static void checkHeader(FileChannel channel, Path file) throws IOException {
+        if (channel.size() < HEADER_SIZE) throw new IOException("Not a LogStore log (too short): " + file);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(channel, header, 0);
+        if (header.getInt(0) != MAGIC) throw new IOException("Not a LogStore log: " + file);
+        int version = header.getInt(4);
+        if (version != VERSION) throw new IOException("Unsupported LogStore log version " + version + ": " + file);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) throw new IOException("Unexpected end of LogStore log");
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static long hash(byte[] key) {
+        return hash(key, 0, key.length);
+    }
+
+    private static long hash(byte[] bytes, int offset, int length) {
+        return Hashing.murmur3_128().hashBytes(bytes, offset, length).asLong();
+    }
+
+    // metrics
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    // lookups of absent keys, including expired keys
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getExpired() {
+        return expired.sum();
+    }
+
+    public long getPuts() {
+        return puts.sum();
+    }
+
+    public long getCompactions() {
+        return compactions.sum();
+    }
+
+    // number of keys indexed (may include expired keys that haven't been swept yet)
+    public int size() {
+        return index.size();
+    }
+
+    // size of the log, in bytes
+    public long getLogBytes() throws IOException {
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            return log.size();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // bytes of the log taken by overwritten and expired records
+    public long getDeadBytes() {
+        lock.writeLock().lock();
+        try {
+            return deadBytes;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    // the position, length and expiry of a record in the log
+    private static final class Entry {
+        final long position;
+        final int length;
+        final long expiresAt;
+
+        Entry(long position, int length, long expiresAt) {
+            this.position = position;
+            this.length = length;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
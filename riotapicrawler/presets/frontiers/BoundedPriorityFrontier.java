@@ -0,0 +1,110 @@
+/*
+    A Frontier that crawls the Summoner with the highest priority first, holding at most a given number of Summoners.
+
+    The priority of a Summoner is computed once, when it's offered (e.g from its level, or its estimated Rank).
+    When the frontier is full, an offered Summoner replaces the lowest priority Summoner only if it has a higher priority.
+    Summoners with equal priority are crawled in the order they were found.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.frontiers;
+
+import com.merakianalytics.orianna.types.core.summoner.Summoner;
+import com.omarathon.riotapicrawler.src.lib.Frontier;
+import com.omarathon.riotapicrawler.src.lib.key.SummonerKey;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.ToDoubleFunction;
+
+public class BoundedPriorityFrontier implements Frontier {
+    // a Summoner in the frontier with its priority, and the order it was offered in to break ties
+    private static class Entry implements Comparable<Entry> {
+        private final Summoner summoner;
+        private final double priority;
+        private final long sequence;
+
+        private Entry(Summoner summoner, double priority, long sequence) {
+            this.summoner = summoner;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        // highest priority first, then earliest offered first
+        @Override
+        public int compareTo(Entry o) {
+            int byPriority = Double.compare(o.priority, priority);
+            if (byPriority != 0) return byPriority;
+            return Long.compare(sequence, o.sequence);
+        }
+    }
+
+    private final TreeSet<Entry> entries = new TreeSet<>();
+    // the keys of the Summoners in the frontier, so each waits once
+    private final Set<SummonerKey> queued = new HashSet<>();
+    private final ToDoubleFunction<Summoner> priority;
+    private final int capacity;
+    private long sequence = 0;
+
+    // THROWS: IllegalArgumentException if the capacity is <1
+    public BoundedPriorityFrontier(ToDoubleFunction<Summoner> priority, int capacity) throws IllegalArgumentException {
+        if (capacity < 1) throw new IllegalArgumentException("Nonsensical input for frontier capacity (less than 1)");
+        this.priority = priority;
+        this.capacity = capacity;
+    }
+
+    public void offer(List<Summoner> found) {
+        for (Summoner summoner : found) {
+            SummonerKey key = SummonerKey.of(summoner);
+            // already waiting, so don't pay for its priority again
+            synchronized (this) {
+                if (queued.contains(key)) continue;
+            }
+            // compute the priority outside of the lock, since it may require API calls
+            double summonerPriority = priority.applyAsDouble(summoner);
+            synchronized (this) {
+                // offered by another worker in the meantime
+                if (queued.contains(key)) continue;
+                Entry entry = new Entry(summoner, summonerPriority, sequence++);
+                if (entries.size() < capacity) {
+                    entries.add(entry);
+                    queued.add(key);
+                }
+                else if (entry.compareTo(entries.last()) < 0) { // better than the worst entry, so replace it
+                    queued.remove(SummonerKey.of(entries.pollLast().summoner));
+                    entries.add(entry);
+                    queued.add(key);
+                }
+            }
+        }
+    }
+
+    public synchronized Summoner poll() {
+        Entry entry = entries.pollFirst();
+        if (entry == null) return null;
+        queued.remove(SummonerKey.of(entry.summoner));
+        return entry.summoner;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        queued.clear();
+    }
+
+    public synchronized List<Summoner> snapshot() {
+        List<Summoner> summoners = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            summoners.add(entry.summoner);
+        }
+        return summoners;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+    A Frontier that crawls Summoners in the order they were found, so the Crawler spreads out
+    from the input Summoner one "layer" of matches at a time.
+
+    The Summoners found from each match history are shuffled. When the frontier is full, newly found Summoners are dropped.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.frontiers;
+
+import com.merakianalytics.orianna.types.core.summoner.Summoner;
+import com.omarathon.riotapicrawler.src.lib.Frontier;
+import com.omarathon.riotapicrawler.src.lib.key.SummonerKey;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class BreadthFirstFrontier implements Frontier {
+    private final Deque<Summoner> summoners = new ArrayDeque<>();
+    // the keys of the Summoners in the frontier, so each waits once
+    private final Set<SummonerKey> queued = new HashSet<>();
+    private final int capacity;
+
+    public BreadthFirstFrontier() {
+        this(100000);
+    }
+
+    // THROWS: IllegalArgumentException if the capacity is <1
+    public BreadthFirstFrontier(int capacity) throws IllegalArgumentException {
+        if (capacity < 1) throw new IllegalArgumentException("Nonsensical input for frontier capacity (less than 1)");
+        this.capacity = capacity;
+    }
+
+    public synchronized void offer(List<Summoner> found) {
+        List<Summoner> shuffled = new ArrayList<>(found);
+        Collections.shuffle(shuffled);
+        for (Summoner summoner : shuffled) {
+            if (summoners.size() >= capacity) return;
+            if (queued.add(SummonerKey.of(summoner))) summoners.addLast(summoner);
+        }
+    }
+
+    public synchronized Summoner poll() {
+        Summoner summoner = summoners.pollFirst();
+        if (summoner != null) queued.remove(SummonerKey.of(summoner));
+        return summoner;
+    }
+
+    public synchronized int size() {
+        return summoners.size();
+    }
+
+    public synchronized void clear() {
+        summoners.clear();
+        queued.clear();
+    }
+
+    public synchronized List<Summoner> snapshot() {
+        return new ArrayList<>(summoners);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+    A Frontier that crawls the most recently found Summoners first, which is the Crawler's default.
+
+    The Summoners found from a match history are shuffled, so the next crawl is a random crawlable participant
+    of the latest crawled Summoner. When the frontier is full, the oldest Summoners are dropped.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.frontiers;
+
+import com.merakianalytics.orianna.types.core.summoner.Summoner;
+import com.omarathon.riotapicrawler.src.lib.Frontier;
+import com.omarathon.riotapicrawler.src.lib.key.SummonerKey;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class DepthFirstFrontier implements Frontier {
+    private final Deque<Summoner> summoners = new ArrayDeque<>();
+    // the keys of the Summoners in the frontier, so each waits once
+    private final Set<SummonerKey> queued = new HashSet<>();
+    private final int capacity;
+
+    public DepthFirstFrontier() {
+        this(100000);
+    }
+
+    // THROWS: IllegalArgumentException if the capacity is <1
+    public DepthFirstFrontier(int capacity) throws IllegalArgumentException {
+        if (capacity < 1) throw new IllegalArgumentException("Nonsensical input for frontier capacity (less than 1)");
+        this.capacity = capacity;
+    }
+
+    public synchronized void offer(List<Summoner> found) {
+        List<Summoner> shuffled = new ArrayList<>(found);
+        Collections.shuffle(shuffled);
+        for (Summoner summoner : shuffled) {
+            if (!queued.add(SummonerKey.of(summoner))) continue;
+            summoners.addFirst(summoner);
+            if (summoners.size() > capacity) queued.remove(SummonerKey.of(summoners.removeLast()));
+        }
+    }
+
+    public synchronized Summoner poll() {
+        Summoner summoner = summoners.pollFirst();
+        if (summoner != null) queued.remove(SummonerKey.of(summoner));
+        return summoner;
+    }
+
+    public synchronized int size() {
+        return summoners.size();
+    }
+
+    public synchronized void clear() {
+        summoners.clear();
+        queued.clear();
+    }
+
+    public synchronized List<Summoner> snapshot() {
+        return new ArrayList<>(summoners);
+    }
+}
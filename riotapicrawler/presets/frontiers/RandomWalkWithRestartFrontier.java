@@ -0,0 +1,112 @@
+/*
+    A Frontier that performs a random walk with restart over the Summoners.
+
+    Each poll steps to a random Summoner found in the most recently offered match history, except that with the given
+    restart probability (or when there's no such Summoner) it instead restarts from a random Summoner out of all
+    of the others found so far and not yet crawled. Summoners not stepped to are kept as restart points.
+
+    The walk is shared when the Crawler has several workers. When the restart points are full, a newly kept
+    Summoner replaces a random restart point.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.frontiers;
+
+import com.merakianalytics.orianna.types.core.summoner.Summoner;
+import com.omarathon.riotapicrawler.src.lib.Frontier;
+import com.omarathon.riotapicrawler.src.lib.key.SummonerKey;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class RandomWalkWithRestartFrontier implements Frontier {
+    // Summoners found in the latest match history, the next step of the walk
+    private final List<Summoner> neighbours = new ArrayList<>();
+    // all other Summoners found and not yet crawled
+    private final List<Summoner> restartPoints = new ArrayList<>();
+    // the keys of the neighbours and restart points, so each Summoner is held once
+    private final Set<SummonerKey> queued = new HashSet<>();
+    private final Random random = new Random();
+    private final double restartProbability;
+    private final int capacity;
+
+    public RandomWalkWithRestartFrontier(double restartProbability) {
+        this(restartProbability, 100000);
+    }
+
+    /* THROWS: IllegalArgumentException if:
+        - the restartProbability isn't within [0, 1],
+        - the capacity of restart points is <1. */
+    public RandomWalkWithRestartFrontier(double restartProbability, int capacity) throws IllegalArgumentException {
+        if (restartProbability < 0 || restartProbability > 1) throw new IllegalArgumentException("Restart probability must be within [0, 1]!");
+        if (capacity < 1) throw new IllegalArgumentException("Nonsensical input for frontier capacity (less than 1)");
+        this.restartProbability = restartProbability;
+        this.capacity = capacity;
+    }
+
+    public synchronized void offer(List<Summoner> found) {
+        // the previous neighbours were never stepped to, so they become restart points
+        for (Summoner neighbour : neighbours) {
+            keepAsRestartPoint(neighbour);
+        }
+        neighbours.clear();
+        // Summoners already held stay where they are
+        for (Summoner summoner : found) {
+            if (queued.add(SummonerKey.of(summoner))) neighbours.add(summoner);
+        }
+    }
+
+    public synchronized Summoner poll() {
+        if (!neighbours.isEmpty() && (restartPoints.isEmpty() || random.nextDouble() >= restartProbability)) { // step
+            Summoner next = removeRandom(neighbours);
+            queued.remove(SummonerKey.of(next));
+            // stepping away from the other neighbours, so keep them to restart from
+            for (Summoner neighbour : neighbours) {
+                keepAsRestartPoint(neighbour);
+            }
+            neighbours.clear();
+            return next;
+        }
+        if (restartPoints.isEmpty()) return null;
+        // restart
+        Summoner next = removeRandom(restartPoints);
+        queued.remove(SummonerKey.of(next));
+        return next;
+    }
+
+    public synchronized int size() {
+        return neighbours.size() + restartPoints.size();
+    }
+
+    public synchronized void clear() {
+        neighbours.clear();
+        restartPoints.clear();
+        queued.clear();
+    }
+
+    public synchronized List<Summoner> snapshot() {
+        List<Summoner> summoners = new ArrayList<>(neighbours);
+        summoners.addAll(restartPoints);
+        return summoners;
+    }
+
+    private void keepAsRestartPoint(Summoner summoner) {
+        if (restartPoints.size() < capacity) restartPoints.add(summoner);
+        else queued.remove(SummonerKey.of(restartPoints.set(random.nextInt(capacity), summoner)));
+    }
+
+    // removes a random element in constant time, by swapping it with the last element
+    private Summoner removeRandom(List<Summoner> summoners) {
+        int index = random.nextInt(summoners.size());
+        int last = summoners.size() - 1;
+        Summoner removed = summoners.get(index);
+        summoners.set(index, summoners.get(last));
+        summoners.remove(last);
+        return removed;
+    }
+}
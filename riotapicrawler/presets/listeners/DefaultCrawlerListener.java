@@ -8,6 +8,9 @@ import com.omarathon.riotapicrawler.src.lib.CrawlerConfig;
 import com.omarathon.riotapicrawler.src.lib.CrawlerListener;
 import com.omarathon.riotapicrawler.src.lib.handler.OutputHandler;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 public class DefaultCrawlerListener implements CrawlerListener {
     protected String runPrefix = "[RUN] ";
     @Override
@@ -74,7 +77,7 @@ public class DefaultCrawlerListener implements CrawlerListener {
 
     @Override
     public void onSeekNextCrawlSuccess(MatchHistory nextCrawlMatchHistory, Summoner nextSummoner) {
-        System.out.println(crawlPrefix + "Successfully obtained next Summoner to crawl: " + nextSummoner.toString() + " from MatchHistory: " + nextCrawlMatchHistory.toString() + " - shall crawl them now!");
+        System.out.println(crawlPrefix + "Successfully obtained next Summoner to crawl: " + nextSummoner.toString() + " from MatchHistory: " + nextCrawlMatchHistory.toString() + " - adding them to the frontier!");
     }
 
     @Override
@@ -94,6 +97,15 @@ public class DefaultCrawlerListener implements CrawlerListener {
         System.out.println(seekNextCrawlPrefix + "Processing Match: " + matchBeingProcessed.toString() + " from MatchHistory.");
     }
 
+    @Override
+    public void onMatchLoaded(Match matchBeingProcessed, long loadNanos) {
+        // only timing, so not printed
+    }
+
+    @Override
+    public void onMatchFiltered(Match matchBeingProcessed, long filterNanos) {
+    }
+
     @Override
     public void onCrawlableMatch(Match crawlableMatch) {
         System.out.println(seekNextCrawlPrefix + "Match: " + crawlableMatch + " is crawlable - proceeding to search for a crawlable participant!");
@@ -109,9 +121,13 @@ public class DefaultCrawlerListener implements CrawlerListener {
         System.out.println(seekNextCrawlPrefix + "Processing Participant: " + participantBeingProcessed.toString() + " from Match: " + matchBeingProcessed.toString());
     }
 
+    @Override
+    public void onSummonerFiltered(Summoner summonerBeingProcessed, long filterNanos) {
+    }
+
     @Override
     public void onCrawlableParticipantFound(Participant crawlableParticipant, Summoner summonerOfParticipant, Match matchOfParticipant) {
-        System.out.println(seekNextCrawlPrefix + "Found crawlable Participant: " + crawlableParticipant.toString() + " with Summoner: " + summonerOfParticipant.toString() + " from Match: " + matchOfParticipant.toString() + " - returning Summoner as next crawl!");
+        System.out.println(seekNextCrawlPrefix + "Found crawlable Participant: " + crawlableParticipant.toString() + " with Summoner: " + summonerOfParticipant.toString() + " from Match: " + matchOfParticipant.toString() + " - shall add Summoner to the frontier!");
     }
 
     @Override
@@ -132,6 +148,23 @@ public class DefaultCrawlerListener implements CrawlerListener {
     }
 
 
+    protected String checkpointPrefix = "[CHECKPOINT] ";
+    @Override
+    public void onCheckpoint(Path checkpointFile) {
+        System.out.println(checkpointPrefix + "Wrote checkpoint to: " + checkpointFile.toString());
+    }
+
+    @Override
+    public void onCheckpointFail(Path checkpointFile, IOException e) {
+        System.out.println(checkpointPrefix + "Failed to write checkpoint to: " + checkpointFile.toString() + " - " + e.toString());
+    }
+
+    @Override
+    public void onResume(Path checkpointFile, Summoner initialSummoner) {
+        System.out.println(checkpointPrefix + "Resuming crawl from checkpoint: " + checkpointFile.toString() + " on Summoner: " + initialSummoner.toString());
+    }
+
+
     protected String setCrawlerConfigPrefix = "[SETCRAWLERCONFIG] ";
     @Override
     public void onCrawlerConfigUpdate(CrawlerConfig oldCrawlerConfig, CrawlerConfig newCrawlerConfig) {
@@ -142,7 +175,8 @@ public class DefaultCrawlerListener implements CrawlerListener {
     protected String setOutputHandlerPrefix = "[SETOUTPUTHANDLER] ";
     @Override
     public void onOutputHandlerUpdate(OutputHandler oldOutputHandler, OutputHandler newOutputHandler) {
-        System.out.println(setOutputHandlerPrefix + "Updated OutputHandler!!");
+        // a null old output handler is the one the Crawler started with, not an update
+        if (oldOutputHandler != null) System.out.println(setOutputHandlerPrefix + "Updated OutputHandler!!");
     }
 
 
@@ -0,0 +1,450 @@
+/*
+    A CrawlerListener that measures where a crawl's time goes: counters of what the crawler did, and latency histograms
+    of each stage of crawling. Most are taken as the time between the stage's callbacks on the same worker thread:
+        - MATCH_HISTORY_FETCH: onCrawling to onObtainedMatchHistory
+        - OUTPUT: onHandleMatchHistory to onSeekNextCrawl (the OutputHandler handling the match history)
+        - SEEK_NEXT_CRAWL: onSeekNextCrawl to its first success, or its failure
+        - BACKTRACK: onBacktracking to onBacktrackSuccess or onBacktrackFail
+    The rest are the times the crawler reports, measured where the work ran (so in the background when prefetching):
+        - MATCH_FETCH: loading each match, from onMatchLoaded
+        - MATCH_FILTER: the match filter's verdict on each match, from onMatchFiltered
+        - SUMMONER_FILTER: the summoner filter's verdict on each participant not yet visited, from onSummonerFiltered
+    The time spent in each filter of a CompositeFilter (e.g an AndMatchFilter) is reported too, once registered with addFilter.
+
+    Every callback is passed on to the delegate listener (if any), e.g a RingBufferCrawlerListener.
+
+    The matches emitted are those the OutputHandler actually handled, after skipping ones already seen and any it filters out,
+    so are reported for the Crawler's OutputHandler once the listener is given to the Crawler, or for another registered with setOutputHandler.
+    The matches offered are every match in the match histories given to the OutputHandler.
+
+    The snapshot is plain text, one "name value" line per metric, including the shared RequestScheduler's waits and RankStore's hits.
+    It may be served over HTTP on a local port (at /metrics) with startServer, or dumped periodically with startDumping.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.listeners;
+
+import com.merakianalytics.orianna.types.core.match.Match;
+import com.merakianalytics.orianna.types.core.match.MatchHistory;
+import com.merakianalytics.orianna.types.core.match.Participant;
+import com.merakianalytics.orianna.types.core.summoner.Summoner;
+import com.omarathon.riotapicrawler.presets.listeners.lib.LatencyHistogram;
+import com.omarathon.riotapicrawler.presets.util.estimators.lib.RankStore;
+import com.omarathon.riotapicrawler.src.lib.CrawlerConfig;
+import com.omarathon.riotapicrawler.src.lib.CrawlerListener;
+import com.omarathon.riotapicrawler.src.lib.filter.CompositeFilter;
+import com.omarathon.riotapicrawler.src.lib.filter.FilterStatistics;
+import com.omarathon.riotapicrawler.src.lib.handler.OutputHandler;
+import com.omarathon.riotapicrawler.src.lib.scheduler.RequestScheduler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class MetricsCrawlerListener implements CrawlerListener {
+    public enum Stage {
+        MATCH_HISTORY_FETCH, OUTPUT, SEEK_NEXT_CRAWL, BACKTRACK, MATCH_FETCH, MATCH_FILTER, SUMMONER_FILTER
+    }
+
+    public enum Counter {
+        SUMMONERS_CRAWLED, BACKTRACKS, BACKTRACK_FAILS, MATCH_HISTORIES_HANDLED, MATCHES_OFFERED,
+        MATCHES_PROCESSED, CRAWLABLE_MATCHES, PARTICIPANTS_PROCESSED, CRAWLABLE_PARTICIPANTS,
+        SEEK_FAILS, CHECKPOINTS, CHECKPOINT_FAILS
+    }
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final CrawlerListener delegate;
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Stage.values().length];
+    private final LongAdder[] counters = new LongAdder[Counter.values().length];
+    private final Map<String, CompositeFilter<?>> filters = new ConcurrentHashMap<>();
+    // the start time of each stage on each worker thread, or 0 if it isn't in that stage
+    private final ThreadLocal<long[]> stageStarts = ThreadLocal.withInitial(() -> new long[Stage.values().length]);
+    private volatile long startedAt = System.currentTimeMillis();
+    // the OutputHandler whose handled matches are the matches emitted (null if unknown), and the matches emitted by the ones before it
+    private volatile OutputHandler outputHandler;
+    private final LongAdder previouslyEmitted = new LongAdder();
+
+    private HttpServer server;
+    private ScheduledExecutorService dumper;
+
+    public MetricsCrawlerListener() {
+        this(null);
+    }
+
+    // passes every callback on to the delegate (which may be null)
+    public MetricsCrawlerListener(CrawlerListener delegate) {
+        this.delegate = delegate;
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+    }
+
+    // reports the time spent in each filter of the composite filter, under the given name
+    public void addFilter(String name, CompositeFilter<?> filter) {
+        filters.put(name, filter);
+    }
+
+    // reports the matches the output handler handles as the matches emitted, e.g the one the Crawler was constructed with
+    public synchronized void setOutputHandler(OutputHandler outputHandler) {
+        if (outputHandler == this.outputHandler) return;
+        if (this.outputHandler != null) previouslyEmitted.add(this.outputHandler.getHandledMatches());
+        this.outputHandler = outputHandler;
+    }
+
+    // matches the OutputHandler actually handled, or 0 if it hasn't been set
+    public long getMatchesEmitted() {
+        OutputHandler outputHandler = this.outputHandler;
+        return previouslyEmitted.sum() + ((outputHandler == null) ? 0 : outputHandler.getHandledMatches());
+    }
+
+    public LatencyHistogram getHistogram(Stage stage) {
+        return histograms[stage.ordinal()];
+    }
+
+    public long getCount(Counter counter) {
+        return counters[counter.ordinal()].sum();
+    }
+
+    // summoners crawled per minute since the crawl started
+    public double getSummonersPerMinute() {
+        double minutes = (System.currentTimeMillis() - startedAt) / 60000.0;
+        return (minutes <= 0) ? 0 : getCount(Counter.SUMMONERS_CRAWLED) / minutes;
+    }
+
+    // the fraction of crawl iterations that backtracked rather than crawling a summoner from the frontier
+    public double getBacktrackRatio() {
+        long backtracks = getCount(Counter.BACKTRACKS);
+        long iterations = backtracks + getCount(Counter.SUMMONERS_CRAWLED);
+        return (iterations == 0) ? 0 : backtracks / (double) iterations;
+    }
+
+    // every metric, one "name value" line each
+    public String snapshot() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Counter counter : Counter.values()) {
+            line(out, "crawler_" + counter.name().toLowerCase(Locale.ROOT) + "_total", getCount(counter));
+        }
+        line(out, "crawler_matches_emitted_total", getMatchesEmitted());
+        line(out, "crawler_summoners_per_minute", getSummonersPerMinute());
+        line(out, "crawler_backtrack_ratio", getBacktrackRatio());
+
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram histogram = getHistogram(stage);
+            String name = "crawler_stage_seconds{stage=\"" + stage.name().toLowerCase(Locale.ROOT) + "\"";
+            line(out, name + ",stat=\"count\"}", histogram.getCount());
+            line(out, name + ",stat=\"sum\"}", histogram.getSumNanos() / 1e9);
+            line(out, name + ",stat=\"max\"}", histogram.getMaxNanos() / 1e9);
+            for (double quantile : QUANTILES) {
+                line(out, name + ",quantile=\"" + quantile + "\"}", histogram.getQuantileNanos(quantile) / 1e9);
+            }
+        }
+
+        for (Map.Entry<String, CompositeFilter<?>> entry : filters.entrySet()) {
+            List<FilterStatistics> statistics = entry.getValue().getStatistics();
+            for (int i = 0; i < statistics.size(); i++) {
+                FilterStatistics filter = statistics.get(i);
+                String name = "crawler_filter{composite=\"" + entry.getKey() + "\",filter=\"" + filter.getFilter().getClass().getSimpleName() + "\",position=\"" + i + "\"";
+                line(out, name + ",stat=\"evaluations\"}", filter.getEvaluations());
+                line(out, name + ",stat=\"pass_rate\"}", filter.getPassRate());
+                line(out, name + ",stat=\"average_seconds\"}", filter.getAverageNanos() / 1e9);
+            }
+        }
+
+        RequestScheduler scheduler = RequestScheduler.shared();
+        line(out, "scheduler_queue_depth", scheduler.getQueueDepth());
+        line(out, "scheduler_coalesced_requests", scheduler.getCoalescedRequests());
+        for (RequestScheduler.Priority priority : RequestScheduler.Priority.values()) {
+            String name = "scheduler{priority=\"" + priority.name().toLowerCase(Locale.ROOT) + "\"";
+            line(out, name + ",stat=\"requests\"}", scheduler.getRequests(priority));
+            line(out, name + ",stat=\"average_wait_seconds\"}", scheduler.getAverageWaitMillis(priority) / 1e3);
+            line(out, name + ",stat=\"max_wait_seconds\"}", scheduler.getMaxWaitMillis(priority) / 1e3);
+        }
+
+        RankStore rankStore = RankStore.shared();
+        line(out, "rank_store_size", rankStore.size());
+        line(out, "rank_store{stat=\"hits\"}", rankStore.getHits());
+        line(out, "rank_store{stat=\"misses\"}", rankStore.getMisses());
+        line(out, "rank_store{stat=\"rejected\"}", rankStore.getRejected());
+        line(out, "rank_store{stat=\"average_load_seconds\"}", rankStore.getAverageLoadMillis() / 1e3);
+        return out.toString();
+    }
+
+    /* Serves the snapshot at http://localhost:<port>/metrics, on a background thread. Only listens on the loopback address.
+       THROWS: IOException if the port can't be bound. */
+    public synchronized void startServer(int port) throws IOException {
+        if (server != null) return;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", exchange -> {
+            byte[] body = snapshot().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    /* Prints the snapshot to the stream every period, on a background thread.
+       THROWS: IllegalArgumentException if:
+        - period is <1. */
+    public synchronized void startDumping(long period, TimeUnit unit, PrintStream out) throws IllegalArgumentException {
+        if (period < 1) throw new IllegalArgumentException("Nonsensical input for dump period (less than 1)");
+        if (dumper != null) return;
+        dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "crawler-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(() -> out.print(snapshot()), period, period, unit);
+    }
+
+    // stops serving and dumping the snapshot
+    public synchronized void close() {
+        if (server != null) server.stop(0);
+        if (dumper != null) dumper.shutdownNow();
+        server = null;
+        dumper = null;
+    }
+
+    private static void line(StringBuilder out, String name, double value) {
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void line(StringBuilder out, String name, long value) {
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private void count(Counter counter) {
+        counters[counter.ordinal()].increment();
+    }
+
+    private void begin(Stage stage) {
+        stageStarts.get()[stage.ordinal()] = System.nanoTime();
+    }
+
+    // records the stage's latency, if the worker began it
+    private void end(Stage stage) {
+        long[] starts = stageStarts.get();
+        long start = starts[stage.ordinal()];
+        if (start == 0) return;
+        starts[stage.ordinal()] = 0;
+        histograms[stage.ordinal()].record(System.nanoTime() - start);
+    }
+
+    private void abandon(Stage stage) {
+        stageStarts.get()[stage.ordinal()] = 0;
+    }
+
+
+    @Override
+    public void onInitialSummonerCrawlable(Summoner initialSummoner) {
+        if (delegate != null) delegate.onInitialSummonerCrawlable(initialSummoner);
+    }
+
+    @Override
+    public void onInitialSummonerNotCrawlable(Summoner initialSummoner) {
+        if (delegate != null) delegate.onInitialSummonerNotCrawlable(initialSummoner);
+    }
+
+    @Override
+    public void onInitialCrawlEntry(Summoner initialSummoner) {
+        startedAt = System.currentTimeMillis();
+        if (delegate != null) delegate.onInitialCrawlEntry(initialSummoner);
+    }
+
+    @Override
+    public void onCrawlSummoner(Summoner crawlingSummoner) {
+        // a backtrack which didn't finish (since other workers may still find summoners) isn't measured
+        abandon(Stage.BACKTRACK);
+        if (delegate != null) delegate.onCrawlSummoner(crawlingSummoner);
+    }
+
+    @Override
+    public void onBacktracking(Summoner fromSummoner) {
+        count(Counter.BACKTRACKS);
+        if (delegate != null) delegate.onBacktracking(fromSummoner);
+        begin(Stage.BACKTRACK);
+    }
+
+    @Override
+    public void onBacktrackFail(Summoner fromSummoner) {
+        count(Counter.BACKTRACK_FAILS);
+        end(Stage.BACKTRACK);
+        if (delegate != null) delegate.onBacktrackFail(fromSummoner);
+    }
+
+    @Override
+    public void onBacktrackSuccess(Summoner fromSummoner, MatchHistory seekNextMatchHistory) {
+        end(Stage.BACKTRACK);
+        if (delegate != null) delegate.onBacktrackSuccess(fromSummoner, seekNextMatchHistory);
+    }
+
+    @Override
+    public void onCrawling(Summoner crawlingSummoner) {
+        count(Counter.SUMMONERS_CRAWLED);
+        if (delegate != null) delegate.onCrawling(crawlingSummoner);
+        begin(Stage.MATCH_HISTORY_FETCH);
+    }
+
+    @Override
+    public void onObtainedMatchHistory(Summoner crawlingSummoner, MatchHistory crawlingSummonerMatchHistory) {
+        end(Stage.MATCH_HISTORY_FETCH);
+        if (delegate != null) delegate.onObtainedMatchHistory(crawlingSummoner, crawlingSummonerMatchHistory);
+    }
+
+    @Override
+    public void onHandleMatchHistory(MatchHistory crawlingSummonerMatchHistory) {
+        count(Counter.MATCH_HISTORIES_HANDLED);
+        // the match history is loaded by now, so its size is cheap
+        counters[Counter.MATCHES_OFFERED.ordinal()].add(crawlingSummonerMatchHistory.size());
+        if (delegate != null) delegate.onHandleMatchHistory(crawlingSummonerMatchHistory);
+        begin(Stage.OUTPUT);
+    }
+
+    @Override
+    public void onSeekNextCrawl(MatchHistory nextCrawlMatchHistory) {
+        end(Stage.OUTPUT);
+        if (delegate != null) delegate.onSeekNextCrawl(nextCrawlMatchHistory);
+        begin(Stage.SEEK_NEXT_CRAWL);
+    }
+
+    @Override
+    public void onSeekNextCrawlFail(MatchHistory nextCrawlMatchHistory) {
+        count(Counter.SEEK_FAILS);
+        end(Stage.SEEK_NEXT_CRAWL);
+        if (delegate != null) delegate.onSeekNextCrawlFail(nextCrawlMatchHistory);
+    }
+
+    @Override
+    public void onSeekNextCrawlSuccess(MatchHistory nextCrawlMatchHistory, Summoner nextSummoner) {
+        // called for each summoner found, so only the first ends the stage
+        end(Stage.SEEK_NEXT_CRAWL);
+        if (delegate != null) delegate.onSeekNextCrawlSuccess(nextCrawlMatchHistory, nextSummoner);
+    }
+
+    @Override
+    public void onEndCrawl() {
+        if (delegate != null) delegate.onEndCrawl();
+    }
+
+    @Override
+    public void onMatchHistoryNotExist(MatchHistory notExistingMatchHistory) {
+        if (delegate != null) delegate.onMatchHistoryNotExist(notExistingMatchHistory);
+    }
+
+    @Override
+    public void onProcessMatch(Match matchBeingProcessed) {
+        count(Counter.MATCHES_PROCESSED);
+        if (delegate != null) delegate.onProcessMatch(matchBeingProcessed);
+    }
+
+    @Override
+    public void onMatchLoaded(Match matchBeingProcessed, long loadNanos) {
+        histograms[Stage.MATCH_FETCH.ordinal()].record(loadNanos);
+        if (delegate != null) delegate.onMatchLoaded(matchBeingProcessed, loadNanos);
+    }
+
+    @Override
+    public void onMatchFiltered(Match matchBeingProcessed, long filterNanos) {
+        histograms[Stage.MATCH_FILTER.ordinal()].record(filterNanos);
+        if (delegate != null) delegate.onMatchFiltered(matchBeingProcessed, filterNanos);
+    }
+
+    @Override
+    public void onCrawlableMatch(Match crawlableMatch) {
+        count(Counter.CRAWLABLE_MATCHES);
+        if (delegate != null) delegate.onCrawlableMatch(crawlableMatch);
+    }
+
+    @Override
+    public void onNotCrawlableMatch(Match notCrawlableMatch) {
+        if (delegate != null) delegate.onNotCrawlableMatch(notCrawlableMatch);
+    }
+
+    @Override
+    public void onProcessParticipant(Participant participantBeingProcessed, Match matchBeingProcessed) {
+        count(Counter.PARTICIPANTS_PROCESSED);
+        if (delegate != null) delegate.onProcessParticipant(participantBeingProcessed, matchBeingProcessed);
+    }
+
+    @Override
+    public void onSummonerFiltered(Summoner summonerBeingProcessed, long filterNanos) {
+        histograms[Stage.SUMMONER_FILTER.ordinal()].record(filterNanos);
+        if (delegate != null) delegate.onSummonerFiltered(summonerBeingProcessed, filterNanos);
+    }
+
+    @Override
+    public void onCrawlableParticipantFound(Participant crawlableParticipant, Summoner summonerOfParticipant, Match matchOfParticipant) {
+        count(Counter.CRAWLABLE_PARTICIPANTS);
+        if (delegate != null) delegate.onCrawlableParticipantFound(crawlableParticipant, summonerOfParticipant, matchOfParticipant);
+    }
+
+    @Override
+    public void onNotCrawlableParticipantFound(Participant notCrawlableParticipant, Summoner summonerOfParticipant, Match matchOfParticipant) {
+        if (delegate != null) delegate.onNotCrawlableParticipantFound(notCrawlableParticipant, summonerOfParticipant, matchOfParticipant);
+    }
+
+    @Override
+    public void onNoNextSummoner(MatchHistory existingButFailingMatchHistory) {
+        if (delegate != null) delegate.onNoNextSummoner(existingButFailingMatchHistory);
+    }
+
+    @Override
+    public void onStop() {
+        if (delegate != null) delegate.onStop();
+    }
+
+    @Override
+    public void onCheckpoint(Path checkpointFile) {
+        count(Counter.CHECKPOINTS);
+        if (delegate != null) delegate.onCheckpoint(checkpointFile);
+    }
+
+    @Override
+    public void onCheckpointFail(Path checkpointFile, IOException e) {
+        count(Counter.CHECKPOINT_FAILS);
+        if (delegate != null) delegate.onCheckpointFail(checkpointFile, e);
+    }
+
+    @Override
+    public void onResume(Path checkpointFile, Summoner initialSummoner) {
+        startedAt = System.currentTimeMillis();
+        if (delegate != null) delegate.onResume(checkpointFile, initialSummoner);
+    }
+
+    @Override
+    public void onCrawlerConfigUpdate(CrawlerConfig oldCrawlerConfig, CrawlerConfig newCrawlerConfig) {
+        if (delegate != null) delegate.onCrawlerConfigUpdate(oldCrawlerConfig, newCrawlerConfig);
+    }
+
+    @Override
+    public void onOutputHandlerUpdate(OutputHandler oldOutputHandler, OutputHandler newOutputHandler) {
+        setOutputHandler(newOutputHandler);
+        if (delegate != null) delegate.onOutputHandlerUpdate(oldOutputHandler, newOutputHandler);
+    }
+
+    @Override
+    public void onListenerUpdate(CrawlerListener oldListener, CrawlerListener newListener) {
+        if (delegate != null) delegate.onListenerUpdate(oldListener, newListener);
+    }
+}
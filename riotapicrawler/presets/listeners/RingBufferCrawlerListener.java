@@ -0,0 +1,369 @@
+/*
+    A CrawlerListener that records events into a preallocated ring buffer, and hands them to a consumer on a background thread,
+    so listening costs the crawl a few primitive writes per event rather than formatting and printing (see CrawlEvent).
+
+    Events below the minimum Level are ignored, and each Type can be sampled, keeping only every nth event on average.
+    Recording never blocks: if the consumer has fallen a whole buffer behind, new events are dropped and counted.
+
+    The buffer is lock-free for many crawler workers recording at once: a worker claims a slot by advancing the claim cursor,
+    writes the event's fields, then publishes the slot by writing its sequence. The consumer reads slots in sequence order,
+    waiting for each to be published, and parks briefly when the buffer is empty.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.listeners;
+
+import com.merakianalytics.orianna.types.core.match.Match;
+import com.merakianalytics.orianna.types.core.match.MatchHistory;
+import com.merakianalytics.orianna.types.core.match.Participant;
+import com.merakianalytics.orianna.types.core.summoner.Summoner;
+import com.omarathon.riotapicrawler.presets.listeners.lib.CrawlEvent;
+import com.omarathon.riotapicrawler.src.lib.CrawlerConfig;
+import com.omarathon.riotapicrawler.src.lib.CrawlerListener;
+import com.omarathon.riotapicrawler.src.lib.handler.OutputHandler;
+import com.omarathon.riotapicrawler.src.lib.key.MatchKey;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+public class RingBufferCrawlerListener implements CrawlerListener {
+    // how long the consumer parks when the buffer is empty
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final int mask;
+    // the sequence published in each slot, or -1 if none yet
+    private final AtomicLongArray published;
+    private final int[] types;
+    private final long[] times;
+    private final long[] matchKeys;
+    private final Object[] subjects;
+
+    // the next sequence to claim, and the next sequence to consume
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+
+    private final Consumer<CrawlEvent> consumer;
+    private final Thread consumerThread;
+    private volatile boolean running = true;
+
+    private volatile CrawlEvent.Level level = CrawlEvent.Level.INFO;
+    // keep 1 in sampling[type] events of each type (1 keeps every event)
+    private final int[] sampling = new int[CrawlEvent.Type.values().length];
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder consumerFailures = new LongAdder();
+
+    // prints INFO and above events to System.out, through a buffer of 8192 events
+    public RingBufferCrawlerListener() {
+        this(8192, printing(System.out));
+    }
+
+    /* INPUTS: the capacity of the ring buffer (rounded up to a power of two), and the consumer of events,
+               which is called on a single background thread and mustn't keep the CrawlEvent it's given.
+       THROWS: IllegalArgumentException if:
+        - capacity is <1 or >2^30. */
+    public RingBufferCrawlerListener(int capacity, Consumer<CrawlEvent> consumer) throws IllegalArgumentException {
+        if (capacity < 1 || capacity > (1 << 30)) throw new IllegalArgumentException("Nonsensical input for capacity (less than 1 or more than 2^30)");
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+        this.mask = size - 1;
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+        this.types = new int[size];
+        this.times = new long[size];
+        this.matchKeys = new long[size];
+        this.subjects = new Object[size];
+        Arrays.fill(sampling, 1);
+
+        this.consumer = consumer;
+        this.consumerThread = new Thread(this::consume, "crawler-listener");
+        consumerThread.setDaemon(true);
+        consumerThread.start();
+    }
+
+    // a consumer printing each event as a line to the given stream, reusing a single StringBuilder
+    public static Consumer<CrawlEvent> printing(PrintStream out) {
+        StringBuilder line = new StringBuilder(256);
+        return event -> {
+            line.setLength(0);
+            out.println(event.appendTo(line));
+        };
+    }
+
+    // events below the level are ignored
+    public void setLevel(CrawlEvent.Level level) {
+        this.level = level;
+    }
+
+    public CrawlEvent.Level getLevel() {
+        return level;
+    }
+
+    /* Keeps, on average, 1 in every events of the given type.
+       THROWS: IllegalArgumentException if:
+        - every is <1. */
+    public void setSampling(CrawlEvent.Type type, int every) throws IllegalArgumentException {
+        if (every < 1) throw new IllegalArgumentException("Nonsensical input for sampling (less than 1)");
+        sampling[type.ordinal()] = every;
+    }
+
+    // consumes every event recorded so far, then stops the consumer thread
+    public void close() {
+        running = false;
+        LockSupport.unpark(consumerThread);
+        try {
+            consumerThread.join();
+        }
+        catch (InterruptedException e) { // stop waiting, and preserve the interrupt
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // metrics
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    // number of events recorded but not yet consumed
+    public long getBacklog() {
+        return claimed.get() - consumed.get();
+    }
+
+    // number of events dropped because the buffer was full
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    // number of events the consumer threw on
+    public long getConsumerFailures() {
+        return consumerFailures.sum();
+    }
+
+    private void record(CrawlEvent.Type type, long matchKey, Object subject) {
+        if (type.getLevel().compareTo(level) < 0) return;
+        int every = sampling[type.ordinal()];
+        if (every > 1 && ThreadLocalRandom.current().nextInt(every) != 0) return;
+
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed.get() > mask) {
+                dropped.increment();
+                return;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) sequence & mask;
+        types[slot] = type.ordinal();
+        times[slot] = System.currentTimeMillis();
+        matchKeys[slot] = matchKey;
+        subjects[slot] = subject;
+        // publishing orders the writes above before the consumer's reads
+        published.lazySet(slot, sequence);
+    }
+
+    private void record(CrawlEvent.Type type, Object subject) {
+        record(type, CrawlEvent.NO_MATCH, subject);
+    }
+
+    private void record(CrawlEvent.Type type, Match match, Object subject) {
+        record(type, MatchKey.of(match), subject);
+    }
+
+    private void consume() {
+        CrawlEvent event = new CrawlEvent();
+        while (true) {
+            long sequence = consumed.get();
+            int slot = (int) sequence & mask;
+            if (published.get(slot) != sequence) {
+                // nothing more published, so stop if stopping and nothing more is claimed
+                if (!running && claimed.get() == sequence) return;
+                LockSupport.parkNanos(PARK_NANOS);
+                continue;
+            }
+            try {
+                consumer.accept(event.set(sequence, types[slot], times[slot], matchKeys[slot], subjects[slot]));
+            }
+            catch (RuntimeException e) { // a failing event mustn't stop the consumer
+                consumerFailures.increment();
+            }
+            // don't keep the subject alive until the slot is reused
+            subjects[slot] = null;
+            consumed.lazySet(sequence + 1);
+        }
+    }
+
+
+    @Override
+    public void onInitialSummonerCrawlable(Summoner initialSummoner) {
+        record(CrawlEvent.Type.INITIAL_SUMMONER_CRAWLABLE, initialSummoner);
+    }
+
+    @Override
+    public void onInitialSummonerNotCrawlable(Summoner initialSummoner) {
+        record(CrawlEvent.Type.INITIAL_SUMMONER_NOT_CRAWLABLE, initialSummoner);
+    }
+
+    @Override
+    public void onInitialCrawlEntry(Summoner initialSummoner) {
+        record(CrawlEvent.Type.INITIAL_CRAWL_ENTRY, initialSummoner);
+    }
+
+    @Override
+    public void onCrawlSummoner(Summoner crawlingSummoner) {
+        record(CrawlEvent.Type.CRAWL_SUMMONER, crawlingSummoner);
+    }
+
+    @Override
+    public void onBacktracking(Summoner fromSummoner) {
+        record(CrawlEvent.Type.BACKTRACKING, fromSummoner);
+    }
+
+    @Override
+    public void onBacktrackFail(Summoner fromSummoner) {
+        record(CrawlEvent.Type.BACKTRACK_FAIL, fromSummoner);
+    }
+
+    @Override
+    public void onBacktrackSuccess(Summoner fromSummoner, MatchHistory seekNextMatchHistory) {
+        record(CrawlEvent.Type.BACKTRACK_SUCCESS, fromSummoner);
+    }
+
+    @Override
+    public void onCrawling(Summoner crawlingSummoner) {
+        record(CrawlEvent.Type.CRAWLING, crawlingSummoner);
+    }
+
+    @Override
+    public void onObtainedMatchHistory(Summoner crawlingSummoner, MatchHistory crawlingSummonerMatchHistory) {
+        record(CrawlEvent.Type.OBTAINED_MATCH_HISTORY, crawlingSummoner);
+    }
+
+    @Override
+    public void onHandleMatchHistory(MatchHistory crawlingSummonerMatchHistory) {
+        record(CrawlEvent.Type.HANDLE_MATCH_HISTORY, null);
+    }
+
+    @Override
+    public void onSeekNextCrawl(MatchHistory nextCrawlMatchHistory) {
+        record(CrawlEvent.Type.SEEK_NEXT_CRAWL, null);
+    }
+
+    @Override
+    public void onSeekNextCrawlFail(MatchHistory nextCrawlMatchHistory) {
+        record(CrawlEvent.Type.SEEK_NEXT_CRAWL_FAIL, null);
+    }
+
+    @Override
+    public void onSeekNextCrawlSuccess(MatchHistory nextCrawlMatchHistory, Summoner nextSummoner) {
+        record(CrawlEvent.Type.SEEK_NEXT_CRAWL_SUCCESS, nextSummoner);
+    }
+
+    @Override
+    public void onEndCrawl() {
+        record(CrawlEvent.Type.END_CRAWL, null);
+    }
+
+    @Override
+    public void onMatchHistoryNotExist(MatchHistory notExistingMatchHistory) {
+        record(CrawlEvent.Type.MATCH_HISTORY_NOT_EXIST, null);
+    }
+
+    @Override
+    public void onProcessMatch(Match matchBeingProcessed) {
+        record(CrawlEvent.Type.PROCESS_MATCH, matchBeingProcessed, null);
+    }
+
+    @Override
+    public void onMatchLoaded(Match matchBeingProcessed, long loadNanos) {
+        // only timing, which isn't recorded
+    }
+
+    @Override
+    public void onMatchFiltered(Match matchBeingProcessed, long filterNanos) {
+    }
+
+    @Override
+    public void onCrawlableMatch(Match crawlableMatch) {
+        record(CrawlEvent.Type.CRAWLABLE_MATCH, crawlableMatch, null);
+    }
+
+    @Override
+    public void onNotCrawlableMatch(Match notCrawlableMatch) {
+        record(CrawlEvent.Type.NOT_CRAWLABLE_MATCH, notCrawlableMatch, null);
+    }
+
+    @Override
+    public void onProcessParticipant(Participant participantBeingProcessed, Match matchBeingProcessed) {
+        record(CrawlEvent.Type.PROCESS_PARTICIPANT, matchBeingProcessed, null);
+    }
+
+    @Override
+    public void onSummonerFiltered(Summoner summonerBeingProcessed, long filterNanos) {
+    }
+
+    @Override
+    public void onCrawlableParticipantFound(Participant crawlableParticipant, Summoner summonerOfParticipant, Match matchOfParticipant) {
+        record(CrawlEvent.Type.CRAWLABLE_PARTICIPANT_FOUND, matchOfParticipant, summonerOfParticipant);
+    }
+
+    @Override
+    public void onNotCrawlableParticipantFound(Participant notCrawlableParticipant, Summoner summonerOfParticipant, Match matchOfParticipant) {
+        record(CrawlEvent.Type.NOT_CRAWLABLE_PARTICIPANT_FOUND, matchOfParticipant, summonerOfParticipant);
+    }
+
+    @Override
+    public void onNoNextSummoner(MatchHistory existingButFailingMatchHistory) {
+        record(CrawlEvent.Type.NO_NEXT_SUMMONER, null);
+    }
+
+    @Override
+    public void onStop() {
+        record(CrawlEvent.Type.STOP, null);
+    }
+
+    @Override
+    public void onCheckpoint(Path checkpointFile) {
+        record(CrawlEvent.Type.CHECKPOINT, checkpointFile);
+    }
+
+    @Override
+    public void onCheckpointFail(Path checkpointFile, IOException e) {
+        record(CrawlEvent.Type.CHECKPOINT_FAIL, e);
+    }
+
+    @Override
+    public void onResume(Path checkpointFile, Summoner initialSummoner) {
+        record(CrawlEvent.Type.RESUME, initialSummoner);
+    }
+
+    @Override
+    public void onCrawlerConfigUpdate(CrawlerConfig oldCrawlerConfig, CrawlerConfig newCrawlerConfig) {
+        record(CrawlEvent.Type.CRAWLER_CONFIG_UPDATE, null);
+    }
+
+    @Override
+    public void onOutputHandlerUpdate(OutputHandler oldOutputHandler, OutputHandler newOutputHandler) {
+        // a null old output handler is the one the Crawler started with, not an update
+        if (oldOutputHandler != null) record(CrawlEvent.Type.OUTPUT_HANDLER_UPDATE, null);
+    }
+
+    @Override
+    public void onListenerUpdate(CrawlerListener oldListener, CrawlerListener newListener) {
+        record(CrawlEvent.Type.LISTENER_UPDATE, null);
+    }
+}
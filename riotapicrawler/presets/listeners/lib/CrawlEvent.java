@@ -0,0 +1,129 @@
+/*
+    An event recorded by a RingBufferCrawlerListener, as a flyweight view over a slot of its ring buffer.
+
+    Events are recorded as primitives where possible: the event Type, the time, and the MatchKey of the match involved (if any).
+    The subject is a reference to the Summoner involved, or the checkpoint file or failure, recorded without being formatted.
+    Match histories and participants aren't recorded, since even finding their summoners would allocate on the crawl's hot path.
+
+    The same CrawlEvent is moved over every event consumed, so it mustn't be kept after the consumer returns.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.listeners.lib;
+
+import com.merakianalytics.orianna.types.core.summoner.Summoner;
+import com.omarathon.riotapicrawler.src.lib.key.MatchKey;
+
+public class CrawlEvent {
+    public enum Level {
+        TRACE, DEBUG, INFO, WARN
+    }
+
+    public enum Type {
+        INITIAL_SUMMONER_CRAWLABLE(Level.INFO),
+        INITIAL_SUMMONER_NOT_CRAWLABLE(Level.WARN),
+        INITIAL_CRAWL_ENTRY(Level.INFO),
+        CRAWL_SUMMONER(Level.INFO),
+        BACKTRACKING(Level.DEBUG),
+        BACKTRACK_FAIL(Level.WARN),
+        BACKTRACK_SUCCESS(Level.DEBUG),
+        CRAWLING(Level.DEBUG),
+        OBTAINED_MATCH_HISTORY(Level.DEBUG),
+        HANDLE_MATCH_HISTORY(Level.DEBUG),
+        SEEK_NEXT_CRAWL(Level.DEBUG),
+        SEEK_NEXT_CRAWL_FAIL(Level.WARN),
+        SEEK_NEXT_CRAWL_SUCCESS(Level.INFO),
+        END_CRAWL(Level.INFO),
+        MATCH_HISTORY_NOT_EXIST(Level.WARN),
+        PROCESS_MATCH(Level.TRACE),
+        CRAWLABLE_MATCH(Level.TRACE),
+        NOT_CRAWLABLE_MATCH(Level.TRACE),
+        PROCESS_PARTICIPANT(Level.TRACE),
+        CRAWLABLE_PARTICIPANT_FOUND(Level.DEBUG),
+        NOT_CRAWLABLE_PARTICIPANT_FOUND(Level.TRACE),
+        NO_NEXT_SUMMONER(Level.WARN),
+        STOP(Level.INFO),
+        CHECKPOINT(Level.INFO),
+        CHECKPOINT_FAIL(Level.WARN),
+        RESUME(Level.INFO),
+        CRAWLER_CONFIG_UPDATE(Level.INFO),
+        OUTPUT_HANDLER_UPDATE(Level.INFO),
+        LISTENER_UPDATE(Level.INFO);
+
+        private final Level level;
+
+        Type(Level level) {
+            this.level = level;
+        }
+
+        public Level getLevel() {
+            return level;
+        }
+    }
+
+    // no MatchKey, i.e the event doesn't involve a match
+    public static final long NO_MATCH = -1;
+
+    private static final Type[] TYPES = Type.values();
+
+    private long sequence;
+    private int type;
+    private long timeMillis;
+    private long matchKey;
+    private Object subject;
+
+    // moves this view to an event, returning it
+    public CrawlEvent set(long sequence, int type, long timeMillis, long matchKey, Object subject) {
+        this.sequence = sequence;
+        this.type = type;
+        this.timeMillis = timeMillis;
+        this.matchKey = matchKey;
+        this.subject = subject;
+        return this;
+    }
+
+    // the position of the event among the events recorded by the listener (not counting sampled out or dropped events)
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Type getType() {
+        return TYPES[type];
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public boolean hasMatch() {
+        return matchKey != NO_MATCH;
+    }
+
+    public long getMatchKey() {
+        return matchKey;
+    }
+
+    // the Summoner, Path or IOException the event is about, or null
+    public Object getSubject() {
+        return subject;
+    }
+
+    /* Appends a line describing the event, e.g "1565530000000 INFO CRAWL_SUMMONER summoner=EUW1/abc".
+       Summoners are described by their platform and ID, which (unlike their names) never need loading. */
+    public StringBuilder appendTo(StringBuilder builder) {
+        builder.append(timeMillis).append(' ').append(getType().getLevel()).append(' ').append(getType());
+        if (hasMatch()) {
+            builder.append(" match=").append(MatchKey.platformOf(matchKey).getTag()).append('/').append(MatchKey.gameIdOf(matchKey));
+        }
+        if (subject instanceof Summoner) {
+            Summoner summoner = (Summoner) subject;
+            builder.append(" summoner=").append(summoner.getPlatform().getTag()).append('/').append(summoner.getId());
+        }
+        else if (subject != null) {
+            builder.append(" subject=").append(subject);
+        }
+        return builder;
+    }
+}
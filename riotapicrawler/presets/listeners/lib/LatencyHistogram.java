@@ -0,0 +1,93 @@
+/*
+    A lock-free histogram of latencies in nanoseconds, with a relative error of at most 1/16 over the whole range of a long.
+
+    Values below 32 have a bucket each, and each power of two above is split into 16 equal buckets, so buckets get wider
+    as latencies grow, and the histogram is a fixed 960 counters however many values it records.
+    Recording is a single atomic increment, plus updating the sum and the maximum.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.listeners.lib;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LatencyHistogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int LINEAR = SUB_BUCKETS << 1;
+    private static final int BUCKETS = LINEAR + (63 - (SUB_BITS + 1)) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    // records a latency, in nanoseconds (negative latencies are recorded as 0)
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(bucketOf(nanos));
+        count.increment();
+        sum.add(nanos);
+        if (nanos > max.get()) max.accumulateAndGet(nanos, Math::max);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSumNanos() {
+        return sum.sum();
+    }
+
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    public double getAverageNanos() {
+        long count = getCount();
+        return (count == 0) ? 0 : getSumNanos() / (double) count;
+    }
+
+    /* The latency at the given quantile (e.g 0.99), in nanoseconds: the upper bound of the bucket it falls in,
+       but no more than the maximum. 0 if nothing has been recorded.
+       THROWS: IllegalArgumentException if:
+        - quantile isn't in [0, 1]. */
+    public long getQuantileNanos(double quantile) throws IllegalArgumentException {
+        if (quantile < 0 || quantile > 1) throw new IllegalArgumentException("Nonsensical input for quantile (not in [0, 1])");
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) return Math.min(upperBoundOf(i), getMaxNanos());
+        }
+        return getMaxNanos();
+    }
+
+    private static int bucketOf(long value) {
+        if (value < LINEAR) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR + (exponent - (SUB_BITS + 1)) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < LINEAR) return bucket;
+        int exponent = (bucket - LINEAR) / SUB_BUCKETS + SUB_BITS + 1;
+        int sub = (bucket - LINEAR) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BITS);
+        long lower = (SUB_BUCKETS + sub) * width;
+        // the top bucket's upper bound overflows
+        return (lower + width - 1 < lower) ? Long.MAX_VALUE : lower + width - 1;
+    }
+}
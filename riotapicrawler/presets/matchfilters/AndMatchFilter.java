@@ -0,0 +1,36 @@
+/*
+    A MatchFilter that accepts Matches only if all of the given MatchFilters accept them.
+
+    The filters are evaluated cheapest and most decisive first, as measured while crawling (see CompositeFilter),
+    so the order they're given in doesn't matter. Their statistics are available via getStatistics.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.matchfilters;
+
+import com.merakianalytics.orianna.types.core.match.Match;
+import com.omarathon.riotapicrawler.src.lib.filter.AndFilter;
+import com.omarathon.riotapicrawler.src.lib.filter.FilterStatistics;
+import com.omarathon.riotapicrawler.src.lib.filter.MatchFilter;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class AndMatchFilter extends MatchFilter {
+    private AndFilter<Match> filter;
+
+    // THROWS: IllegalArgumentException if there are no filters
+    public AndMatchFilter(MatchFilter... filters) throws IllegalArgumentException {
+        this.filter = new AndFilter<>(Arrays.asList(filters));
+    }
+
+    public boolean filter(Match m) {
+        return filter.filter(m);
+    }
+
+    public List<FilterStatistics> getStatistics() {
+        return filter.getStatistics();
+    }
+}
@@ -0,0 +1,43 @@
+/*
+    A MatchFormatter that formats a Match into its compact binary MatchRecord,
+    optionally with the Match's estimated Rank from a MatchEloEstimator.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.matchformatters;
+
+import com.merakianalytics.orianna.types.core.match.Match;
+import com.omarathon.riotapicrawler.presets.matchformatters.lib.MatchRecord;
+import com.omarathon.riotapicrawler.presets.util.estimators.lib.MatchEloEstimator;
+import com.omarathon.riotapicrawler.src.lib.formatter.MatchFormatter;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+public class BinaryMatchFormatter extends MatchFormatter<ByteBuffer> {
+    // Used to obtain Rank estimations from input Matches (null for no estimates)
+    private MatchEloEstimator estimator;
+
+    public BinaryMatchFormatter() {
+        this(null);
+    }
+
+    public BinaryMatchFormatter(MatchEloEstimator estimator) {
+        this.estimator = estimator;
+    }
+
+    // a new buffer holding just the Match's record, ready to be read
+    public ByteBuffer format(Match m) {
+        ByteBuffer record = ByteBuffer.allocate(MatchRecord.RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        formatInto(m, record);
+        record.flip();
+        return record;
+    }
+
+    // writes the Match's record at the (little-endian) buffer's position, without allocating
+    public void formatInto(Match m, ByteBuffer buffer) {
+        MatchRecord.write(buffer, m, (estimator == null) ? null : estimator.getEstimate(m));
+    }
+}
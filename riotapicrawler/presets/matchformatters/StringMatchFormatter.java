@@ -1,12 +1,26 @@
+/*
+    Formats Matches (or whatever the object formatter makes of them) into JSON, with a shared Gson.
+    Use writeTo to stream the JSON straight into a Writer, StringBuilder or other Appendable rather than making a String.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
 package com.omarathon.riotapicrawler.presets.matchformatters;
 
 import com.google.gson.Gson;
 import com.merakianalytics.orianna.types.core.match.Match;
+import com.omarathon.riotapicrawler.presets.matchformatters.lib.MatchJson;
 import com.omarathon.riotapicrawler.src.lib.formatter.Formatter;
 import com.omarathon.riotapicrawler.src.lib.formatter.MatchFormatter;
 
 public class StringMatchFormatter extends MatchFormatter<String> {
+    // buffers kept for reuse by each thread are dropped once they grow past this many characters
+    private static final int MAX_POOLED_CAPACITY = 1 << 20;
+    private static final ThreadLocal<StringBuilder> BUFFERS = ThreadLocal.withInitial(StringBuilder::new);
+
     private Formatter<Match, ?> objectFormatter;
+    private Gson gson;
 
     public StringMatchFormatter() {
         this(new Formatter<Match, Match>() {
@@ -18,12 +32,32 @@ public class StringMatchFormatter extends MatchFormatter<String> {
     }
 
     public StringMatchFormatter(Formatter<Match, ?> objectFormatter) {
+        this(objectFormatter, MatchJson.defaultGson());
+    }
+
+    // the Gson must be thread-safe (as a Gson is, if its type adapters are)
+    public StringMatchFormatter(Formatter<Match, ?> objectFormatter, Gson gson) {
         this.objectFormatter = objectFormatter;
+        this.gson = gson;
+    }
+
+    // formats Matches into compact JSON, via MatchJson's compact type adapters
+    public static StringMatchFormatter compact() {
+        return new StringMatchFormatter((Formatter<Match, Match>) source -> source, MatchJson.compactGson());
     }
 
 
     // toJson is polymorphic across all objects thus works with returned ? from objectFormatter.format
     public String format(Match m) {
-        return new Gson().toJson(objectFormatter.format(m));
+        StringBuilder buffer = BUFFERS.get();
+        buffer.setLength(0);
+        writeTo(m, buffer);
+        String json = buffer.toString();
+        if (buffer.capacity() > MAX_POOLED_CAPACITY) BUFFERS.remove();
+        return json;
+    }
+
+    public void writeTo(Match m, Appendable out) {
+        gson.toJson(objectFormatter.format(m), out);
     }
 }
@@ -0,0 +1,115 @@
+/*
+    Shared, thread-safe Gson instances for serializing Matches (and objects containing them) to JSON,
+    so that a Gson isn't built for every Match.
+
+    The default Gson serializes Orianna objects reflectively, as the crawler always has. The compact Gson has serializers
+    for Match, Participant and Team which write only the fields most analyses need, from data the Match already holds,
+    so nothing is lazily loaded and the output is a fraction of the size. They're only serializers, so reading falls back
+    to Gson's default adapters. Other adapters may be added to a GsonBuilder alongside them via registerCompactAdapters.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.matchformatters.lib;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSerializationContext;
+import com.google.gson.JsonSerializer;
+import com.merakianalytics.orianna.types.core.match.Match;
+import com.merakianalytics.orianna.types.core.match.Participant;
+import com.merakianalytics.orianna.types.core.match.ParticipantStats;
+import com.merakianalytics.orianna.types.core.match.Team;
+import com.merakianalytics.orianna.types.core.summoner.Summoner;
+
+import java.lang.reflect.Type;
+
+public class MatchJson {
+    private static final Gson DEFAULT = new Gson();
+    private static final Gson COMPACT = registerCompactAdapters(new GsonBuilder()).create();
+
+    private MatchJson() {}
+
+    public static Gson defaultGson() {
+        return DEFAULT;
+    }
+
+    public static Gson compactGson() {
+        return COMPACT;
+    }
+
+    public static GsonBuilder registerCompactAdapters(GsonBuilder builder) {
+        return builder.registerTypeAdapter(Match.class, new MatchSerializer())
+                .registerTypeHierarchyAdapter(Participant.class, new ParticipantSerializer())
+                .registerTypeHierarchyAdapter(Team.class, new TeamSerializer());
+    }
+
+    private static final class MatchSerializer implements JsonSerializer<Match> {
+        private final TeamSerializer teamSerializer = new TeamSerializer();
+        private final ParticipantSerializer participantSerializer = new ParticipantSerializer();
+
+        @Override
+        public JsonElement serialize(Match match, Type type, JsonSerializationContext context) {
+            JsonObject json = new JsonObject();
+            json.addProperty("id", match.getId());
+            json.addProperty("platform", match.getPlatform().getTag());
+            json.addProperty("queue", match.getQueue().getId());
+            json.addProperty("season", match.getSeason().getId());
+            json.addProperty("version", match.getVersion());
+            json.addProperty("creationTime", match.getCreationTime().getMillis());
+            json.addProperty("duration", match.getDuration().getStandardSeconds());
+            json.add("blueTeam", teamSerializer.serialize(match.getBlueTeam(), Team.class, context));
+            json.add("redTeam", teamSerializer.serialize(match.getRedTeam(), Team.class, context));
+            JsonArray participants = new JsonArray();
+            for (Participant participant : match.getParticipants()) {
+                participants.add(participantSerializer.serialize(participant, Participant.class, context));
+            }
+            json.add("participants", participants);
+            return json;
+        }
+    }
+
+    private static final class ParticipantSerializer implements JsonSerializer<Participant> {
+        @Override
+        public JsonElement serialize(Participant participant, Type type, JsonSerializationContext context) {
+            Summoner summoner = participant.getSummoner();
+            ParticipantStats stats = participant.getStats();
+            JsonObject json = new JsonObject();
+            json.addProperty("summonerId", summoner.getId());
+            json.addProperty("accountId", summoner.getAccountId());
+            json.addProperty("summonerName", summoner.getName());
+            json.addProperty("champion", participant.getChampion().getId());
+            json.addProperty("side", participant.getTeam().getSide().getId());
+            json.addProperty("win", stats.isWinner());
+            json.addProperty("kills", stats.getKills());
+            json.addProperty("deaths", stats.getDeaths());
+            json.addProperty("assists", stats.getAssists());
+            json.addProperty("championLevel", stats.getChampionLevel());
+            json.addProperty("goldEarned", stats.getGoldEarned());
+            json.addProperty("creepScore", stats.getCreepScore());
+            json.addProperty("visionScore", stats.getVisionScore());
+            json.addProperty("damageDealtToChampions", stats.getDamageDealtToChampions());
+            return json;
+        }
+    }
+
+    private static final class TeamSerializer implements JsonSerializer<Team> {
+        @Override
+        public JsonElement serialize(Team team, Type type, JsonSerializationContext context) {
+            JsonObject json = new JsonObject();
+            json.addProperty("side", team.getSide().getId());
+            json.addProperty("win", team.isWinner());
+            json.addProperty("firstBlood", team.isFirstBloodKiller());
+            json.addProperty("towerKills", team.getTowerKills());
+            json.addProperty("inhibitorKills", team.getInhibitorKills());
+            json.addProperty("baronKills", team.getBaronKills());
+            json.addProperty("dragonKills", team.getDragonKills());
+            json.addProperty("riftHeraldKills", team.getRiftHeraldKills());
+            return json;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+    A compact, fixed-width binary record of a Match, and a flyweight view over such records in a ByteBuffer.
+
+    Each record is RECORD_SIZE bytes, little-endian:
+        header (32 bytes):
+            0   long   MatchKey (platform and game ID)
+            8   long   creation time, in epoch milliseconds
+            16  int    duration, in seconds
+            20  short  queue ID
+            22  byte   estimated Rank tier ordinal (-1 if there's no estimate)
+            23  byte   estimated Rank division ordinal (-1 if there's no estimate)
+            24  byte   number of participants (at most MAX_PARTICIPANTS)
+            25  byte   winning side (0 blue, 1 red, -1 unknown)
+            26  reserved
+        then MAX_PARTICIPANTS participant slots (24 bytes each, unused slots zeroed):
+            0   short  champion ID
+            2   byte   side (0 blue, 1 red)
+            3   byte   1 if they won, otherwise 0
+            4   short  kills
+            6   short  deaths
+            8   short  assists
+            10  byte   champion level
+            11  reserved
+            12  int    gold earned
+            16  short  creep score
+            18  short  vision score
+            20  int    damage dealt to champions
+
+    Tiers and divisions are stored by the ordinal of Orianna's Tier and Division enums.
+
+    A MatchRecord is a flyweight: it's moved over the records of a buffer with at, so reading records allocates nothing.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.matchformatters.lib;
+
+import com.merakianalytics.orianna.types.common.Division;
+import com.merakianalytics.orianna.types.common.Platform;
+import com.merakianalytics.orianna.types.common.Side;
+import com.merakianalytics.orianna.types.common.Tier;
+import com.merakianalytics.orianna.types.core.match.Match;
+import com.merakianalytics.orianna.types.core.match.Participant;
+import com.merakianalytics.orianna.types.core.match.ParticipantStats;
+import com.omarathon.riotapicrawler.presets.util.Rank;
+import com.omarathon.riotapicrawler.src.lib.key.MatchKey;
+
+import java.nio.ByteBuffer;
+
+public class MatchRecord {
+    public static final int MAX_PARTICIPANTS = 10;
+    public static final int HEADER_SIZE = 32;
+    public static final int PARTICIPANT_SIZE = 24;
+    public static final int RECORD_SIZE = HEADER_SIZE + MAX_PARTICIPANTS * PARTICIPANT_SIZE;
+
+    private ByteBuffer buffer;
+    private int offset;
+
+    // moves this view to the record at the given byte offset of the (little-endian) buffer
+    public MatchRecord at(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    /* Writes the record of the Match, with the given estimated Rank (which may be null), at the buffer's position,
+       advancing it by RECORD_SIZE. The buffer must be little-endian. Loads the Match if it isn't already. */
+    public static void write(ByteBuffer buffer, Match match, Rank rank) {
+        int start = buffer.position();
+        buffer.putLong(MatchKey.of(match));
+        buffer.putLong(match.getCreationTime().getMillis());
+        buffer.putInt((int) match.getDuration().getStandardSeconds());
+        buffer.putShort((short) match.getQueue().getId());
+        buffer.put((byte) ((rank == null) ? -1 : rank.getTier().ordinal()));
+        buffer.put((byte) ((rank == null) ? -1 : rank.getDivision().ordinal()));
+        int participants = Math.min(match.getParticipants().size(), MAX_PARTICIPANTS);
+        buffer.put((byte) participants);
+        buffer.put(winningSide(match));
+        buffer.position(start + HEADER_SIZE);
+
+        int written = 0;
+        for (Participant participant : match.getParticipants()) {
+            if (written == MAX_PARTICIPANTS) break;
+            ParticipantStats stats = participant.getStats();
+            buffer.putShort((short) participant.getChampion().getId());
+            buffer.put(side(participant.getTeam().getSide()));
+            buffer.put((byte) (stats.isWinner() ? 1 : 0));
+            buffer.putShort((short) stats.getKills());
+            buffer.putShort((short) stats.getDeaths());
+            buffer.putShort((short) stats.getAssists());
+            buffer.put((byte) stats.getChampionLevel());
+            buffer.put((byte) 0);
+            buffer.putInt(stats.getGoldEarned());
+            buffer.putShort((short) stats.getCreepScore());
+            buffer.putShort((short) stats.getVisionScore());
+            buffer.putInt(stats.getDamageDealtToChampions());
+            written++;
+        }
+        // zero the unused slots (and reserved bytes), so records are identical however the buffer was used before
+        for (int i = buffer.position(); i < start + RECORD_SIZE; i++) {
+            buffer.put((byte) 0);
+        }
+        for (int i = start + 26; i < start + HEADER_SIZE; i++) {
+            buffer.put(i, (byte) 0);
+        }
+    }
+
+    private static byte winningSide(Match match) {
+        if (match.getBlueTeam().isWinner()) return 0;
+        if (match.getRedTeam().isWinner()) return 1;
+        return -1;
+    }
+
+    private static byte side(Side side) {
+        return (byte) ((side == Side.BLUE) ? 0 : 1);
+    }
+
+    // header fields
+
+    public long getMatchKey() {
+        return buffer.getLong(offset);
+    }
+
+    public long getGameId() {
+        return MatchKey.gameIdOf(getMatchKey());
+    }
+
+    public Platform getPlatform() {
+        return MatchKey.platformOf(getMatchKey());
+    }
+
+    public long getCreationTime() {
+        return buffer.getLong(offset + 8);
+    }
+
+    public int getDurationSeconds() {
+        return buffer.getInt(offset + 16);
+    }
+
+    public int getQueueId() {
+        return buffer.getShort(offset + 20);
+    }
+
+    public boolean hasRank() {
+        return buffer.get(offset + 22) >= 0;
+    }
+
+    // null if there's no estimate
+    public Tier getRankTier() {
+        byte ordinal = buffer.get(offset + 22);
+        return (ordinal < 0) ? null : Tier.values()[ordinal];
+    }
+
+    // null if there's no estimate
+    public Division getRankDivision() {
+        byte ordinal = buffer.get(offset + 23);
+        return (ordinal < 0) ? null : Division.values()[ordinal];
+    }
+
+    public int getParticipantCount() {
+        return buffer.get(offset + 24);
+    }
+
+    // 0 blue, 1 red, -1 unknown
+    public int getWinningSide() {
+        return buffer.get(offset + 25);
+    }
+
+    // participant fields, by the participant's index within the record
+
+    public int getChampionId(int participant) {
+        return buffer.getShort(participantOffset(participant));
+    }
+
+    // 0 blue, 1 red
+    public int getSide(int participant) {
+        return buffer.get(participantOffset(participant) + 2);
+    }
+
+    public boolean isWinner(int participant) {
+        return buffer.get(participantOffset(participant) + 3) != 0;
+    }
+
+    public int getKills(int participant) {
+        return buffer.getShort(participantOffset(participant) + 4);
+    }
+
+    public int getDeaths(int participant) {
+        return buffer.getShort(participantOffset(participant) + 6);
+    }
+
+    public int getAssists(int participant) {
+        return buffer.getShort(participantOffset(participant) + 8);
+    }
+
+    public int getChampionLevel(int participant) {
+        return buffer.get(participantOffset(participant) + 10);
+    }
+
+    public int getGoldEarned(int participant) {
+        return buffer.getInt(participantOffset(participant) + 12);
+    }
+
+    public int getCreepScore(int participant) {
+        return buffer.getShort(participantOffset(participant) + 16);
+    }
+
+    public int getVisionScore(int participant) {
+        return buffer.getShort(participantOffset(participant) + 18);
+    }
+
+    public int getDamageDealtToChampions(int participant) {
+        return buffer.getInt(participantOffset(participant) + 20);
+    }
+
+    private int participantOffset(int participant) {
+        return offset + HEADER_SIZE + participant * PARTICIPANT_SIZE;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+    Reads a file of MatchRecords (as written by BinaryFileOutputHandler) by memory-mapping it, so records are read
+    straight from the page cache with no copying, parsing or per-record allocation.
+
+    The file has a HEADER_SIZE byte header (the "RAMR" magic, the format version, and the record size, as little-endian ints),
+    followed by fixed-width records. A partly written record at the end of the file is ignored.
+
+    Files larger than a single mapping (2GB) are mapped in several chunks of whole records.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.matchformatters.lib;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+public class MatchRecordReader implements Closeable {
+    public static final int HEADER_SIZE = 16;
+    // "RAMR"
+    private static final int MAGIC = 0x524d4152;
+    private static final int VERSION = 1;
+    private static final int RECORDS_PER_CHUNK = Integer.MAX_VALUE / MatchRecord.RECORD_SIZE;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final long size;
+
+    // THROWS: IOException if the file can't be read, or isn't a file of MatchRecords
+    public MatchRecordReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            checkHeader(channel, file);
+            size = (channel.size() - HEADER_SIZE) / MatchRecord.RECORD_SIZE;
+            int chunkCount = (int) ((size + RECORDS_PER_CHUNK - 1) / RECORDS_PER_CHUNK);
+            chunks = new MappedByteBuffer[chunkCount];
+            for (int i = 0; i < chunkCount; i++) {
+                long first = (long) i * RECORDS_PER_CHUNK;
+                long records = Math.min(RECORDS_PER_CHUNK, size - first);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * MatchRecord.RECORD_SIZE, records * MatchRecord.RECORD_SIZE);
+                chunks[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+        catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // the header of a new file of MatchRecords, ready to be written
+    public static ByteBuffer header() {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(MatchRecord.RECORD_SIZE).putInt(0);
+        header.flip();
+        return header;
+    }
+
+    // THROWS: IOException if the channel's file doesn't start with a matching header
+    public static void checkHeader(FileChannel channel, Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) throw new IOException("Not a MatchRecord file (too short): " + file);
+        }
+        header.flip();
+        if (header.getInt() != MAGIC) throw new IOException("Not a MatchRecord file: " + file);
+        int version = header.getInt();
+        if (version != VERSION) throw new IOException("Unsupported MatchRecord file version " + version + ": " + file);
+        int recordSize = header.getInt();
+        if (recordSize != MatchRecord.RECORD_SIZE) throw new IOException("Unexpected MatchRecord size " + recordSize + ": " + file);
+    }
+
+    // number of records in the file
+    public long size() {
+        return size;
+    }
+
+    // moves the given record view to the record at the given index, returning it
+    public MatchRecord get(long index, MatchRecord record) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Record " + index + " of " + size);
+        int chunk = (int) (index / RECORDS_PER_CHUNK);
+        int offset = (int) (index % RECORDS_PER_CHUNK) * MatchRecord.RECORD_SIZE;
+        return record.at(chunks[chunk], offset);
+    }
+
+    // calls the consumer with every record in order. the same view is moved over every record, so must not be kept.
+    public void forEach(Consumer<MatchRecord> consumer) {
+        MatchRecord record = new MatchRecord();
+        for (MappedByteBuffer chunk : chunks) {
+            int end = chunk.capacity();
+            for (int offset = 0; offset < end; offset += MatchRecord.RECORD_SIZE) {
+                consumer.accept(record.at(chunk, offset));
+            }
+        }
+    }
+
+    // closes the file. the mappings stay valid until they're garbage collected, but mustn't be used.
+    public void close() throws IOException {
+        channel.close();
+    }
+}
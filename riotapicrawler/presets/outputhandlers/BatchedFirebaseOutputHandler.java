@@ -0,0 +1,318 @@
+/*
+    An OutputHandler which writes Matches to a Firebase in batches, rather than posting each Match on its own.
+
+    Each Match is formatted into FirebaseData, given a client-generated push ID, and buffered by the connection and path it's for.
+    A buffer is flushed once it holds the batch size, or once its oldest Match has waited the maximum delay, as a single
+    multi-location update (a PATCH of the path with a child per Match), which is equivalent to posting each Match to the path.
+
+    Batches are written on a background thread. A batch that fails (an exception, or a 5xx/429 response) is retried with
+    exponential backoff and full jitter, up to the maximum number of attempts; a batch that's given up on is reported to the
+    FirebaseBatchListener. At most the given number of batches wait to be written, beyond which applying a Match blocks, as does
+    flushing a batch whose Matches have waited the maximum delay. Those flushes run on a second thread, so one waiting for space
+    never holds up the writing that makes space.
+
+    Since firebase4j connects to the connection's base URL, the handler may be tested against a local HTTP server standing in
+    for the Firebase, by using a FirebaseConnection to e.g http://localhost:8080.
+
+    stop() (called by the Crawler when the crawl ends) flushes every buffer and waits for every batch to be written.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.outputhandlers;
+
+import com.merakianalytics.orianna.types.core.match.Match;
+import com.omarathon.riotapicrawler.presets.outputhandlers.lib.DefaultFirebaseBatchListener;
+import com.omarathon.riotapicrawler.presets.outputhandlers.lib.FirebaseBatchListener;
+import com.omarathon.riotapicrawler.presets.outputhandlers.lib.FirebaseConnection;
+import com.omarathon.riotapicrawler.presets.outputhandlers.lib.FirebaseData;
+import com.omarathon.riotapicrawler.presets.outputhandlers.lib.FirebaseDataMatchFormatter;
+import com.omarathon.riotapicrawler.presets.outputhandlers.lib.FirebasePushIds;
+import com.omarathon.riotapicrawler.src.lib.handler.OutputHandler;
+import net.thegreshams.firebase4j.error.FirebaseException;
+import net.thegreshams.firebase4j.model.FirebaseResponse;
+
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+public class BatchedFirebaseOutputHandler extends OutputHandler {
+    private final FirebaseDataMatchFormatter formatter;
+    private final FirebaseBatchListener listener;
+    private final FirebasePushIds pushIds = new FirebasePushIds();
+
+    private final int batchSize;
+    private final long maxDelayMillis;
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+    // permits for batches waiting to be written
+    private final Semaphore pendingBatches;
+
+    // the buffered Matches by the connection and path they're for
+    private final Map<Target, Batch> buffers = new HashMap<>();
+    private ScheduledThreadPoolExecutor writer;
+    // flushes batches that have waited the maximum delay
+    private ScheduledThreadPoolExecutor flusher;
+
+    // batches of 100 Matches, flushed at least every second, retried up to 5 times from 500ms, with at most 100 batches waiting
+    public BatchedFirebaseOutputHandler(FirebaseDataMatchFormatter formatter) {
+        this(formatter, 100, 1, TimeUnit.SECONDS, 5, 100, new DefaultFirebaseBatchListener());
+    }
+
+    /* INPUTS: the formatter of Matches into FirebaseData, the number of Matches per batch, the longest a Match waits to be flushed,
+               the maximum attempts at writing a batch, the maximum number of batches waiting to be written, and the listener for batch events.
+       THROWS: IllegalArgumentException if:
+        - batchSize is <1,
+        - maxDelay is <1,
+        - maxAttempts is <1,
+        - maxPendingBatches is <1. */
+    public BatchedFirebaseOutputHandler(FirebaseDataMatchFormatter formatter, int batchSize, long maxDelay, TimeUnit maxDelayUnit,
+                                        int maxAttempts, int maxPendingBatches, FirebaseBatchListener listener) throws IllegalArgumentException {
+        if (batchSize < 1) throw new IllegalArgumentException("Nonsensical input for batch size (less than 1)");
+        if (maxDelay < 1) throw new IllegalArgumentException("Nonsensical input for maximum delay (less than 1)");
+        if (maxAttempts < 1) throw new IllegalArgumentException("Nonsensical input for maximum attempts (less than 1)");
+        if (maxPendingBatches < 1) throw new IllegalArgumentException("Nonsensical input for maximum pending batches (less than 1)");
+        this.formatter = formatter;
+        this.batchSize = batchSize;
+        this.maxDelayMillis = Math.max(1, maxDelayUnit.toMillis(maxDelay));
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMillis = 500;
+        this.maxBackoffMillis = 30000;
+        this.pendingBatches = new Semaphore(maxPendingBatches);
+        this.listener = listener;
+    }
+
+    public void handle(Match match) {
+        FirebaseData data = formatter.format(match);
+        Target target = new Target(data.getConnection(), data.getPath());
+        Batch full = null;
+        synchronized (this) {
+            startWriter();
+            Batch batch = buffers.get(target);
+            if (batch == null) {
+                batch = new Batch(target);
+                buffers.put(target, batch);
+                // flush the batch once its first Match has waited the maximum delay, if it isn't full by then
+                Batch scheduled = batch;
+                flusher.schedule(() -> flushIfCurrent(scheduled), maxDelayMillis, TimeUnit.MILLISECONDS);
+            }
+            batch.add(pushIds.next(), data.getJsonString());
+            if (batch.size() >= batchSize) {
+                buffers.remove(target);
+                full = batch;
+            }
+        }
+        if (full != null) submit(full);
+    }
+
+    // flushes every buffer, then waits for every batch to be written (or dropped)
+    @Override
+    public void stop() {
+        List<Batch> remaining;
+        ScheduledThreadPoolExecutor stopping;
+        ScheduledThreadPoolExecutor stoppingFlusher;
+        synchronized (this) {
+            remaining = new ArrayList<>(buffers.values());
+            buffers.clear();
+            stopping = writer;
+            stoppingFlusher = flusher;
+            writer = null;
+            flusher = null;
+        }
+        if (stopping == null) return;
+        // delayed flushes of batches that have already been flushed are no longer needed
+        stoppingFlusher.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        stoppingFlusher.shutdown();
+        for (Batch batch : remaining) {
+            submit(batch, stopping);
+        }
+        try {
+            // a flush that had already taken its batch submits it before the writer shuts down
+            stoppingFlusher.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            stopping.shutdown();
+            stopping.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e) { // stop waiting, and preserve the interrupt
+            Thread.currentThread().interrupt();
+            stopping.shutdown();
+        }
+    }
+
+    private void startWriter() {
+        if (writer != null) return;
+        writer = newDaemonExecutor("firebase-batch-writer");
+        flusher = newDaemonExecutor("firebase-batch-flusher");
+    }
+
+    private static ScheduledThreadPoolExecutor newDaemonExecutor(String threadName) {
+        return new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // submits the batch if it's still being buffered, i.e it wasn't already flushed for being full. runs on the flusher thread.
+    private void flushIfCurrent(Batch batch) {
+        ScheduledThreadPoolExecutor writer;
+        synchronized (this) {
+            if (buffers.get(batch.target) != batch) return;
+            buffers.remove(batch.target);
+            // stop takes the writer only after taking the buffers, so the batch being buffered means the writer is still running
+            writer = this.writer;
+        }
+        submit(batch, writer);
+    }
+
+    private void submit(Batch batch) {
+        ScheduledThreadPoolExecutor writer;
+        synchronized (this) {
+            startWriter();
+            writer = this.writer;
+        }
+        submit(batch, writer);
+    }
+
+    // waits for space for the batch (which is the backpressure on the crawler), then writes it in the background
+    private void submit(Batch batch, ScheduledThreadPoolExecutor writer) {
+        try {
+            pendingBatches.acquire();
+        }
+        catch (InterruptedException e) { // write it anyway, and preserve the interrupt
+            Thread.currentThread().interrupt();
+            pendingBatches.acquireUninterruptibly();
+        }
+        try {
+            writer.execute(() -> {
+                try {
+                    write(batch);
+                }
+                finally {
+                    pendingBatches.release();
+                }
+            });
+        }
+        catch (RejectedExecutionException e) { // the writer was shut down by a stop that was interrupted
+            pendingBatches.release();
+            listener.onBatchDropped(batch.target.path, batch.size(), 0, "the handler was stopped before the batch was written");
+        }
+    }
+
+    // writes the batch, retrying with backoff. runs on the writer thread.
+    private void write(Batch batch) {
+        String path = batch.target.path;
+        String body = batch.toJson();
+        for (int attempt = 1; ; attempt++) {
+            String failure;
+            boolean retryable;
+            try {
+                FirebaseResponse response = batch.target.connection.get().patch(path, body);
+                if (response.getSuccess()) {
+                    listener.onBatchWritten(path, batch.size(), attempt);
+                    return;
+                }
+                int code = response.getCode();
+                failure = "HTTP " + code + ": " + response.getRawBody();
+                // server errors and rate limiting may pass, but other client errors won't
+                retryable = (code >= 500 || code == 429);
+            }
+            catch (FirebaseException | RuntimeException e) {
+                failure = e.toString();
+                retryable = true;
+            }
+            catch (UnsupportedEncodingException e) {
+                failure = e.toString();
+                retryable = false;
+            }
+
+            if (!retryable || attempt >= maxAttempts) {
+                listener.onBatchDropped(path, batch.size(), attempt, failure);
+                return;
+            }
+            long delay = backoff(attempt);
+            listener.onBatchRetry(path, batch.size(), attempt, failure, delay);
+            try {
+                Thread.sleep(delay);
+            }
+            catch (InterruptedException e) { // stop retrying, and preserve the interrupt
+                Thread.currentThread().interrupt();
+                listener.onBatchDropped(path, batch.size(), attempt, "interrupted while retrying after " + failure);
+                return;
+            }
+        }
+    }
+
+    // exponential backoff with full jitter: a random delay up to the base doubled per attempt, capped
+    private long backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    // a connection and path that Matches are written to
+    private static final class Target {
+        private final FirebaseConnection connection;
+        private final String path;
+
+        private Target(FirebaseConnection connection, String path) {
+            this.connection = connection;
+            this.path = path;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Target)) return false;
+            Target t = (Target) o;
+            return connection == t.connection && path.equals(t.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(connection) * 31 + path.hashCode();
+        }
+    }
+
+    // buffered Matches for a target, as JSON by push ID
+    private static final class Batch {
+        private final Target target;
+        private final List<String> pushIds = new ArrayList<>();
+        private final List<String> jsonStrings = new ArrayList<>();
+
+        private Batch(Target target) {
+            this.target = target;
+        }
+
+        private void add(String pushId, String jsonString) {
+            pushIds.add(pushId);
+            jsonStrings.add(jsonString);
+        }
+
+        private int size() {
+            return pushIds.size();
+        }
+
+        // the body of the multi-location update: an object with each Match's JSON under its push ID
+        private String toJson() {
+            int length = 2;
+            for (String jsonString : jsonStrings) {
+                length += jsonString.length() + 24;
+            }
+            StringBuilder json = new StringBuilder(length).append('{');
+            for (int i = 0; i < pushIds.size(); i++) {
+                if (i > 0) json.append(',');
+                // push IDs need no escaping
+                json.append('"').append(pushIds.get(i)).append("\":").append(jsonStrings.get(i));
+            }
+            return json.append('}').toString();
+        }
+    }
+}
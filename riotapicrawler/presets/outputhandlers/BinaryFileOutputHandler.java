@@ -0,0 +1,113 @@
+/*
+    An OutputHandler which appends the MatchRecord of each Match to a binary file, which may be read back
+    (many times, and quickly) with a MatchRecordReader.
+
+    The file starts with a header (see MatchRecordReader), followed by fixed-width records. Records are buffered
+    and written in large blocks; stop() (called by the Crawler when the crawl ends) writes and syncs any buffered records.
+    An existing file is appended to, if it has a matching header.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.outputhandlers;
+
+import com.merakianalytics.orianna.types.core.match.Match;
+import com.omarathon.riotapicrawler.presets.matchformatters.BinaryMatchFormatter;
+import com.omarathon.riotapicrawler.presets.matchformatters.lib.MatchRecord;
+import com.omarathon.riotapicrawler.presets.matchformatters.lib.MatchRecordReader;
+import com.omarathon.riotapicrawler.src.lib.handler.OutputHandler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class BinaryFileOutputHandler extends OutputHandler {
+    // number of records buffered before they're written
+    private static final int BUFFERED_RECORDS = 4096;
+
+    private final BinaryMatchFormatter formatter;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFERED_RECORDS * MatchRecord.RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    public BinaryFileOutputHandler(Path file) throws IOException {
+        this(file, new BinaryMatchFormatter());
+    }
+
+    // THROWS: IOException if the file can't be opened, or exists but isn't a file of MatchRecords
+    public BinaryFileOutputHandler(Path file, BinaryMatchFormatter formatter) throws IOException {
+        this.formatter = formatter;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                channel.write(MatchRecordReader.header());
+            }
+            else {
+                MatchRecordReader.checkHeader(channel, file);
+                // drop any partly written record at the end, then append after the last complete one
+                long records = (channel.size() - MatchRecordReader.HEADER_SIZE) / MatchRecord.RECORD_SIZE;
+                channel.truncate(MatchRecordReader.HEADER_SIZE + records * MatchRecord.RECORD_SIZE);
+            }
+            channel.position(channel.size());
+        }
+        catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // THROWS: UncheckedIOException if writing the buffered records failed
+    public synchronized void handle(Match match) throws UncheckedIOException {
+        if (buffer.remaining() < MatchRecord.RECORD_SIZE) flush();
+        int start = buffer.position();
+        try {
+            formatter.formatInto(match, buffer);
+        }
+        catch (RuntimeException e) { // don't leave a partial record behind
+            buffer.position(start);
+            throw e;
+        }
+    }
+
+    // writes and syncs the buffered records
+    @Override
+    public synchronized void stop() throws UncheckedIOException {
+        flush();
+        try {
+            channel.force(false);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // stops, then closes the file
+    public synchronized void close() throws UncheckedIOException {
+        stop();
+        try {
+            channel.close();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flush() throws UncheckedIOException {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        finally {
+            buffer.clear();
+        }
+    }
+}
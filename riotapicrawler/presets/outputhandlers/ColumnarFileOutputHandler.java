@@ -0,0 +1,283 @@
+/*
+    An OutputHandler which exports chosen Columns of Matches to a columnar file, to be read with a ColumnarFileReader.
+
+    Each Match becomes one row, one row per team, or one row per participant, depending on the grain (a Column.Level).
+    Rows are buffered column by column into primitive arrays, and every rowGroupSize rows they're written as a row group:
+    for each column its minimum and maximum values, then each column compressed separately. So a reader can skip
+    a row group whose statistics rule it out, and only reads (and decompresses) the columns it needs.
+
+    Integral columns are delta and zigzag varint encoded before compression, which shrinks sorted and repeated values
+    (e.g creation times, and match columns repeated for each participant) to a byte or so per row.
+
+    stop() (called by the Crawler when the crawl ends) writes any buffered rows as a final row group, and syncs the file.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.outputhandlers;
+
+import com.merakianalytics.orianna.types.core.match.Match;
+import com.merakianalytics.orianna.types.core.match.Participant;
+import com.omarathon.riotapicrawler.presets.outputhandlers.lib.Column;
+import com.omarathon.riotapicrawler.presets.outputhandlers.lib.ColumnarFileReader;
+import com.omarathon.riotapicrawler.src.lib.handler.OutputHandler;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+
+public class ColumnarFileOutputHandler extends OutputHandler {
+    private final Column[] columns;
+    private final Column.Level grain;
+    private final int rowGroupSize;
+
+    private final FileOutputStream file;
+    private final DataOutputStream out;
+
+    // buffered values of the row group being built, by column (only the array of the column's type is used)
+    private final long[][] longs;
+    private final double[][] doubles;
+    private int rows = 0;
+    private final Column.Row row = new Column.Row();
+
+    // reused when encoding and compressing columns
+    private final ExposedByteArrayOutputStream encoded = new ExposedByteArrayOutputStream();
+    private final Deflater deflater;
+    private byte[] compressed = new byte[1 << 16];
+
+    // participant rows, in row groups of 65536 rows, with default compression
+    public ColumnarFileOutputHandler(Path file, List<Column> columns) throws IOException {
+        this(file, columns, Column.Level.PARTICIPANT, 1 << 16, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /* INPUTS: the file to write (replacing any existing file), the columns to export, the grain of the rows,
+               the number of rows per row group, and the Deflater compression level of the columns.
+       THROWS: IllegalArgumentException if:
+        - there are no columns,
+        - a column needs a finer grain than that of the rows (e.g participant kills in team rows),
+        - rowGroupSize is <1.
+               IOException if the file can't be opened. */
+    public ColumnarFileOutputHandler(Path file, List<Column> columns, Column.Level grain, int rowGroupSize, int compressionLevel)
+            throws IllegalArgumentException, IOException {
+        if (columns.isEmpty()) throw new IllegalArgumentException("No columns to export");
+        for (Column column : columns) {
+            if (column.getLevel().compareTo(grain) > 0) {
+                throw new IllegalArgumentException("Column " + column.getName() + " needs " + column.getLevel() + " rows, but rows are " + grain);
+            }
+        }
+        if (rowGroupSize < 1) throw new IllegalArgumentException("Nonsensical input for row group size (less than 1)");
+        this.columns = columns.toArray(new Column[0]);
+        this.grain = grain;
+        this.rowGroupSize = rowGroupSize;
+        this.deflater = new Deflater(compressionLevel);
+
+        // room for a whole match beyond a full row group, since row groups are only written between matches
+        int capacity = rowGroupSize + 16;
+        longs = new long[this.columns.length][];
+        doubles = new double[this.columns.length][];
+        for (int c = 0; c < this.columns.length; c++) {
+            if (this.columns[c].getType() == Column.Type.LONG) longs[c] = new long[capacity];
+            else doubles[c] = new double[capacity];
+        }
+
+        this.file = new FileOutputStream(file.toFile());
+        this.out = new DataOutputStream(new BufferedOutputStream(this.file, 1 << 20));
+        writeHeader();
+    }
+
+    // THROWS: UncheckedIOException if writing a full row group failed
+    public synchronized void handle(Match match) throws UncheckedIOException {
+        int start = rows;
+        try {
+            switch (grain) {
+                case MATCH:
+                    addRow(row.set(match, null, null));
+                    break;
+
+                case TEAM:
+                    addRow(row.set(match, match.getBlueTeam(), null));
+                    addRow(row.set(match, match.getRedTeam(), null));
+                    break;
+
+                case PARTICIPANT:
+                    for (Participant participant : match.getParticipants()) {
+                        addRow(row.set(match, participant.getTeam(), participant));
+                    }
+                    break;
+            }
+        }
+        catch (RuntimeException e) { // don't export part of the Match
+            rows = start;
+            throw e;
+        }
+        finally {
+            row.set(null, null, null);
+        }
+        if (rows >= rowGroupSize) writeRowGroup();
+    }
+
+    // writes any buffered rows as a row group, and syncs the file
+    @Override
+    public synchronized void stop() throws UncheckedIOException {
+        writeRowGroup();
+        try {
+            out.flush();
+            file.getFD().sync();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // stops, then closes the file
+    public synchronized void close() throws UncheckedIOException {
+        stop();
+        try {
+            out.close();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        deflater.end();
+    }
+
+    public Column.Level getGrain() {
+        return grain;
+    }
+
+    private void addRow(Column.Row row) {
+        if (rows == capacity()) grow();
+        for (int c = 0; c < columns.length; c++) {
+            if (longs[c] != null) longs[c][rows] = columns[c].projectLong(row);
+            else doubles[c][rows] = columns[c].projectDouble(row);
+        }
+        rows++;
+    }
+
+    private int capacity() {
+        return (longs[0] != null) ? longs[0].length : doubles[0].length;
+    }
+
+    private void grow() {
+        int capacity = capacity() * 2;
+        for (int c = 0; c < columns.length; c++) {
+            if (longs[c] != null) longs[c] = Arrays.copyOf(longs[c], capacity);
+            else doubles[c] = Arrays.copyOf(doubles[c], capacity);
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        out.writeInt(ColumnarFileReader.MAGIC);
+        out.writeInt(ColumnarFileReader.VERSION);
+        out.writeByte(grain.ordinal());
+        out.writeInt(columns.length);
+        for (Column column : columns) {
+            out.writeUTF(column.getName());
+            out.writeByte(column.getType().ordinal());
+        }
+    }
+
+    /* A row group is its number of rows, then for each column: its minimum and maximum (as raw long bits for double columns),
+       and its encoded and compressed lengths, then each column's compressed bytes in turn. */
+    private void writeRowGroup() throws UncheckedIOException {
+        if (rows == 0) return;
+        try {
+            byte[][] chunks = new byte[columns.length][];
+            int[] encodedLengths = new int[columns.length];
+            out.writeInt(rows);
+            for (int c = 0; c < columns.length; c++) {
+                encode(c);
+                encodedLengths[c] = encoded.size();
+                chunks[c] = compress();
+                if (longs[c] != null) {
+                    long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+                    for (int r = 0; r < rows; r++) {
+                        min = Math.min(min, longs[c][r]);
+                        max = Math.max(max, longs[c][r]);
+                    }
+                    out.writeLong(min);
+                    out.writeLong(max);
+                }
+                else {
+                    double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+                    for (int r = 0; r < rows; r++) {
+                        min = Math.min(min, doubles[c][r]);
+                        max = Math.max(max, doubles[c][r]);
+                    }
+                    out.writeLong(Double.doubleToRawLongBits(min));
+                    out.writeLong(Double.doubleToRawLongBits(max));
+                }
+                out.writeInt(encodedLengths[c]);
+                out.writeInt(chunks[c].length);
+            }
+            for (byte[] chunk : chunks) {
+                out.write(chunk);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        finally {
+            rows = 0;
+        }
+    }
+
+    // encodes the buffered values of the column into encoded
+    private void encode(int c) {
+        encoded.reset();
+        if (longs[c] != null) {
+            long previous = 0;
+            for (int r = 0; r < rows; r++) {
+                long delta = longs[c][r] - previous;
+                previous = longs[c][r];
+                // zigzag, so small negative deltas are small too
+                long zigzag = (delta << 1) ^ (delta >> 63);
+                while ((zigzag & ~0x7FL) != 0) {
+                    encoded.write((int) ((zigzag & 0x7F) | 0x80));
+                    zigzag >>>= 7;
+                }
+                encoded.write((int) zigzag);
+            }
+        }
+        else {
+            for (int r = 0; r < rows; r++) {
+                long bits = Double.doubleToRawLongBits(doubles[c][r]);
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    encoded.write((int) (bits >>> shift));
+                }
+            }
+        }
+    }
+
+    // compresses the encoded bytes, returning a copy of exactly the compressed bytes
+    private byte[] compress() {
+        deflater.reset();
+        deflater.setInput(encoded.buffer(), 0, encoded.size());
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+        return Arrays.copyOf(compressed, length);
+    }
+
+    // a ByteArrayOutputStream whose buffer can be read without copying it
+    private static class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+        ExposedByteArrayOutputStream() {
+            super(1 << 16);
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+    An OutputHandler which writes Matches as newline-delimited JSON (one Match per line) to files in a directory,
+    optionally compressed (see FileCompression).
+
+    Files are written through a large buffer, and rotated once they reach the maximum size (in bytes written to disk)
+    or maximum age. Each file is written under a .tmp name and only renamed to its final name once it's complete,
+    so a reader listing the directory never sees a partial file. The file is fsynced every given number of Matches,
+    and when it's completed.
+
+    Files are named <prefix>-<creation time in millis>-<sequence number>.ndjson[compression extension].
+    stop() (called by the Crawler when the crawl ends) completes the current file.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.outputhandlers;
+
+import com.google.common.io.CountingOutputStream;
+import com.merakianalytics.orianna.types.core.match.Match;
+import com.omarathon.riotapicrawler.presets.matchformatters.StringMatchFormatter;
+import com.omarathon.riotapicrawler.presets.outputhandlers.lib.FileCompression;
+import com.omarathon.riotapicrawler.src.lib.handler.OutputHandler;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+public class NdjsonFileOutputHandler extends OutputHandler {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final Path directory;
+    private final String prefix;
+    private final StringMatchFormatter formatter;
+    private final FileCompression compression;
+    private final long maxBytes;
+    private final long maxAgeMillis;
+    private int syncEvery = 1000;
+
+    // the file being written (null if none is open)
+    private Path temporaryFile;
+    private Path finalFile;
+    private FileChannel channel;
+    private CountingOutputStream counter;
+    private Writer writer;
+    private long openedAt;
+    private int unsynced;
+    private long sequence = 0;
+
+    // uncompressed, rotating every 256MB or hour
+    public NdjsonFileOutputHandler(Path directory, String prefix) throws IOException {
+        this(directory, prefix, new StringMatchFormatter(), FileCompression.NONE, 256L << 20, 1, TimeUnit.HOURS);
+    }
+
+    /* INPUTS: the directory to write files to (created if missing), the prefix of the file names, the formatter of Matches into JSON,
+               the compression, and the maximum size (in bytes on disk) and age of a file before it's rotated.
+       THROWS: IllegalArgumentException if:
+        - maxBytes is <1,
+        - maxAge is <1.
+               IOException if the directory can't be created. */
+    public NdjsonFileOutputHandler(Path directory, String prefix, StringMatchFormatter formatter, FileCompression compression,
+                                   long maxBytes, long maxAge, TimeUnit maxAgeUnit) throws IllegalArgumentException, IOException {
+        if (maxBytes < 1) throw new IllegalArgumentException("Nonsensical input for maximum file size (less than 1)");
+        if (maxAge < 1) throw new IllegalArgumentException("Nonsensical input for maximum file age (less than 1)");
+        this.directory = Files.createDirectories(directory);
+        this.prefix = prefix;
+        this.formatter = formatter;
+        this.compression = compression;
+        this.maxBytes = maxBytes;
+        this.maxAgeMillis = maxAgeUnit.toMillis(maxAge);
+    }
+
+    // THROWS: UncheckedIOException if writing the Match, or rotating the file, failed
+    public synchronized void handle(Match match) throws UncheckedIOException {
+        try {
+            if (writer != null && shouldRotate()) complete();
+            if (writer == null) open();
+            formatter.writeTo(match, writer);
+            writer.write('\n');
+            if (++unsynced >= syncEvery) sync();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // completes the current file, so that it's visible to readers
+    @Override
+    public synchronized void stop() throws UncheckedIOException {
+        try {
+            complete();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /* Setter for syncEvery THROWS IllegalArgumentException if:
+        - syncEvery is <1 in which case nonsensical input. */
+    public synchronized void setSyncEvery(int syncEvery) throws IllegalArgumentException {
+        if (syncEvery < 1) throw new IllegalArgumentException("Nonsensical input for Matches between syncs (less than 1)");
+        this.syncEvery = syncEvery;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private boolean shouldRotate() {
+        return counter.getCount() >= maxBytes || System.currentTimeMillis() - openedAt >= maxAgeMillis;
+    }
+
+    private void open() throws IOException {
+        openedAt = System.currentTimeMillis();
+        String name = prefix + "-" + openedAt + "-" + (sequence++) + ".ndjson" + compression.getExtension();
+        finalFile = directory.resolve(name);
+        temporaryFile = directory.resolve(name + ".tmp");
+        channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        // counts the bytes that reach the file, i.e after compression
+        counter = new CountingOutputStream(new BufferedOutputStream(new UnclosableOutputStream(Channels.newOutputStream(channel)), BUFFER_SIZE));
+        writer = new OutputStreamWriter(compression.wrap(counter), StandardCharsets.UTF_8);
+        unsynced = 0;
+    }
+
+    // flushes everything written so far to disk
+    private void sync() throws IOException {
+        writer.flush();
+        channel.force(false);
+        unsynced = 0;
+    }
+
+    // finishes and syncs the current file, then renames it to its final name
+    private void complete() throws IOException {
+        if (writer == null) return;
+        try {
+            // finishes the compressed data and flushes the buffer, but leaves the channel open to be synced
+            writer.close();
+            channel.force(true);
+        }
+        finally {
+            writer = null;
+            channel.close();
+        }
+        try {
+            Files.move(temporaryFile, finalFile, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporaryFile, finalFile);
+        }
+    }
+
+    // keeps the channel open when the streams over it are closed
+    private static final class UnclosableOutputStream extends FilterOutputStream {
+        private UnclosableOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+    A named column of a columnar export (see ColumnarFileOutputHandler), projecting each row to a primitive long or double.
+
+    Rows are at the grain of a match, team or participant. A column's Level is the finest grain it needs,
+    e.g a participant's kills need participant rows, whereas a match's duration can be projected at any grain
+    (and is repeated for each team or participant of the match).
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.outputhandlers.lib;
+
+import com.merakianalytics.orianna.types.core.match.Match;
+import com.merakianalytics.orianna.types.core.match.Participant;
+import com.merakianalytics.orianna.types.core.match.Team;
+
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+public class Column {
+    public enum Type {
+        LONG, DOUBLE
+    }
+
+    // the grain of a row, from coarsest to finest
+    public enum Level {
+        MATCH, TEAM, PARTICIPANT
+    }
+
+    /* The match, team and participant of a row. The team is null at the MATCH level,
+       and the participant is null at the MATCH and TEAM levels. The same Row is reused for every row. */
+    public static class Row {
+        private Match match;
+        private Team team;
+        private Participant participant;
+
+        public Row set(Match match, Team team, Participant participant) {
+            this.match = match;
+            this.team = team;
+            this.participant = participant;
+            return this;
+        }
+
+        public Match getMatch() {
+            return match;
+        }
+
+        public Team getTeam() {
+            return team;
+        }
+
+        public Participant getParticipant() {
+            return participant;
+        }
+    }
+
+    private final String name;
+    private final Type type;
+    private final Level level;
+    private final ToLongFunction<Row> longProjection;
+    private final ToDoubleFunction<Row> doubleProjection;
+
+    private Column(String name, Type type, Level level, ToLongFunction<Row> longProjection, ToDoubleFunction<Row> doubleProjection) {
+        this.name = name;
+        this.type = type;
+        this.level = level;
+        this.longProjection = longProjection;
+        this.doubleProjection = doubleProjection;
+    }
+
+    public static Column ofLong(String name, Level level, ToLongFunction<Row> projection) {
+        return new Column(name, Type.LONG, level, projection, null);
+    }
+
+    public static Column ofDouble(String name, Level level, ToDoubleFunction<Row> projection) {
+        return new Column(name, Type.DOUBLE, level, null, projection);
+    }
+
+    public long projectLong(Row row) {
+        return longProjection.applyAsLong(row);
+    }
+
+    public double projectDouble(Row row) {
+        return doubleProjection.applyAsDouble(row);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+}
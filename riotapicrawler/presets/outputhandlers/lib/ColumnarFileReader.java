@@ -0,0 +1,231 @@
+/*
+    Reads a columnar file written by a ColumnarFileOutputHandler, one row group at a time.
+
+    Each RowGroup exposes the minimum and maximum of each column without reading any column data,
+    so a reader can skip row groups that its query rules out. Columns are only read and decompressed when asked for,
+    and unread columns are seeked past, e.g:
+
+        try (ColumnarFileReader reader = new ColumnarFileReader(path)) {
+            int kills = reader.getColumnIndex("kills");
+            for (ColumnarFileReader.RowGroup group = reader.next(); group != null; group = reader.next()) {
+                if (group.getLongMax(kills) < 10) continue;
+                long[] values = group.readLongs(kills);
+                ...
+            }
+        }
+
+    A row group cut short at the end of the file (e.g by a crash while it was being written) is ignored.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.outputhandlers.lib;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+public class ColumnarFileReader implements Closeable {
+    // "RACF"
+    public static final int MAGIC = 0x52414346;
+    public static final int VERSION = 1;
+
+    private final RandomAccessFile file;
+    private final Column.Level grain;
+    private final List<String> names;
+    private final Column.Type[] types;
+    private final Inflater inflater = new Inflater();
+
+    // the position of the next row group
+    private long nextPosition;
+
+    // THROWS: IOException if the file can't be read, or isn't a columnar file
+    public ColumnarFileReader(Path path) throws IOException {
+        file = new RandomAccessFile(path.toFile(), "r");
+        try {
+            if (file.readInt() != MAGIC) throw new IOException("Not a columnar file: " + path);
+            int version = file.readInt();
+            if (version != VERSION) throw new IOException("Unsupported columnar file version " + version + ": " + path);
+            grain = Column.Level.values()[file.readUnsignedByte()];
+            int count = file.readInt();
+            List<String> names = new ArrayList<>(count);
+            types = new Column.Type[count];
+            for (int c = 0; c < count; c++) {
+                names.add(file.readUTF());
+                types[c] = Column.Type.values()[file.readUnsignedByte()];
+            }
+            this.names = Collections.unmodifiableList(names);
+            nextPosition = file.getFilePointer();
+        }
+        catch (EOFException e) {
+            file.close();
+            throw new IOException("Not a columnar file (too short): " + path, e);
+        }
+        catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    // the next row group, or null if there's none. the previous row group can't be read from afterwards.
+    public RowGroup next() throws IOException {
+        if (nextPosition >= file.length()) return null;
+        file.seek(nextPosition);
+        try {
+            int rows = file.readInt();
+            long[] mins = new long[types.length];
+            long[] maxes = new long[types.length];
+            int[] encodedLengths = new int[types.length];
+            long[] positions = new long[types.length];
+            int[] compressedLengths = new int[types.length];
+            for (int c = 0; c < types.length; c++) {
+                mins[c] = file.readLong();
+                maxes[c] = file.readLong();
+                encodedLengths[c] = file.readInt();
+                compressedLengths[c] = file.readInt();
+            }
+            long position = file.getFilePointer();
+            for (int c = 0; c < types.length; c++) {
+                positions[c] = position;
+                position += compressedLengths[c];
+            }
+            if (position > file.length()) return null;
+            nextPosition = position;
+            return new RowGroup(rows, mins, maxes, positions, encodedLengths, compressedLengths);
+        }
+        catch (EOFException e) {
+            return null;
+        }
+    }
+
+    public Column.Level getGrain() {
+        return grain;
+    }
+
+    public List<String> getColumnNames() {
+        return names;
+    }
+
+    public Column.Type getColumnType(int column) {
+        return types[column];
+    }
+
+    // the index of the named column, or -1 if there's no such column
+    public int getColumnIndex(String name) {
+        return names.indexOf(name);
+    }
+
+    public void close() throws IOException {
+        inflater.end();
+        file.close();
+    }
+
+    public class RowGroup {
+        private final int rows;
+        private final long[] mins;
+        private final long[] maxes;
+        private final long[] positions;
+        private final int[] encodedLengths;
+        private final int[] compressedLengths;
+
+        private RowGroup(int rows, long[] mins, long[] maxes, long[] positions, int[] encodedLengths, int[] compressedLengths) {
+            this.rows = rows;
+            this.mins = mins;
+            this.maxes = maxes;
+            this.positions = positions;
+            this.encodedLengths = encodedLengths;
+            this.compressedLengths = compressedLengths;
+        }
+
+        public int getRowCount() {
+            return rows;
+        }
+
+        // statistics of LONG columns
+
+        public long getLongMin(int column) {
+            return mins[column];
+        }
+
+        public long getLongMax(int column) {
+            return maxes[column];
+        }
+
+        // statistics of DOUBLE columns
+
+        public double getDoubleMin(int column) {
+            return Double.longBitsToDouble(mins[column]);
+        }
+
+        public double getDoubleMax(int column) {
+            return Double.longBitsToDouble(maxes[column]);
+        }
+
+        // THROWS: IllegalArgumentException if the column isn't a LONG column, IOException if it can't be read
+        public long[] readLongs(int column) throws IllegalArgumentException, IOException {
+            if (types[column] != Column.Type.LONG) throw new IllegalArgumentException("Column " + names.get(column) + " isn't a LONG column");
+            byte[] encoded = decompress(column);
+            long[] values = new long[rows];
+            long previous = 0;
+            int i = 0;
+            for (int r = 0; r < rows; r++) {
+                long zigzag = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = encoded[i++];
+                    zigzag |= (long) (b & 0x7F) << shift;
+                    shift += 7;
+                } while ((b & 0x80) != 0);
+                previous += (zigzag >>> 1) ^ -(zigzag & 1);
+                values[r] = previous;
+            }
+            return values;
+        }
+
+        // THROWS: IllegalArgumentException if the column isn't a DOUBLE column, IOException if it can't be read
+        public double[] readDoubles(int column) throws IllegalArgumentException, IOException {
+            if (types[column] != Column.Type.DOUBLE) throw new IllegalArgumentException("Column " + names.get(column) + " isn't a DOUBLE column");
+            byte[] encoded = decompress(column);
+            double[] values = new double[rows];
+            for (int r = 0; r < rows; r++) {
+                long bits = 0;
+                for (int b = 0; b < Long.BYTES; b++) {
+                    bits = (bits << 8) | (encoded[r * Long.BYTES + b] & 0xFF);
+                }
+                values[r] = Double.longBitsToDouble(bits);
+            }
+            return values;
+        }
+
+        private byte[] decompress(int column) throws IOException {
+            byte[] compressed = new byte[compressedLengths[column]];
+            file.seek(positions[column]);
+            file.readFully(compressed);
+            byte[] encoded = new byte[encodedLengths[column]];
+            inflater.reset();
+            inflater.setInput(compressed);
+            try {
+                int length = 0;
+                while (length < encoded.length && !inflater.finished()) {
+                    int inflated = inflater.inflate(encoded, length, encoded.length - length);
+                    if (inflated == 0 && inflater.needsInput()) break;
+                    length += inflated;
+                }
+                if (length != encoded.length) throw new IOException("Column " + names.get(column) + " is truncated");
+            }
+            catch (DataFormatException e) {
+                throw new IOException("Column " + names.get(column) + " is corrupt", e);
+            }
+            return encoded;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+    Commonly exported Columns of matches, teams and participants.
+    At the PARTICIPANT level, the team columns are those of the participant's team.
+
+    Booleans are exported as 1 (true) or 0 (false), and sides by their Orianna ID (100 blue, 200 red).
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.outputhandlers.lib;
+
+import com.omarathon.riotapicrawler.presets.outputhandlers.lib.Column.Level;
+import com.omarathon.riotapicrawler.src.lib.key.MatchKey;
+
+public final class Columns {
+    private Columns() {}
+
+    // match
+
+    public static final Column MATCH_KEY = Column.ofLong("matchKey", Level.MATCH, row -> MatchKey.of(row.getMatch()));
+    public static final Column QUEUE_ID = Column.ofLong("queueId", Level.MATCH, row -> row.getMatch().getQueue().getId());
+    public static final Column SEASON_ID = Column.ofLong("seasonId", Level.MATCH, row -> row.getMatch().getSeason().getId());
+    public static final Column CREATION_TIME = Column.ofLong("creationTime", Level.MATCH, row -> row.getMatch().getCreationTime().getMillis());
+    public static final Column DURATION_SECONDS = Column.ofLong("durationSeconds", Level.MATCH, row -> row.getMatch().getDuration().getStandardSeconds());
+
+    // team
+
+    public static final Column SIDE = Column.ofLong("side", Level.TEAM, row -> row.getTeam().getSide().getId());
+    public static final Column TEAM_WIN = Column.ofLong("teamWin", Level.TEAM, row -> row.getTeam().isWinner() ? 1 : 0);
+    public static final Column FIRST_BLOOD = Column.ofLong("firstBlood", Level.TEAM, row -> row.getTeam().isFirstBloodKiller() ? 1 : 0);
+    public static final Column TOWER_KILLS = Column.ofLong("towerKills", Level.TEAM, row -> row.getTeam().getTowerKills());
+    public static final Column INHIBITOR_KILLS = Column.ofLong("inhibitorKills", Level.TEAM, row -> row.getTeam().getInhibitorKills());
+    public static final Column BARON_KILLS = Column.ofLong("baronKills", Level.TEAM, row -> row.getTeam().getBaronKills());
+    public static final Column DRAGON_KILLS = Column.ofLong("dragonKills", Level.TEAM, row -> row.getTeam().getDragonKills());
+    public static final Column RIFT_HERALD_KILLS = Column.ofLong("riftHeraldKills", Level.TEAM, row -> row.getTeam().getRiftHeraldKills());
+
+    // participant
+
+    public static final Column CHAMPION_ID = Column.ofLong("championId", Level.PARTICIPANT, row -> row.getParticipant().getChampion().getId());
+    public static final Column KILLS = Column.ofLong("kills", Level.PARTICIPANT, row -> row.getParticipant().getStats().getKills());
+    public static final Column DEATHS = Column.ofLong("deaths", Level.PARTICIPANT, row -> row.getParticipant().getStats().getDeaths());
+    public static final Column ASSISTS = Column.ofLong("assists", Level.PARTICIPANT, row -> row.getParticipant().getStats().getAssists());
+    public static final Column CHAMPION_LEVEL = Column.ofLong("championLevel", Level.PARTICIPANT, row -> row.getParticipant().getStats().getChampionLevel());
+    public static final Column GOLD_EARNED = Column.ofLong("goldEarned", Level.PARTICIPANT, row -> row.getParticipant().getStats().getGoldEarned());
+    public static final Column CREEP_SCORE = Column.ofLong("creepScore", Level.PARTICIPANT, row -> row.getParticipant().getStats().getCreepScore());
+    public static final Column VISION_SCORE = Column.ofLong("visionScore", Level.PARTICIPANT, row -> row.getParticipant().getStats().getVisionScore());
+    public static final Column DAMAGE_TO_CHAMPIONS = Column.ofLong("damageToChampions", Level.PARTICIPANT, row -> row.getParticipant().getStats().getDamageDealtToChampions());
+    // (kills + assists) / deaths, taking deaths as at least 1
+    public static final Column KDA = Column.ofDouble("kda", Level.PARTICIPANT, row -> {
+        int deaths = row.getParticipant().getStats().getDeaths();
+        return (row.getParticipant().getStats().getKills() + row.getParticipant().getStats().getAssists()) / (double) Math.max(1, deaths);
+    });
+}
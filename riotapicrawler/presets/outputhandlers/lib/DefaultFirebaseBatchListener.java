@@ -0,0 +1,26 @@
+/*
+    A FirebaseBatchListener which prints retried and dropped batches to System.out.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.outputhandlers.lib;
+
+public class DefaultFirebaseBatchListener implements FirebaseBatchListener {
+    protected String firebasePrefix = "[FIREBASE] ";
+
+    @Override
+    public void onBatchWritten(String path, int size, int attempts) {
+    }
+
+    @Override
+    public void onBatchRetry(String path, int size, int attempt, String reason, long delayMillis) {
+        System.out.println(firebasePrefix + "Failed to write batch of " + size + " Matches to " + path + " (attempt " + attempt + "): " + reason + " - retrying in " + delayMillis + "ms");
+    }
+
+    @Override
+    public void onBatchDropped(String path, int size, int attempts, String reason) {
+        System.out.println(firebasePrefix + "Dropped batch of " + size + " Matches to " + path + " after " + attempts + " attempts: " + reason);
+    }
+}
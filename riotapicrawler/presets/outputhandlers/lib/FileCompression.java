@@ -0,0 +1,43 @@
+/*
+    Compression applied to the files written by a file OutputHandler, as a wrapper of the file's OutputStream
+    and the extension it adds to the file name.
+
+    NONE and GZIP are built in. Others may be plugged in without this project depending on them, e.g zstd with zstd-jni:
+        FileCompression.of(".zst", out -> new ZstdOutputStream(out, 3))
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.outputhandlers.lib;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+public interface FileCompression {
+    FileCompression NONE = of("", out -> out);
+    // sync flushing, so that flushed data may be read (and fsynced) before the file is finished
+    FileCompression GZIP = of(".gz", out -> new GZIPOutputStream(out, 1 << 16, true));
+
+    // wraps the stream writing to the file. closing the returned stream must finish the compressed data and close the input stream.
+    OutputStream wrap(OutputStream out) throws IOException;
+
+    String getExtension();
+
+    interface StreamWrapper {
+        OutputStream wrap(OutputStream out) throws IOException;
+    }
+
+    static FileCompression of(String extension, StreamWrapper wrapper) {
+        return new FileCompression() {
+            public OutputStream wrap(OutputStream out) throws IOException {
+                return wrapper.wrap(out);
+            }
+
+            public String getExtension() {
+                return extension;
+            }
+        };
+    }
+}
@@ -0,0 +1,19 @@
+/*
+    Handles the events of a BatchedFirebaseOutputHandler writing its batches.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.outputhandlers.lib;
+
+public interface FirebaseBatchListener {
+    // when a batch of the given number of Matches was written to the path, after the given number of attempts
+    void onBatchWritten(String path, int size, int attempts);
+
+    // when writing a batch failed with the given reason, and shall be retried after the given delay in milliseconds
+    void onBatchRetry(String path, int size, int attempt, String reason, long delayMillis);
+
+    // when a batch was given up on (not retryable, or out of attempts), so its Matches are lost
+    void onBatchDropped(String path, int size, int attempts, String reason);
+}
@@ -0,0 +1,53 @@
+/*
+    Generates Firebase push IDs on the client, as the Firebase SDKs do, so that many children may be written
+    in a single multi-location update rather than a post each.
+
+    An ID is 20 characters: 8 encoding the time in milliseconds, then 12 random characters. IDs sort chronologically
+    (and, within the same millisecond, in the order they were generated), like the keys Firebase gives posted children.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.outputhandlers.lib;
+
+import java.security.SecureRandom;
+
+public class FirebasePushIds {
+    // in ascending ASCII order, so IDs sort lexicographically
+    private static final String PUSH_CHARS = "-0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ_abcdefghijklmnopqrstuvwxyz";
+
+    private final SecureRandom random = new SecureRandom();
+    private long lastTime = 0;
+    private final int[] lastRandom = new int[12];
+
+    public synchronized String next() {
+        long now = System.currentTimeMillis();
+        boolean sameTime = (now == lastTime);
+        lastTime = now;
+
+        char[] id = new char[20];
+        for (int i = 7; i >= 0; i--) {
+            id[i] = PUSH_CHARS.charAt((int) (now % 64));
+            now /= 64;
+        }
+
+        if (!sameTime) {
+            for (int i = 0; i < 12; i++) {
+                lastRandom[i] = random.nextInt(64);
+            }
+        }
+        else { // same millisecond, so increment the last random characters to keep the order
+            int i = 11;
+            while (i >= 0 && lastRandom[i] == 63) {
+                lastRandom[i] = 0;
+                i--;
+            }
+            if (i >= 0) lastRandom[i]++;
+        }
+        for (int i = 0; i < 12; i++) {
+            id[8 + i] = PUSH_CHARS.charAt(lastRandom[i]);
+        }
+        return new String(id);
+    }
+}
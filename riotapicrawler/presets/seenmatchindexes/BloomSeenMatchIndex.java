@@ -0,0 +1,113 @@
+/*
+    A probabilistic SeenMatchIndex, using a scalable Bloom filter over MatchKeys.
+
+    The filter is a chain of Guava BloomFilters, each twice the capacity of the last with half its false positive rate,
+    so the overall false positive rate stays within the given rate however many Matches are seen. A false positive
+    means a Match that wasn't seen is treated as seen, and so isn't output.
+
+    To keep a fixed memory budget, at most the given number of filters are kept. After that, each new filter is the same
+    size as the last and the oldest filter is forgotten (along with the Matches in it).
+
+    Checkpoints hold the filters themselves, which replace this index's filters when restored.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.seenmatchindexes;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.omarathon.riotapicrawler.src.lib.checkpoint.Checkpointable;
+import com.omarathon.riotapicrawler.src.lib.handler.SeenMatchIndex;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+public class BloomSeenMatchIndex implements SeenMatchIndex, Checkpointable {
+    // each filter has this fraction of the previous filter's false positive rate
+    private static final double TIGHTENING_RATIO = 0.5;
+
+    private final Deque<BloomFilter<Long>> filters = new ArrayDeque<>();
+    private final int maxFilters;
+    private long nextCapacity;
+    private double nextFalsePositiveRate;
+    // number of Matches put into the newest filter, and how many it may hold before adding another
+    private long newestSize = 0;
+    private long newestCapacity = 0;
+
+    public BloomSeenMatchIndex() {
+        this(100000, 0.001, 8);
+    }
+
+    /* INPUTS: the capacity of the first filter, the overall false positive rate, and the maximum number of filters to keep.
+       THROWS: IllegalArgumentException if the capacity or maximum filters is <1, or the false positive rate isn't within (0, 1). */
+    public BloomSeenMatchIndex(long initialCapacity, double falsePositiveRate, int maxFilters) throws IllegalArgumentException {
+        if (initialCapacity < 1) throw new IllegalArgumentException("Nonsensical input for initial capacity (less than 1)");
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) throw new IllegalArgumentException("False positive rate must be within (0, 1)!");
+        if (maxFilters < 1) throw new IllegalArgumentException("Nonsensical input for maximum filters (less than 1)");
+        this.maxFilters = maxFilters;
+        this.nextCapacity = initialCapacity;
+        // the rates form a geometric series, which sums to the given rate
+        this.nextFalsePositiveRate = falsePositiveRate * (1 - TIGHTENING_RATIO);
+        addFilter();
+    }
+
+    public synchronized boolean markSeen(long matchKey) {
+        if (wasSeen(matchKey)) return false;
+        if (newestSize >= newestCapacity) addFilter();
+        filters.peekLast().put(matchKey);
+        newestSize++;
+        return true;
+    }
+
+    public synchronized boolean wasSeen(long matchKey) {
+        for (BloomFilter<Long> filter : filters) {
+            if (filter.mightContain(matchKey)) return true;
+        }
+        return false;
+    }
+
+    public synchronized void writeCheckpoint(DataOutputStream out) throws IOException {
+        out.writeLong(nextCapacity);
+        out.writeDouble(nextFalsePositiveRate);
+        out.writeLong(newestSize);
+        out.writeLong(newestCapacity);
+        out.writeInt(filters.size());
+        for (BloomFilter<Long> filter : filters) {
+            filter.writeTo(out);
+        }
+    }
+
+    public synchronized void readCheckpoint(DataInputStream in) throws IOException {
+        nextCapacity = in.readLong();
+        nextFalsePositiveRate = in.readDouble();
+        newestSize = in.readLong();
+        newestCapacity = in.readLong();
+        int size = in.readInt();
+        filters.clear();
+        for (int i = 0; i < size; i++) {
+            filters.addLast(BloomFilter.readFrom(in, Funnels.longFunnel()));
+        }
+        // the checkpoint may be from an index with a larger budget
+        while (filters.size() > maxFilters) {
+            filters.pollFirst();
+        }
+    }
+
+    private void addFilter() {
+        filters.addLast(BloomFilter.create(Funnels.longFunnel(), nextCapacity, nextFalsePositiveRate));
+        newestSize = 0;
+        newestCapacity = nextCapacity;
+        if (filters.size() > maxFilters) { // at the memory budget, so forget the oldest filter and stop growing
+            filters.pollFirst();
+        }
+        else if (filters.size() < maxFilters) {
+            nextCapacity *= 2;
+            nextFalsePositiveRate *= TIGHTENING_RATIO;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+    An exact SeenMatchIndex over primitive long MatchKeys, using open-addressing hash tables.
+
+    Remembers at least the given number of most recently seen Matches. Matches are stored in two generations:
+    once the current generation is full it becomes the old generation and the previous old generation is forgotten,
+    so memory stays fixed at about 32 bytes per remembered Match, with no allocation after construction.
+
+    Checkpoints hold the remembered MatchKeys, oldest generation first, which are marked seen again when restored.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.seenmatchindexes;
+
+import com.omarathon.riotapicrawler.src.lib.checkpoint.Checkpointable;
+import com.omarathon.riotapicrawler.src.lib.handler.SeenMatchIndex;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+public class LongHashSeenMatchIndex implements SeenMatchIndex, Checkpointable {
+    // 0 marks an empty slot, so keys are stored with this bit set (MatchKeys never use the sign bit)
+    private static final long OCCUPIED = Long.MIN_VALUE;
+
+    private final int generationCapacity;
+    private final int mask;
+    private long[] current;
+    private long[] old;
+    private int currentSize = 0;
+
+    public LongHashSeenMatchIndex() {
+        this(1000000);
+    }
+
+    // THROWS: IllegalArgumentException if the number of Matches to remember is <1 or too large to index
+    public LongHashSeenMatchIndex(int rememberedMatches) throws IllegalArgumentException {
+        if (rememberedMatches < 1) throw new IllegalArgumentException("Nonsensical input for number of Matches to remember (less than 1)");
+        if (rememberedMatches > (1 << 29)) throw new IllegalArgumentException("Too many Matches to remember (more than 2^29)");
+        this.generationCapacity = rememberedMatches;
+        // keep each table at most half full, so probes stay short
+        int tableSize = Integer.highestOneBit(rememberedMatches * 2 - 1) << 1;
+        this.mask = tableSize - 1;
+        this.current = new long[tableSize];
+        this.old = new long[tableSize];
+    }
+
+    public synchronized boolean markSeen(long matchKey) {
+        long stored = matchKey | OCCUPIED;
+        if (contains(old, stored)) return false;
+        int slot = slot(current, stored);
+        if (current[slot] == stored) return false;
+
+        if (currentSize == generationCapacity) { // current generation is full, so age it and start a new one
+            long[] forgotten = old;
+            old = current;
+            current = forgotten;
+            Arrays.fill(current, 0L);
+            currentSize = 0;
+            slot = slot(current, stored);
+        }
+        current[slot] = stored;
+        currentSize++;
+        return true;
+    }
+
+    public synchronized boolean wasSeen(long matchKey) {
+        long stored = matchKey | OCCUPIED;
+        return contains(current, stored) || contains(old, stored);
+    }
+
+    public synchronized void writeCheckpoint(DataOutputStream out) throws IOException {
+        out.writeInt(count(old) + currentSize);
+        writeKeys(out, old);
+        writeKeys(out, current);
+    }
+
+    public void readCheckpoint(DataInputStream in) throws IOException {
+        int keys = in.readInt();
+        for (int i = 0; i < keys; i++) {
+            markSeen(in.readLong());
+        }
+    }
+
+    private static int count(long[] table) {
+        int count = 0;
+        for (long stored : table) {
+            if (stored != 0L) count++;
+        }
+        return count;
+    }
+
+    private static void writeKeys(DataOutputStream out, long[] table) throws IOException {
+        for (long stored : table) {
+            if (stored != 0L) out.writeLong(stored & ~OCCUPIED);
+        }
+    }
+
+    private boolean contains(long[] table, long stored) {
+        return table[slot(table, stored)] == stored;
+    }
+
+    // the slot holding the key, or the empty slot where it would be inserted
+    private int slot(long[] table, long stored) {
+        int slot = mix(stored) & mask;
+        while (table[slot] != 0L && table[slot] != stored) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // spreads the bits of the key, since game IDs are mostly sequential
+    private static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
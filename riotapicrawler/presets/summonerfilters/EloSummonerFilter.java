@@ -13,7 +13,7 @@ package com.omarathon.riotapicrawler.presets.summonerfilters;
 import com.merakianalytics.orianna.types.core.summoner.Summoner;
 import com.omarathon.riotapicrawler.presets.util.EstimatingGhostFilter;
 import com.omarathon.riotapicrawler.presets.util.Rank;
-import com.omarathon.riotapicrawler.presets.util.estimators.lib.SummonerEloEstimator;
+import com.omarathon.riotapicrawler.presets.util.estimators.lib.Estimator;
 import com.omarathon.riotapicrawler.src.lib.filter.SummonerFilter;
 
 import java.util.Set;
@@ -23,7 +23,8 @@ public class EloSummonerFilter extends SummonerFilter {
 
     private EloSummonerFilter() { }
 
-    public EloSummonerFilter(Set<Rank> filterRanks, SummonerEloEstimator estimator){
+    // the estimator may be any SummonerEloEstimator, or a MaxSummonerEloEstimator
+    public EloSummonerFilter(Set<Rank> filterRanks, Estimator<Summoner, Rank> estimator){
         this.filter = new EstimatingGhostFilter<>(filterRanks, estimator);
     }
 
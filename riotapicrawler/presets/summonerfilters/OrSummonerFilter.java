@@ -0,0 +1,36 @@
+/*
+    A SummonerFilter that accepts Summoners if any of the given SummonerFilters accept them.
+
+    The filters are evaluated cheapest and most decisive first, as measured while crawling (see CompositeFilter),
+    so the order they're given in doesn't matter. Their statistics are available via getStatistics.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+*/
+
+package com.omarathon.riotapicrawler.presets.summonerfilters;
+
+import com.merakianalytics.orianna.types.core.summoner.Summoner;
+import com.omarathon.riotapicrawler.src.lib.filter.OrFilter;
+import com.omarathon.riotapicrawler.src.lib.filter.FilterStatistics;
+import com.omarathon.riotapicrawler.src.lib.filter.SummonerFilter;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class OrSummonerFilter extends SummonerFilter {
+    private OrFilter<Summoner> filter;
+
+    // THROWS: IllegalArgumentException if there are no filters
+    public OrSummonerFilter(SummonerFilter... filters) throws IllegalArgumentException {
+        this.filter = new OrFilter<>(Arrays.asList(filters));
+    }
+
+    public boolean filter(Summoner s) {
+        return filter.filter(s);
+    }
+
+    public List<FilterStatistics> getStatistics() {
+        return filter.getStatistics();
+    }
+}
@@ -13,50 +13,69 @@ import com.merakianalytics.orianna.types.common.Tier;
 import com.merakianalytics.orianna.types.core.league.LeagueEntry;
 import com.merakianalytics.orianna.types.core.league.LeaguePositions;
 import com.merakianalytics.orianna.types.core.summoner.Summoner;
+import com.omarathon.riotapicrawler.src.lib.scheduler.RequestScheduler;
 
-import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 
 public class EloHelper {
     // Obtains a list of Ranks corresponding to different ranks on different league queues
     // for a Summoner. the rank is null if it was failed to be obtained.
     public static Set<Rank> getElos(Summoner s, Set<Queue> queueTypes) {
-        // obtain league positions
-        LeaguePositions leaguePositions = s.getLeaguePositions();
-        // iterate through each league position to find the league entry within the specified queueTypes
-        List<LeagueEntry> validEntries = new ArrayList<>();
-        for (LeagueEntry leagueEntry : leaguePositions) {
-            Queue queue = null;
-            try {
-                queue = leagueEntry.getQueue();
-            }
-            catch (IllegalArgumentException e) {
-                continue;
-            }
-            if (queueTypes.contains(queue)) {
-               validEntries.add(leagueEntry);
-            }
+        Set<Rank> ranks = new HashSet<>();
+        // for each LeagueEntry within the specified queueTypes, add to ranks the corresponding Rank (is null if it can't be obtained)
+        for (LeagueEntry leagueEntry : getLeaguePositions(s)) {
+            if (!inQueues(leagueEntry, queueTypes)) continue;
+            int code = codeOf(leagueEntry);
+            ranks.add((code < 0) ? null : Rank.fromCode(code));
         }
+        return ranks;
+    }
 
-        Set<Rank> ranks = new HashSet<>();
-        // for each LeagueEntry, add to ranks the corresponding Rank (is null if it can't be obtained)
-        for (LeagueEntry leagueEntry : validEntries) {
-            Tier tier = null;
-            Division division = null;
-            try { // attempt to obtain tier and division for leagueEntry. may throw some errors as Orianna may not have been updated for IRON tiers.
-                tier = leagueEntry.getTier();
-                division = leagueEntry.getDivision();
-            }
-            catch (Exception e) {
-                ranks.add(null);
-                continue;
-            }
-            ranks.add(new Rank(tier, division));
+    // The maximum Rank of a Summoner across the given league queues, like getMaxRank(getElos(s, queueTypes)) but without building any sets.
+    // Returns null if they have no rank on the given queues.
+    public static Rank getMaxRank(Summoner s, Set<Queue> queueTypes) {
+        int maxCode = -1;
+        for (LeagueEntry leagueEntry : getLeaguePositions(s)) {
+            if (inQueues(leagueEntry, queueTypes)) maxCode = Math.max(maxCode, codeOf(leagueEntry));
         }
+        return (maxCode < 0) ? null : Rank.fromCode(maxCode);
+    }
 
-        return ranks;
+    // the league positions of a Summoner, loaded
+    public static LeaguePositions getLeaguePositions(Summoner s) {
+        // obtain league positions, behind any crawl-critical requests since the summoner may never be crawled,
+        // sharing them with any other estimator or filter looking up the same summoner at the same time
+        return RequestScheduler.shared().call(s.getPlatform(), RequestScheduler.LEAGUE_POSITIONS, s.getId(), RequestScheduler.Priority.LOW, () -> {
+            LeaguePositions positions = s.getLeaguePositions();
+            positions.load();
+            return positions;
+        });
+    }
+
+    private static boolean inQueues(LeagueEntry leagueEntry, Set<Queue> queueTypes) {
+        Queue queue = getQueue(leagueEntry);
+        return queue != null && queueTypes.contains(queue);
+    }
+
+    // the queue of a LeagueEntry, or null if Orianna doesn't know it
+    public static Queue getQueue(LeagueEntry leagueEntry) {
+        try {
+            return leagueEntry.getQueue();
+        }
+        catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // the code of the Rank of a LeagueEntry, or -1 if it can't be obtained
+    public static int codeOf(LeagueEntry leagueEntry) {
+        try { // attempt to obtain tier and division for leagueEntry. may throw some errors as Orianna may not have been updated for IRON tiers.
+            return Rank.code(leagueEntry.getTier(), leagueEntry.getDivision());
+        }
+        catch (Exception e) {
+            return -1;
+        }
     }
 
     // returns true if the input Ranks are valid, otherwise false. they're invalid if there's no ranks in the set, or if they'll all null.
@@ -78,28 +97,18 @@ public class EloHelper {
     public static Rank getMaxRank(Set<Rank> ranks) throws IllegalArgumentException {
         if (!checkRanks(ranks)) throw new IllegalArgumentException("Input ranks is either empty or entirely null");
 
-        // Firstly obtains the maximum tier out of the ranks
-        Tier maxTier = getMaxTier(ranks);
-
-        // Now finds the maximum division within this max tier by getMaxDivision, using the above maxTier as the focus tier
-        Division maxDivision = getMaxDivision(ranks, maxTier);
-
-        return new Rank(maxTier, maxDivision);
+        // codes order ranks by tier then division, so the maximum rank has the maximum code
+        int maxCode = -1;
+        for (Rank rank : ranks) {
+            if (rank != null) maxCode = Math.max(maxCode, rank.getCode());
+        }
+        return Rank.fromCode(maxCode);
     }
 
     // Given a set of input Ranks, will return the maximum tier (e.g DIAMOND > PLATINUM) out of the input Ranks
     // Throws IllegalArgumentException if input set of ranks is empty or they're all null
     public static Tier getMaxTier(Set<Rank> ranks) throws IllegalArgumentException {
-        if (!checkRanks(ranks)) throw new IllegalArgumentException("Input ranks is either empty or entirely null");
-
-        Tier maxTier = null;
-        for (Rank summonerRank : ranks) {
-            Tier summonerTier = summonerRank.getTier();
-            if (maxTier == null) maxTier = summonerTier;
-            // this tier > max tier means replace max tier with this tier
-            else if (summonerTier.compareTo(maxTier) > 0) maxTier = summonerTier;
-        }
-        return maxTier;
+        return getMaxRank(ranks).getTier();
     }
 
     // Given a set of input Ranks, and a chosen focus tier,
@@ -109,17 +118,11 @@ public class EloHelper {
     public static Division getMaxDivision(Set<Rank> ranks, Tier focusTier) throws IllegalArgumentException {
         if (!checkRanks(ranks)) throw new IllegalArgumentException("Input ranks is either empty or entirely null");
 
-        Division maxDivision = null;
-
+        int maxCode = -1;
         for (Rank rank : ranks) {
-            // check if this rank is of the max (most common) tier
-            if (rank.getTier().equals(focusTier)) {
-                Division division = rank.getDivision();
-                if (maxDivision == null) maxDivision = division;
-                else if (division.compareTo(maxDivision) > 0) maxDivision = division;
-            }
+            // check if this rank is of the focus tier
+            if (rank != null && rank.getTier() == focusTier) maxCode = Math.max(maxCode, rank.getCode());
         }
-        // return division at the given division id
-        return maxDivision;
+        return (maxCode < 0) ? null : Rank.fromCode(maxCode).getDivision();
     }
 }
@@ -1,18 +1,20 @@
 package com.omarathon.riotapicrawler.presets.util;
 
 import com.merakianalytics.orianna.types.core.GhostObject;
-import com.omarathon.riotapicrawler.presets.util.estimators.lib.MemorisingEstimator;
+import com.omarathon.riotapicrawler.presets.util.estimators.lib.Estimator;
 import com.omarathon.riotapicrawler.src.lib.filter.GhostFilter;
 
 import java.util.Set;
 
 public class EstimatingGhostFilter<T extends GhostObject, E> extends GhostFilter<T> {
     private Set<E> allowedEstimates;
-    private MemorisingEstimator<T, E> estimator;
+    private Estimator<T, E> estimator;
 
     private EstimatingGhostFilter() { }
 
-    public EstimatingGhostFilter(Set<E> allowedEstimates, MemorisingEstimator<T, E> estimator) {
+    // verdicts are cached by the same key as the estimator's estimates
+    public EstimatingGhostFilter(Set<E> allowedEstimates, Estimator<T, E> estimator) {
+        super(estimator::getKey);
         this.allowedEstimates = allowedEstimates;
         this.estimator = estimator;
     }
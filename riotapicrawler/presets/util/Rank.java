@@ -2,6 +2,10 @@
     A class that represents ranks in League of Legends,
     which consist of a tier (e.g PLATINUM) and a division (e.g III)
 
+    Each rank also has a code, a small int that orders ranks from worst to best (UNRANKED V is 0, CHALLENGER I is CODES - 1),
+    so ranks may be compared, counted in int arrays (e.g a RankHistogram) and stored without allocating.
+    Rank.of and Rank.fromCode return a single shared instance of each rank.
+
     Author: Omar Tanner (omarathon)
     Copyright © 2019 omarathon
  */
@@ -12,14 +16,73 @@ import com.merakianalytics.orianna.types.common.Division;
 import com.merakianalytics.orianna.types.common.Tier;
 
 public class Rank {
+    public static final int DIVISIONS = Division.values().length;
+    // number of distinct ranks, so codes are from 0 to CODES - 1
+    public static final int CODES = Tier.values().length * DIVISIONS;
+
+    // the tier and division at each level (worst first), and the level of each tier and division by ordinal,
+    // since Orianna declares tiers alphabetically and divisions best first
+    private static final Tier[] TIERS_BY_LEVEL = new Tier[Tier.values().length];
+    private static final Division[] DIVISIONS_BY_LEVEL = new Division[DIVISIONS];
+    private static final int[] TIER_LEVELS = new int[Tier.values().length];
+    private static final int[] DIVISION_LEVELS = new int[DIVISIONS];
+
+    private static final Rank[] INTERNED = new Rank[CODES];
+
+    static {
+        for (Tier tier : Tier.values()) {
+            for (Tier other : Tier.values()) {
+                if (tier.compare(other) > 0) TIER_LEVELS[tier.ordinal()]++;
+            }
+            TIERS_BY_LEVEL[TIER_LEVELS[tier.ordinal()]] = tier;
+        }
+        for (Division division : Division.values()) {
+            for (Division other : Division.values()) {
+                if (division.compare(other) > 0) DIVISION_LEVELS[division.ordinal()]++;
+            }
+            DIVISIONS_BY_LEVEL[DIVISION_LEVELS[division.ordinal()]] = division;
+        }
+        for (int code = 0; code < CODES; code++) {
+            INTERNED[code] = new Rank(TIERS_BY_LEVEL[code / DIVISIONS], DIVISIONS_BY_LEVEL[code % DIVISIONS]);
+        }
+    }
+
     // store tier and division
     private Tier tier;
     private Division division;
+    private int code;
 
     // Constructor sets the division and tier
     public Rank(Tier tier, Division division) {
         this.tier = tier;
         this.division = division;
+        this.code = code(tier, division);
+    }
+
+    // the shared instance of the given rank
+    public static Rank of(Tier tier, Division division) {
+        return INTERNED[code(tier, division)];
+    }
+
+    /* the shared instance of the rank with the given code.
+       THROWS: IllegalArgumentException if code is <0 or >=CODES. */
+    public static Rank fromCode(int code) throws IllegalArgumentException {
+        if (code < 0 || code >= CODES) throw new IllegalArgumentException("Nonsensical input for code (not between 0 and " + (CODES - 1) + ")");
+        return INTERNED[code];
+    }
+
+    // the code of the given rank, without making a Rank
+    public static int code(Tier tier, Division division) {
+        return TIER_LEVELS[tier.ordinal()] * DIVISIONS + DIVISION_LEVELS[division.ordinal()];
+    }
+
+    // the level of a tier, from 0 (UNRANKED) up, which codes are ordered by first
+    public static int tierLevel(Tier tier) {
+        return TIER_LEVELS[tier.ordinal()];
+    }
+
+    public static Tier tierAtLevel(int level) {
+        return TIERS_BY_LEVEL[level];
     }
 
     // getter for tier
@@ -32,17 +95,21 @@ public class Rank {
         return division;
     }
 
+    public int getCode() {
+        return code;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (!(o instanceof Rank)) return false;
 
         Rank r = (Rank) o;
-        return (r.getTier().equals(tier) && r.getDivision().equals(division));
+        return r.code == code;
     }
 
     @Override
     public int hashCode() {
-        return tier.ordinal() * Division.values().length + division.ordinal();
+        return code;
     }
 
     public String toString() {
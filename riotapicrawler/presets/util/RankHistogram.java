@@ -0,0 +1,77 @@
+/*
+    Counts Ranks by their codes in a fixed-size int array, e.g the ranks of a match's participants,
+    so they can be combined without allocating. Reusable by clearing it, though not thread-safe.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+ */
+
+package com.omarathon.riotapicrawler.presets.util;
+
+import com.merakianalytics.orianna.types.common.Division;
+import com.merakianalytics.orianna.types.common.Tier;
+
+import java.util.Arrays;
+
+public class RankHistogram {
+    private final int[] counts = new int[Rank.CODES];
+    private int size = 0;
+
+    public void add(Rank rank) {
+        add(rank.getCode());
+    }
+
+    public void add(Tier tier, Division division) {
+        add(Rank.code(tier, division));
+    }
+
+    public void add(int code) {
+        counts[code]++;
+        size++;
+    }
+
+    public void clear() {
+        if (size == 0) return;
+        Arrays.fill(counts, 0);
+        size = 0;
+    }
+
+    // number of ranks with the given code
+    public int count(int code) {
+        return counts[code];
+    }
+
+    // number of ranks in the given tier, by its level (see Rank.tierLevel)
+    public int tierCount(int tierLevel) {
+        int count = 0;
+        for (int code = tierLevel * Rank.DIVISIONS, end = code + Rank.DIVISIONS; code < end; code++) {
+            count += counts[code];
+        }
+        return count;
+    }
+
+    // number of ranks counted
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // the code of the best rank counted, or -1 if it's empty
+    public int maxCode() {
+        if (size == 0) return -1;
+        int code = Rank.CODES - 1;
+        while (counts[code] == 0) code--;
+        return code;
+    }
+
+    // the code of the best rank counted in the given tier (by level), or -1 if there's none
+    public int maxCodeInTier(int tierLevel) {
+        for (int code = tierLevel * Rank.DIVISIONS + Rank.DIVISIONS - 1; code >= tierLevel * Rank.DIVISIONS; code--) {
+            if (counts[code] > 0) return code;
+        }
+        return -1;
+    }
+}
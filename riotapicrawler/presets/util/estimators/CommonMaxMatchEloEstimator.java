@@ -1,5 +1,13 @@
 /*
     Uses the CommonMaxRankCombiner to obtain a CommonMax estimate for the elo of a game.
+
+    By default the participants' ranks are looked up one by one. Given an Executor (or a number of threads) and a deadline,
+    they're looked up concurrently instead, and the ranks found by the deadline are combined into a partial estimate
+    (e.g if a lookup is stuck behind the rate limit), reported with its coverage by estimateWithCoverage and estimateAsync.
+    Estimates covering less than the minimum coverage count as no estimate. Only complete estimates are memorised
+    (nor are any filter verdicts reached from partial ones, see Memorisation), so a match whose lookups were cut short
+    (e.g by a stall behind the rate limit) is estimated again next time.
+    Lookups still running at the deadline carry on, so their ranks are memorised by the summoner estimator (e.g in the RankStore) for later matches.
  */
 
 package com.omarathon.riotapicrawler.presets.util.estimators;
@@ -8,44 +16,212 @@ import com.merakianalytics.orianna.types.core.match.Match;
 import com.merakianalytics.orianna.types.core.match.Participant;
 import com.merakianalytics.orianna.types.core.summoner.Summoner;
 import com.omarathon.riotapicrawler.presets.util.Rank;
+import com.omarathon.riotapicrawler.presets.util.RankHistogram;
 import com.omarathon.riotapicrawler.presets.util.estimators.lib.CommonMaxRankCombiner;
+import com.omarathon.riotapicrawler.presets.util.estimators.lib.Estimator;
 import com.omarathon.riotapicrawler.presets.util.estimators.lib.MatchEloEstimator;
-import com.omarathon.riotapicrawler.presets.util.estimators.lib.SummonerEloEstimator;
+import com.omarathon.riotapicrawler.presets.util.estimators.lib.RankEstimate;
+import com.omarathon.riotapicrawler.src.lib.Memorisation;
+import com.omarathon.riotapicrawler.src.lib.scheduler.RequestScheduler;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 // estimates ranks based upon input matches, working across the league queues put in the constructor
 public class CommonMaxMatchEloEstimator extends MatchEloEstimator {
+    // ends the estimates whose deadlines pass, shared by every concurrent estimator
+    private static final ScheduledExecutorService deadlines = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "elo-estimator-deadlines");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // reused by each serial estimate on a thread
+    private static final ThreadLocal<RankHistogram> histograms = ThreadLocal.withInitial(RankHistogram::new);
+
     private CommonMaxRankCombiner rankCombiner;
-    private SummonerEloEstimator summonerEloEstimator;
+    private Estimator<Summoner, Rank> summonerEloEstimator;
+    // runs the participants' lookups, or null if they're looked up one by one
+    private Executor executor;
+    private long deadlineNanos;
+    private double minCoverage;
 
-    // input a SummonerEloEstimator to compute the elo for each summoner, then shall take the Common-Max combination of such ranks obtained from that estimator.
-    public CommonMaxMatchEloEstimator(SummonerEloEstimator summonerEloEstimator) {
+    private final LongAdder estimates = new LongAdder();
+    private final LongAdder partialEstimates = new LongAdder();
+
+    // input a summoner elo estimator (e.g a MaxSummonerEloEstimator, or any SummonerEloEstimator) to compute the elo for each summoner, then shall take the Common-Max combination of such ranks obtained from that estimator.
+    public CommonMaxMatchEloEstimator(Estimator<Summoner, Rank> summonerEloEstimator) {
         super();
         this.summonerEloEstimator = summonerEloEstimator;
         this.rankCombiner = new CommonMaxRankCombiner();
     }
 
+    /* INPUTS: the estimator for each summoner, the Executor to look up the participants on concurrently,
+               how long after an estimate starts its ranks are combined (and its unit), and the least coverage of an estimate.
+       THROWS: IllegalArgumentException if:
+        - deadline is <1,
+        - minCoverage is <0 or >1. */
+    public CommonMaxMatchEloEstimator(Estimator<Summoner, Rank> summonerEloEstimator, Executor executor, long deadline, TimeUnit unit, double minCoverage) throws IllegalArgumentException {
+        this(summonerEloEstimator);
+        if (deadline < 1) throw new IllegalArgumentException("Nonsensical input for deadline (less than 1)");
+        if (minCoverage < 0 || minCoverage > 1) throw new IllegalArgumentException("Nonsensical input for minCoverage (not between 0 and 1)");
+        this.executor = executor;
+        this.deadlineNanos = unit.toNanos(deadline);
+        this.minCoverage = minCoverage;
+    }
+
+    /* As above, looking up the participants on the given number of (daemon) threads of the estimator's own.
+       THROWS: IllegalArgumentException if:
+        - threads is <1,
+        - deadline is <1,
+        - minCoverage is <0 or >1. */
+    public CommonMaxMatchEloEstimator(Estimator<Summoner, Rank> summonerEloEstimator, int threads, long deadline, TimeUnit unit, double minCoverage) throws IllegalArgumentException {
+        this(summonerEloEstimator, newLookupExecutor(threads), deadline, unit, minCoverage);
+    }
+
     // estimates a Match's "Rank" by considering its players ranks across the given League Queues. Returns null if failed to estimate.
+    // a partial estimate isn't memorised
     public Rank estimate(Match match) {
-        // obtain set of ranks of the players, where for each player we obtain the maximum rank out of the ones in the given queue types
-        Set<Rank> ranks = new HashSet<>();
+        RankEstimate estimate = estimateWithCoverage(match);
+        if (!estimate.isComplete()) Memorisation.doNotMemorise();
+        return rankOf(estimate);
+    }
+
+    /* Estimates the Match's Rank (without memorising it), along with how many of its participants were looked up in time.
+       If interrupted while waiting for the lookups, the ranks found so far are combined and the interrupt is preserved. */
+    public RankEstimate estimateWithCoverage(Match match) {
+        if (executor == null) return estimateSerially(match);
+        Estimation estimation = start(match);
+        try {
+            return estimation.result.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return estimation.end();
+        }
+        catch (ExecutionException e) { // never completed exceptionally, as failed lookups count as unanswered
+            throw new IllegalStateException(e.getCause());
+        }
+    }
 
-        // iterate over each Participant in the match, to obtain the Summoner for each player.
+    // like estimateWithCoverage, but completes the estimate in the background (straight away if the lookups are serial)
+    public CompletableFuture<RankEstimate> estimateAsync(Match match) {
+        if (executor == null) return CompletableFuture.completedFuture(estimateSerially(match));
+        return start(match).result;
+    }
+
+    // number of estimates made, and how many of those were partial
+    public long getEstimates() {
+        return estimates.sum();
+    }
+
+    public long getPartialEstimates() {
+        return partialEstimates.sum();
+    }
+
+    private RankEstimate estimateSerially(Match match) {
+        // obtain the ranks of the players, where for each player we obtain the maximum rank out of the ones in the given queue types
+        RankHistogram ranks = histograms.get();
+        ranks.clear();
+        int participants = 0;
+
+        // iterate over each Participant in the match, to obtain the rank of each player.
         for (Participant participant : match.getParticipants()) {
-            Summoner summoner = participant.getSummoner();
-            if (!summoner.exists()) continue;
-            Rank summonerRank = summonerEloEstimator.getEstimate(summoner);
+            participants++;
+            Rank summonerRank = rankOf(participant);
             if (summonerRank != null) ranks.add(summonerRank);
         }
+        return combine(ranks, participants, participants);
+    }
 
-        try {
-            // now use the CommonMaxRankCombiner to combine the ranks of the players into a common-max Rank
-            return rankCombiner.combine(ranks);
+    // starts looking up each participant concurrently, ending the estimation once they've all answered or the deadline passes
+    private Estimation start(Match match) {
+        List<Participant> participants = match.getParticipants();
+        Estimation estimation = new Estimation(participants.size());
+        for (Participant participant : participants) {
+            try {
+                CompletableFuture.supplyAsync(() -> rankOf(participant), executor).whenComplete(estimation::answer);
+            }
+            catch (RejectedExecutionException e) { // the executor is saturated or shut down, so the participant goes unanswered
+                estimation.answer(null, e);
+            }
         }
-        catch (IllegalArgumentException e) { // ranks was empty, so cannot estimate without any context - return null for no estimate
-            return null;
+        ScheduledFuture<?> deadline = deadlines.schedule(estimation::end, deadlineNanos, TimeUnit.NANOSECONDS);
+        estimation.result.whenComplete((estimate, failure) -> deadline.cancel(false));
+        return estimation;
+    }
+
+    // the Rank of the estimate, or null if too little of the match was looked up in time to trust it
+    private Rank rankOf(RankEstimate estimate) {
+        if (estimate.getCoverage() < minCoverage) return null;
+        return estimate.getRank();
+    }
+
+    // the rank of the participant's Summoner, or null if they don't exist or have no rank
+    private Rank rankOf(Participant participant) {
+        Summoner summoner = participant.getSummoner();
+        // the summoner may be being looked up by another estimator or filter, in which case its result is shared
+        boolean exists = RequestScheduler.shared().call(summoner.getPlatform(), RequestScheduler.SUMMONER, summoner.getId(), RequestScheduler.Priority.LOW, summoner::exists);
+        if (!exists) return null;
+        return summonerEloEstimator.getEstimate(summoner);
+    }
+
+    private RankEstimate combine(RankHistogram ranks, int participants, int answered) {
+        // now use the CommonMaxRankCombiner to combine the ranks of the players into a common-max Rank
+        // no ranks means we cannot estimate without any context - null for no estimate
+        Rank rank = ranks.isEmpty() ? null : rankCombiner.combine(ranks);
+        estimates.increment();
+        if (answered < participants) partialEstimates.increment();
+        return new RankEstimate(rank, participants, answered, ranks.size());
+    }
+
+    private static Executor newLookupExecutor(int threads) throws IllegalArgumentException {
+        if (threads < 1) throw new IllegalArgumentException("Nonsensical input for threads (less than 1)");
+        AtomicInteger created = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "elo-estimator-" + created.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // the ranks of a match's participants looked up so far, combined into its estimate at the end
+    private final class Estimation {
+        private final CompletableFuture<RankEstimate> result = new CompletableFuture<>();
+        private final RankHistogram ranks = new RankHistogram();
+        private final int participants;
+        private int answered = 0;
+        private int failed = 0;
+
+        private Estimation(int participants) {
+            this.participants = participants;
+            if (participants == 0) end();
+        }
+
+        // a lookup's rank, or why it failed (in which case it's unanswered). ignored after the end.
+        private synchronized void answer(Rank rank, Throwable failure) {
+            if (result.isDone()) return;
+            if (failure != null) failed++;
+            else {
+                answered++;
+                if (rank != null) ranks.add(rank);
+            }
+            if (answered + failed == participants) end();
+        }
+
+        // combines the ranks found so far, unless already ended, returning the estimate
+        private synchronized RankEstimate end() {
+            if (!result.isDone()) result.complete(combine(ranks, participants, answered));
+            return result.getNow(null);
         }
     }
 }
@@ -2,30 +2,48 @@ package com.omarathon.riotapicrawler.presets.util.estimators;
 
 import com.merakianalytics.orianna.types.common.Queue;
 import com.merakianalytics.orianna.types.core.summoner.Summoner;
-import com.omarathon.riotapicrawler.presets.util.EloHelper;
 import com.omarathon.riotapicrawler.presets.util.Rank;
-import com.omarathon.riotapicrawler.presets.util.estimators.lib.SummonerEloEstimator;
+import com.omarathon.riotapicrawler.presets.util.estimators.lib.Estimator;
+import com.omarathon.riotapicrawler.presets.util.estimators.lib.RankStore;
+import com.omarathon.riotapicrawler.src.lib.key.SummonerKey;
 
 import java.util.Set;
 
-public class MaxSummonerEloEstimator extends SummonerEloEstimator {
+// estimates are memorised by a RankStore (the shared one by default) rather than per estimator,
+// so estimators of the same summoners (e.g in both an EloSummonerFilter and a CommonMaxMatchEloEstimator) share their ranks
+public class MaxSummonerEloEstimator implements Estimator<Summoner, Rank> {
     private Set<Queue> leagueQueues;
+    // the store of ranks, or null to use the shared one
+    private RankStore rankStore;
 
     public MaxSummonerEloEstimator(Set<Queue> leagueQueues) {
-        super();
+        this(leagueQueues, null);
+    }
+
+    public MaxSummonerEloEstimator(Set<Queue> leagueQueues, RankStore rankStore) {
         this.leagueQueues = leagueQueues;
+        this.rankStore = rankStore;
+    }
+
+    public Rank getEstimate(Summoner summoner) {
+        return estimate(summoner);
     }
 
     public Rank estimate(Summoner summoner) {
-        // attempt to obtain Ranks of the summoner on the given queueTypes via the EloHelper helper class
-        Set<Rank> ranks = EloHelper.getElos(summoner, leagueQueues);
-
-        // now obtain the maximum out of their ranks on the given queues, via EloHelper
-        try {
-            return EloHelper.getMaxRank(ranks);
-        }
-        catch (IllegalArgumentException e) { // ranks is empty, in which case they have no ranks on the given queues. so return null for failure in obtaining estimate
-            return null;
-        }
+        // obtain the maximum out of their ranks on the given queueTypes via the RankStore, null if they have none
+        return getRankStore().getMaxRank(summoner, leagueQueues);
+    }
+
+    // the summoner's ranks are memorised if the RankStore holds them
+    public boolean isMemorised(Summoner summoner) {
+        return getRankStore().contains(summoner);
+    }
+
+    public Object getKey(Summoner summoner) {
+        return SummonerKey.of(summoner);
+    }
+
+    private RankStore getRankStore() {
+        return (rankStore == null) ? RankStore.shared() : rankStore;
     }
 }
@@ -3,6 +3,7 @@
     then will obtain the maximum division among the ranks there (e.g max is PLATINUM 2).
 
     Named "CommonMax" because we first seek the most common tier, then return the maximum division within such tier.
+    Ties for the most common tier go to the higher tier. Works over a RankHistogram, so combining one doesn't allocate.
 
     Author: Omar Tanner (omarathon)
     Copyright © 2019 omarathon
@@ -10,50 +11,41 @@
 
 package com.omarathon.riotapicrawler.presets.util.estimators.lib;
 
-import com.merakianalytics.orianna.types.common.Division;
 import com.merakianalytics.orianna.types.common.Tier;
-import com.omarathon.riotapicrawler.presets.util.EloHelper;
 import com.omarathon.riotapicrawler.presets.util.Rank;
+import com.omarathon.riotapicrawler.presets.util.RankHistogram;
 
-import java.util.HashMap;
 import java.util.Set;
 
 public class CommonMaxRankCombiner implements RankCombiner {
-    public Rank combine(Set<Rank> ranks) throws IllegalArgumentException {
-        if (ranks.isEmpty()) throw new IllegalArgumentException("No ranks entered, cannot combine!");
-
-        // store count for each tier in hashmap
-        HashMap<Tier, Integer> tierCounts = new HashMap<>();
-        // maximum tier with its count
-        Tier maxTier = null;
-        int maxTierCount = -1;
+    // reused by each combination of a set on a thread
+    private static final ThreadLocal<RankHistogram> histograms = ThreadLocal.withInitial(RankHistogram::new);
 
-        // for each rank, obtain its tier and update its entry in the hashmap
+    // each distinct Rank in the set counts once
+    public Rank combine(Set<Rank> ranks) throws IllegalArgumentException {
+        RankHistogram histogram = histograms.get();
+        histogram.clear();
         for (Rank rank : ranks) {
-            Tier tier = rank.getTier();
-
-            // if already in hashmap, obtain value, increment and replace with incremented value
-            if (tierCounts.containsKey(tier)) {
-                Integer count = tierCounts.get(tier);
-                tierCounts.put(tier, count++);
-            }
-            else { // is a new tier in the hashmap, so set its count to 0
-                tierCounts.put(tier, 0);
-            }
+            if (rank != null) histogram.add(rank);
+        }
+        return combine(histogram);
+    }
 
-            // obtain updated count. check if is new max, if so replace. if same as max, pick the greatest rank.
-            Integer updatedCount = tierCounts.get(tier);
-            if (updatedCount > maxTierCount) { // guaranteed on first iteration since it will be at least 0, which is >-1
-                maxTier = tier;
-            }
-            else if (updatedCount == maxTierCount) {
-                if (tier.compareTo(maxTier) > 0) maxTier = tier;
+    public Rank combine(RankHistogram histogram) throws IllegalArgumentException {
+        if (histogram.isEmpty()) throw new IllegalArgumentException("No ranks entered, cannot combine!");
+
+        // find the most common tier, going from the highest so that ties keep the higher tier
+        int maxTierLevel = -1;
+        int maxTierCount = 0;
+        for (int level = Tier.values().length - 1; level >= 0; level--) {
+            int count = histogram.tierCount(level);
+            if (count > maxTierCount) {
+                maxTierLevel = level;
+                maxTierCount = count;
             }
         }
 
-        // we now have the the most common tier. we now seek the maximum division of such tier within the given list of ranks.
-        Division maxDivision = EloHelper.getMaxDivision(ranks, maxTier);
-
-        return new Rank(maxTier, maxDivision);
+        // we now have the the most common tier. its maximum rank has the maximum division of such tier.
+        return Rank.fromCode(histogram.maxCodeInTier(maxTierLevel));
     }
 }
@@ -0,0 +1,13 @@
+package com.omarathon.riotapicrawler.presets.util.estimators.lib;
+
+// obtains an estimate of type E from an input object of type T, e.g a MemorisingEstimator, or an estimator over a shared RankStore
+public interface Estimator<T, E> {
+    // the estimate for the input object. null return means no estimate (fail)
+    E getEstimate(T objectToEstimate);
+
+    // whether an estimate (or the lack of one) is held for the object, so estimating it again costs nothing
+    boolean isMemorised(T objectToEstimate);
+
+    // the key the object's estimates are held by, e.g a compact ID
+    Object getKey(T objectToEstimate);
+}
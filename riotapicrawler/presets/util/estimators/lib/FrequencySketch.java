@@ -0,0 +1,71 @@
+/*
+    Estimates how often keys have been seen recently, in fixed memory, as a count-min sketch of small saturating counters
+    (as in TinyLFU): each key counts in one counter per row, and its frequency is the least of its counters, so may be overestimated
+    (by keys sharing counters) but never under. Once as many keys have been counted as ten times the width, every counter is halved,
+    so old frequencies fade and the sketch follows what's popular now.
+
+    Thread-safe.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+ */
+
+package com.omarathon.riotapicrawler.presets.util.estimators.lib;
+
+public class FrequencySketch {
+    private static final int ROWS = 4;
+    private static final int MAX_COUNT = 15;
+    private static final long[] SEEDS = {0x97cb3127c1a2f4b5L, 0xbf58476d1ce4e5b9L, 0x94d049bb133111ebL, 0x9e3779b97f4a7c15L};
+
+    private final int[][] counters;
+    private final int mask;
+    private final int resetAfter;
+    private int additions = 0;
+
+    /* INPUTS: roughly how many distinct keys should be told apart, e.g the maximum size of the cache the sketch admits to.
+       THROWS: IllegalArgumentException if:
+        - keys is <1. */
+    public FrequencySketch(long keys) throws IllegalArgumentException {
+        if (keys < 1) throw new IllegalArgumentException("Nonsensical input for keys (less than 1)");
+        int width = Integer.highestOneBit((int) Math.min(keys, 1 << 26) - 1) << 1;
+        width = Math.max(width, 16);
+        this.counters = new int[ROWS][width];
+        this.mask = width - 1;
+        this.resetAfter = 10 * width;
+    }
+
+    // counts a sighting of the key
+    public synchronized void increment(Object key) {
+        int hash = key.hashCode();
+        for (int row = 0; row < ROWS; row++) {
+            int index = index(hash, row);
+            if (counters[row][index] < MAX_COUNT) counters[row][index]++;
+        }
+        if (++additions >= resetAfter) reset();
+    }
+
+    // the estimated number of recent sightings of the key, up to 15
+    public synchronized int frequency(Object key) {
+        int hash = key.hashCode();
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < ROWS; row++) {
+            frequency = Math.min(frequency, counters[row][index(hash, row)]);
+        }
+        return frequency;
+    }
+
+    // halves every counter, so older sightings count for less
+    private void reset() {
+        for (int[] row : counters) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] >>>= 1;
+            }
+        }
+        additions /= 2;
+    }
+
+    private int index(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[(row + 1) % ROWS];
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
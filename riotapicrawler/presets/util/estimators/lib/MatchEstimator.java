@@ -1,6 +1,16 @@
 package com.omarathon.riotapicrawler.presets.util.estimators.lib;
 
+import com.google.common.cache.CacheBuilder;
 import com.merakianalytics.orianna.types.core.match.Match;
+import com.omarathon.riotapicrawler.src.lib.key.MatchKey;
 
+// estimates are cached by MatchKey
 public abstract class MatchEstimator<E> extends MemorisingEstimator<Match, E> {
+    public MatchEstimator(CacheBuilder<Object, Object> builder) {
+        super(builder, MatchKey::of);
+    }
+
+    public MatchEstimator() {
+        super(MatchKey::of);
+    }
 }
@@ -1,37 +1,44 @@
 package com.omarathon.riotapicrawler.presets.util.estimators.lib;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.omarathon.riotapicrawler.src.lib.Memorisation;
 
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 // obtains an estimate of type E from an input object of type T
-public abstract class MemorisingEstimator<T, E> {
-    private LoadingCache<T, Optional<E>> cache;
+// estimates are cached by the key the key extractor gives for each object (the object itself by default), e.g a compact ID
+// estimates that mustn't be memorised (see Memorisation, e.g one cut short by a deadline) aren't cached
+public abstract class MemorisingEstimator<T, E> implements Estimator<T, E> {
+    private Cache<Object, Optional<E>> cache;
+    private Function<? super T, ?> keyExtractor;
+
+    public MemorisingEstimator(CacheBuilder<Object, Object> builder, Function<? super T, ?> keyExtractor) {
+        this.cache = builder.build();
+        this.keyExtractor = keyExtractor;
+    }
 
     public MemorisingEstimator(CacheBuilder<Object, Object> builder) {
-        cache = builder.build(new CacheLoader<T, Optional<E>>() {
-            @Override
-            public Optional<E> load(T t) throws Exception {
-                E estimate = estimate(t);
-                return Optional.ofNullable(estimate(t));
-            }
-        });
+        this(builder, Function.identity());
     }
 
-    public MemorisingEstimator() {
+    public MemorisingEstimator(Function<? super T, ?> keyExtractor) {
         this(CacheBuilder.newBuilder()
                 .expireAfterWrite(3, TimeUnit.HOURS)
-                .maximumSize(100000));
+                .maximumSize(100000), keyExtractor);
+    }
+
+    public MemorisingEstimator() {
+        this(Function.identity());
     }
 
     public E getEstimate(T objectToEstimate) {
         try {
-            Optional<E> estimate = cache.get(objectToEstimate);
+            Optional<E> estimate = Memorisation.get(cache, keyExtractor.apply(objectToEstimate), () -> Optional.ofNullable(estimate(objectToEstimate)));
             if (estimate.isPresent()) return estimate.get();
             else return null;
         }
@@ -40,6 +47,21 @@ public abstract class MemorisingEstimator<T, E> {
         }
     }
 
+    // whether an estimate (or the lack of one) is memorised for the object
+    public boolean isMemorised(T objectToEstimate) {
+        return getMemorised(objectToEstimate) != null;
+    }
+
+    // the memorised estimate for the object: null if there's none, and empty if it was memorised as having no estimate
+    protected Optional<E> getMemorised(T objectToEstimate) {
+        return cache.getIfPresent(keyExtractor.apply(objectToEstimate));
+    }
+
+    // the key estimates of the object are cached by
+    public Object getKey(T objectToEstimate) {
+        return keyExtractor.apply(objectToEstimate);
+    }
+
     // obtains an estimate of type E for the input object of type T. null return means no estimate (fail)
     protected abstract E estimate(T objectToEstimate);
 }
@@ -1,6 +1,9 @@
 /*
     Takes a set of input Ranks, and returns some kind of combination of them (e.g an average out of them all)
 
+    Ranks may also be combined from a RankHistogram, counting each Rank as many times as it occurs (e.g once per participant),
+    which combiners may implement without allocating. By default, each distinct Rank in the histogram is combined as a set.
+
     Author: Omar Tanner (omarathon)
     Copyright © 2019 omarathon
  */
@@ -8,11 +11,23 @@
 package com.omarathon.riotapicrawler.presets.util.estimators.lib;
 
 import com.omarathon.riotapicrawler.presets.util.Rank;
+import com.omarathon.riotapicrawler.presets.util.RankHistogram;
 
+import java.util.HashSet;
 import java.util.Set;
 
 public interface RankCombiner {
     // takes as input a set of Ranks and returns a single Rank
     // throws an IllegalArgumentException based upon the input ranks.
     Rank combine(Set<Rank> ranks) throws IllegalArgumentException;
+
+    // takes as input a histogram of Ranks and returns a single Rank
+    // throws an IllegalArgumentException based upon the input ranks.
+    default Rank combine(RankHistogram histogram) throws IllegalArgumentException {
+        Set<Rank> ranks = new HashSet<>();
+        for (int code = 0; code < Rank.CODES; code++) {
+            if (histogram.count(code) > 0) ranks.add(Rank.fromCode(code));
+        }
+        return combine(ranks);
+    }
 }
@@ -0,0 +1,61 @@
+/*
+    An estimate of a Match's Rank combined from the ranks of its participants that were looked up in time,
+    with its coverage: how many of the participants' lookups completed (ranked or not) before the deadline.
+
+    An estimate with full coverage is the same as one made serially; a partial estimate may differ from it,
+    and its Rank is null if none of the participants found in time were ranked.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+ */
+
+package com.omarathon.riotapicrawler.presets.util.estimators.lib;
+
+import com.omarathon.riotapicrawler.presets.util.Rank;
+
+public class RankEstimate {
+    private final Rank rank;
+    private final int participants;
+    private final int answered;
+    private final int ranked;
+
+    public RankEstimate(Rank rank, int participants, int answered, int ranked) {
+        this.rank = rank;
+        this.participants = participants;
+        this.answered = answered;
+        this.ranked = ranked;
+    }
+
+    // the estimated Rank, or null if there's no estimate
+    public Rank getRank() {
+        return rank;
+    }
+
+    // number of participants in the Match
+    public int getParticipants() {
+        return participants;
+    }
+
+    // number of participants whose lookups completed in time
+    public int getAnswered() {
+        return answered;
+    }
+
+    // number of participants whose lookups completed in time with a rank, i.e the ranks the estimate was combined from
+    public int getRanked() {
+        return ranked;
+    }
+
+    // fraction of the participants whose lookups completed in time (1 if the Match had no participants)
+    public double getCoverage() {
+        return (participants == 0) ? 1 : (double) answered / participants;
+    }
+
+    public boolean isComplete() {
+        return answered == participants;
+    }
+
+    public String toString() {
+        return rank + " (" + answered + "/" + participants + " participants, " + ranked + " ranked)";
+    }
+}
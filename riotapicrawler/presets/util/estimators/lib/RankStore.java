@@ -0,0 +1,176 @@
+/*
+    A store of Summoners' ranks, keyed by SummonerKey and shared by every rank estimator in the process (by default),
+    so a Summoner's league positions are looked up once whichever filters and formatters need their rank.
+
+    Each Summoner's rank on every league queue is kept (as a few ints), so estimators working across different queues share entries.
+    Eviction is configurable through a CacheBuilder (e.g by size or time), or by a maximum size, an expiry and frequency-based admission:
+    once the store is full, a Summoner is only kept if they've been looked up more than once recently (judged by a FrequencySketch, as in TinyLFU),
+    so the many Summoners looked up once (e.g the participants of matches that are never crawled) don't evict the ones that keep appearing.
+
+    A Summoner that isn't kept isn't memorised anywhere else either (see Memorisation), e.g by a filter caching its verdict on their rank.
+
+    Exposes the number of hits, misses (i.e loads), the time spent loading, and the number of Summoners not admitted.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+ */
+
+package com.omarathon.riotapicrawler.presets.util.estimators.lib;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.merakianalytics.orianna.types.common.Queue;
+import com.merakianalytics.orianna.types.core.league.LeagueEntry;
+import com.merakianalytics.orianna.types.core.summoner.Summoner;
+import com.omarathon.riotapicrawler.presets.util.EloHelper;
+import com.omarathon.riotapicrawler.presets.util.Rank;
+import com.omarathon.riotapicrawler.src.lib.Memorisation;
+import com.omarathon.riotapicrawler.src.lib.key.SummonerKey;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class RankStore {
+    private static final Queue[] QUEUES = Queue.values();
+
+    private static volatile RankStore shared = new RankStore(100000, 3, TimeUnit.HOURS, true);
+
+    // each Summoner's ranks, as entries of a queue's ordinal (above the lowest byte) and a Rank's code (in the lowest byte)
+    private final Cache<SummonerKey, int[]> cache;
+    private final long maximumSize;
+    // judges which Summoners to keep once the store is full, or null to keep every Summoner looked up
+    private final FrequencySketch sketch;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    // a store keeping every Summoner looked up, evicting them as the builder is configured to
+    public RankStore(CacheBuilder<Object, Object> builder) {
+        this.cache = builder.build();
+        this.maximumSize = Long.MAX_VALUE;
+        this.sketch = null;
+    }
+
+    /* INPUTS: the most Summoners to keep, how long to keep each (and its unit), and whether to only keep Summoners
+               looked up more than once recently when the store is full.
+       THROWS: IllegalArgumentException if:
+        - maximumSize is <1,
+        - expireAfter is <1. */
+    public RankStore(long maximumSize, long expireAfter, TimeUnit unit, boolean admitByFrequency) throws IllegalArgumentException {
+        if (maximumSize < 1) throw new IllegalArgumentException("Nonsensical input for maximumSize (less than 1)");
+        if (expireAfter < 1) throw new IllegalArgumentException("Nonsensical input for expireAfter (less than 1)");
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfter, unit)
+                .build();
+        this.maximumSize = maximumSize;
+        this.sketch = admitByFrequency ? new FrequencySketch(maximumSize) : null;
+    }
+
+    // the store used by the preset estimators unless given their own
+    public static RankStore shared() {
+        return shared;
+    }
+
+    public static void setShared(RankStore store) {
+        shared = store;
+    }
+
+    /* The maximum Rank of the Summoner across the given league queues, or null if they have no rank on them.
+       Looks up their league positions if they're not stored. */
+    public Rank getMaxRank(Summoner summoner, Set<Queue> queues) {
+        int maxCode = -1;
+        for (int entry : getRanks(summoner)) {
+            if (queues.contains(QUEUES[entry >>> 8])) maxCode = Math.max(maxCode, entry & 0xff);
+        }
+        return (maxCode < 0) ? null : Rank.fromCode(maxCode);
+    }
+
+    // whether the Summoner's ranks are stored, so looking them up costs no request
+    public boolean contains(Summoner summoner) {
+        return cache.getIfPresent(SummonerKey.of(summoner)) != null;
+    }
+
+    public void invalidate(Summoner summoner) {
+        cache.invalidate(SummonerKey.of(summoner));
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    // number of Summoners stored
+    public long size() {
+        return cache.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    // number of Summoners looked up that weren't stored, so had their league positions loaded
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    // fraction of lookups that were stored (0 if there were none)
+    public double getHitRate() {
+        long hits = getHits();
+        long lookups = hits + getMisses();
+        return (lookups == 0) ? 0 : (double) hits / lookups;
+    }
+
+    // average time taken to load a Summoner's league positions, in milliseconds (0 if there were none)
+    public double getAverageLoadMillis() {
+        long misses = getMisses();
+        return (misses == 0) ? 0 : loadNanos.sum() / (misses * 1e6);
+    }
+
+    // number of Summoners loaded that weren't kept, since the store was full and they'd not been looked up recently
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    private int[] getRanks(Summoner summoner) {
+        SummonerKey key = SummonerKey.of(summoner);
+        if (sketch != null) sketch.increment(key);
+        int[] ranks = cache.getIfPresent(key);
+        if (ranks != null) {
+            hits.increment();
+            return ranks;
+        }
+
+        // concurrent loads of the same Summoner are coalesced by the RequestScheduler, so aren't deduplicated here
+        misses.increment();
+        long start = System.nanoTime();
+        ranks = load(summoner);
+        loadNanos.add(System.nanoTime() - start);
+        if (admit(key)) cache.put(key, ranks);
+        else {
+            rejected.increment();
+            Memorisation.doNotMemorise();
+        }
+        return ranks;
+    }
+
+    // keeps every Summoner until full, then only the Summoners looked up more than once recently
+    private boolean admit(SummonerKey key) {
+        return sketch == null || cache.size() < maximumSize || sketch.frequency(key) > 1;
+    }
+
+    // the Summoner's rank on each league queue that it can be obtained for
+    private static int[] load(Summoner summoner) {
+        int[] ranks = new int[QUEUES.length];
+        int size = 0;
+        for (LeagueEntry leagueEntry : EloHelper.getLeaguePositions(summoner)) {
+            Queue queue = EloHelper.getQueue(leagueEntry);
+            int code = EloHelper.codeOf(leagueEntry);
+            if (queue != null && code >= 0 && size < ranks.length) ranks[size++] = (queue.ordinal() << 8) | code;
+        }
+        return Arrays.copyOf(ranks, size);
+    }
+}
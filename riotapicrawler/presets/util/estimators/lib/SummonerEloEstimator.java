@@ -1,7 +1,15 @@
 package com.omarathon.riotapicrawler.presets.util.estimators.lib;
 
+import com.google.common.cache.CacheBuilder;
 import com.omarathon.riotapicrawler.presets.util.Rank;
 
 // An estimator which obtains a Rank estimate for an input Summoner
 public abstract class SummonerEloEstimator extends SummonerEstimator<Rank> {
+    public SummonerEloEstimator(CacheBuilder<Object, Object> builder) {
+        super(builder);
+    }
+
+    public SummonerEloEstimator() {
+        super();
+    }
 }
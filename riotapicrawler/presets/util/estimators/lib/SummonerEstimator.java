@@ -1,6 +1,16 @@
 package com.omarathon.riotapicrawler.presets.util.estimators.lib;
 
+import com.google.common.cache.CacheBuilder;
 import com.merakianalytics.orianna.types.core.summoner.Summoner;
+import com.omarathon.riotapicrawler.src.lib.key.SummonerKey;
 
+// estimates are cached by SummonerKey
 public abstract class SummonerEstimator<E> extends MemorisingEstimator<Summoner, E> {
+    public SummonerEstimator(CacheBuilder<Object, Object> builder) {
+        super(builder, SummonerKey::of);
+    }
+
+    public SummonerEstimator() {
+        super(SummonerKey::of);
+    }
 }
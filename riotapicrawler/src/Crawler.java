@@ -9,14 +9,36 @@ import com.merakianalytics.orianna.types.core.summoner.Summoner;
 import com.omarathon.riotapicrawler.presets.listeners.DefaultCrawlerListener;
 import com.omarathon.riotapicrawler.src.lib.CrawlerConfig;
 import com.omarathon.riotapicrawler.src.lib.CrawlerListener;
-import com.omarathon.riotapicrawler.src.lib.SummonerHistory;
+import com.omarathon.riotapicrawler.src.lib.VisitedSummoner;
+import com.omarathon.riotapicrawler.src.lib.checkpoint.CrawlerCheckpoint;
 import com.omarathon.riotapicrawler.src.lib.filter.SummonerFilter;
 import com.omarathon.riotapicrawler.src.lib.handler.OutputHandler;
+import com.omarathon.riotapicrawler.src.lib.key.SummonerKey;
+import com.omarathon.riotapicrawler.src.lib.scheduler.RequestScheduler;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Crawler {
+    // how long a worker waits when there's nothing to crawl but other workers may still find something, in milliseconds
+    private static final long IDLE_WAIT_MILLIS = 100;
+
     private CrawlerConfig crawlerConfig;
     private OutputHandler outputHandler;
     private CrawlerListener listener;
@@ -24,7 +46,21 @@ public class Crawler {
     public enum Mode {
         IDLE, BACKTRACKING, CRAWLING
     }
-    private Mode mode;
+    private volatile Mode mode;
+
+    // number of workers that are mid-iteration, i.e may still add to the frontier. the crawl may only end when no other worker is
+    private AtomicInteger busyWorkers;
+    // number of workers that haven't yet exited the main crawling loop
+    private AtomicInteger liveWorkers;
+
+    // file to periodically write checkpoints of the crawl to, and how often (null if not checkpointing)
+    private Path checkpointFile;
+    private long checkpointInterval;
+    private TimeUnit checkpointIntervalUnit;
+    private ScheduledExecutorService checkpointer;
+
+    // loads matches and evaluates filters for seekNextCrawl concurrently, shared by every worker (null if not prefetching)
+    private volatile ExecutorService prefetcher;
 
     public Crawler(CrawlerConfig crawlerConfig, OutputHandler outputHandler) {
         this(crawlerConfig, outputHandler, new DefaultCrawlerListener());
@@ -36,6 +72,8 @@ public class Crawler {
         this.outputHandler = outputHandler;
         this.listener = listener;
         this.mode = Mode.IDLE;
+        // tell the listener the output handler it starts with, e.g so a MetricsCrawlerListener reports the matches it emits
+        listener.onOutputHandlerUpdate(null, outputHandler);
     }
 
     public void run(String summonerName, Platform platform) {
@@ -48,13 +86,9 @@ public class Crawler {
         SummonerFilter summonerFilter = crawlerConfig.getSummonerFilter();
         if (summonerFilter.apply(summoner)) { // Crawlable
             listener.onInitialSummonerCrawlable(summoner);
-            // Open a new thread and begin a crawl from the input player on such thread, with the mode set to CRAWLING
-            mode = Mode.CRAWLING;
-            Thread crawlThread = new Thread(() -> {
-                listener.onInitialCrawlEntry(summoner);
-                crawl(summoner);
-            });
-            crawlThread.start();
+            // Seed the frontier with the input player, then start crawling
+            crawlerConfig.getFrontier().offer(Collections.singletonList(summoner));
+            startWorkers(summoner);
         }
         else { // Not crawlable
             listener.onInitialSummonerNotCrawlable(summoner);
@@ -62,86 +96,250 @@ public class Crawler {
         }
     }
 
+    /* Warm-starts a crawl from the checkpoint in the given file, written by checkpoint or periodic checkpointing:
+       the visited summoners, frontier, seen matches and filter verdicts are restored into this crawler's CrawlerConfig and
+       OutputHandler, then the crawl continues from the restored frontier (backtracking into the restored SummonerHistory if it's empty).
+       THROWS: IOException if the checkpoint can't be read,
+               IllegalStateException if the checkpoint has no Summoners to crawl from. */
+    public void resume(Path checkpointFile) throws IOException, IllegalStateException {
+        CrawlerCheckpoint.read(crawlerConfig, outputHandler, checkpointFile);
+        // the Summoner the workers start (and would first backtrack) from
+        Summoner initialSummoner = crawlerConfig.getFrontier().poll();
+        if (initialSummoner != null) {
+            crawlerConfig.getFrontier().offer(Collections.singletonList(initialSummoner));
+        }
+        else {
+            VisitedSummoner visited = crawlerConfig.getSummonerHistory().getRandomVisitedSummoner(null);
+            if (visited == null) throw new IllegalStateException("Checkpoint " + checkpointFile + " has no Summoners to crawl from!");
+            initialSummoner = visited.getSummoner();
+        }
+        listener.onResume(checkpointFile, initialSummoner);
+        mode = Mode.CRAWLING;
+        startWorkers(initialSummoner);
+    }
+
+    // writes a checkpoint of the crawl so far to the given file, which may be resumed from. safe to call while crawling.
+    public void checkpoint(Path checkpointFile) throws IOException {
+        CrawlerCheckpoint.write(crawlerConfig, outputHandler, checkpointFile);
+        listener.onCheckpoint(checkpointFile);
+    }
+
+    // opens a thread per worker which all crawl from the shared frontier, with the mode set to CRAWLING, and starts periodic checkpointing
+    private void startWorkers(Summoner initialSummoner) {
+        mode = Mode.CRAWLING;
+        busyWorkers = new AtomicInteger();
+        int workers = crawlerConfig.getWorkers();
+        liveWorkers = new AtomicInteger(workers);
+        startPrefetching();
+        startCheckpointing();
+        listener.onInitialCrawlEntry(initialSummoner);
+        for (int i = 0; i < workers; i++) {
+            Thread crawlThread = new Thread(() -> crawl(initialSummoner), "crawler-worker-" + i);
+            crawlThread.start();
+        }
+    }
+
+    private void startPrefetching() {
+        int threads = crawlerConfig.getPrefetchThreads();
+        if (threads == 0) return;
+        AtomicInteger created = new AtomicInteger();
+        prefetcher = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "crawler-prefetch-" + created.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private void stopPrefetching() {
+        ExecutorService prefetcher = this.prefetcher;
+        if (prefetcher == null) return;
+        this.prefetcher = null;
+        prefetcher.shutdown();
+    }
+
+    private void startCheckpointing() {
+        if (checkpointFile == null) return;
+        Path file = checkpointFile;
+        checkpointer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "crawler-checkpointer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checkpointer.scheduleWithFixedDelay(() -> tryCheckpoint(file), checkpointInterval, checkpointInterval, checkpointIntervalUnit);
+    }
+
+    // stops periodic checkpointing, writing a final checkpoint
+    private void stopCheckpointing() {
+        if (checkpointer == null) return;
+        checkpointer.shutdownNow();
+        checkpointer = null;
+        if (checkpointFile != null) tryCheckpoint(checkpointFile);
+    }
+
+    private void tryCheckpoint(Path file) {
+        try {
+            checkpoint(file);
+        }
+        catch (IOException e) {
+            listener.onCheckpointFail(file, e);
+        }
+    }
+
+    /* The main crawling loop of a single worker. Each iteration either takes a Summoner from the frontier and crawls them,
+       or, if the frontier is empty, backtracks from the Summoner this worker last crawled (initially the input Summoner).
+       Either way, the crawlable Summoners found by seekNextCrawl are put onto the frontier for any worker to take. */
     private void crawl(Summoner summoner) {
-        while (mode != Mode.IDLE) {
-            listener.onCrawlSummoner(summoner);
-            MatchHistory matchHistory = null;
-            switch (mode) {
-                case BACKTRACKING:
-                    listener.onBacktracking(summoner);
-                    matchHistory = backtrack(summoner);
-                    if (matchHistory == null) { // no next summoner so stop crawling
-                        listener.onBacktrackFail(summoner);
-                        stop();
+        try {
+            // true when this worker found nothing to do last iteration, so should give the other workers time before retrying
+            boolean waitForOthers = false;
+            while (mode != Mode.IDLE) {
+                if (waitForOthers) {
+                    idle();
+                    waitForOthers = false;
+                }
+                // count as busy before polling, so that no other worker sees an empty frontier and no busy workers in between
+                busyWorkers.incrementAndGet();
+                boolean busy = true;
+                try {
+                    Summoner frontierSummoner = crawlerConfig.getFrontier().poll();
+                    if (frontierSummoner != null && !crawlerConfig.getSummonerHistory().claim(frontierSummoner)) {
+                        // another worker has already crawled (or is crawling) this Summoner
                         continue;
                     }
-                    listener.onBacktrackSuccess(summoner, matchHistory);
-                    mode = Mode.CRAWLING;
-                    break;
-
-                case CRAWLING:
-                    listener.onCrawling(summoner);
-                    matchHistory = summoner.matchHistory()
-                            .withEndIndex(crawlerConfig.getMaxMatches())
-                            .get();
-                    listener.onObtainedMatchHistory(summoner, matchHistory);
-                    crawlerConfig.getSummonerHistory().addVisitedSummoner(summoner, matchHistory);
-                    listener.onHandleMatchHistory(matchHistory);
-                    outputHandler.applyMultiple(matchHistory);
-                    break;
-            }
+                    Mode workerMode = (frontierSummoner == null) ? Mode.BACKTRACKING : Mode.CRAWLING;
+                    if (frontierSummoner != null) summoner = frontierSummoner;
+
+                    listener.onCrawlSummoner(summoner);
+                    MatchHistory matchHistory = null;
+                    switch (workerMode) {
+                        case BACKTRACKING:
+                            listener.onBacktracking(summoner);
+                            matchHistory = backtrack(summoner);
+                            if (matchHistory == null) {
+                                // no next summoner, and if no other worker can produce one then stop crawling
+                                busy = false;
+                                if (busyWorkers.decrementAndGet() == 0 && crawlerConfig.getFrontier().size() == 0) {
+                                    listener.onBacktrackFail(summoner);
+                                    stop();
+                                }
+                                else waitForOthers = true;
+                                continue;
+                            }
+                            listener.onBacktrackSuccess(summoner, matchHistory);
+                            break;
 
-            listener.onSeekNextCrawl(matchHistory);
-            Summoner nextSummoner = seekNextCrawl(matchHistory);
-            if (nextSummoner == null) {
-                listener.onSeekNextCrawlFail(matchHistory);
-                mode = Mode.BACKTRACKING;
-            } else {
-                listener.onSeekNextCrawlSuccess(matchHistory, nextSummoner);
-                summoner = nextSummoner;
+                        case CRAWLING:
+                            listener.onCrawling(summoner);
+                            matchHistory = fetchMatchHistory(summoner);
+                            listener.onObtainedMatchHistory(summoner, matchHistory);
+                            crawlerConfig.getSummonerHistory().addVisitedSummoner(summoner, matchHistory);
+                            listener.onHandleMatchHistory(matchHistory);
+                            outputHandler.applyMultiple(matchHistory);
+                            break;
+                    }
+
+                    listener.onSeekNextCrawl(matchHistory);
+                    List<Summoner> nextSummoners = seekNextCrawl(matchHistory);
+                    if (nextSummoners.isEmpty()) {
+                        listener.onSeekNextCrawlFail(matchHistory);
+                    } else {
+                        for (Summoner nextSummoner : nextSummoners) {
+                            listener.onSeekNextCrawlSuccess(matchHistory, nextSummoner);
+                        }
+                        crawlerConfig.getFrontier().offer(nextSummoners);
+                    }
+                }
+                finally {
+                    // any Summoners found this iteration are in the frontier by now
+                    if (busy) busyWorkers.decrementAndGet();
+                }
+            }
+        }
+        finally {
+            // the last worker to leave the loop ends the crawl
+            if (liveWorkers.decrementAndGet() == 0) {
+                stopPrefetching();
+                // let the output handler finish any Matches it's still handling before the final checkpoint
+                outputHandler.stop();
+                stopCheckpointing();
+                listener.onEndCrawl();
             }
         }
-        listener.onEndCrawl();
     }
 
-    private MatchHistory backtrack(Summoner summoner) {
-        SummonerHistory history = crawlerConfig.getSummonerHistory();
+    // waits briefly, for the other workers to add to the frontier or SummonerHistory
+    private void idle() {
+        try {
+            Thread.sleep(IDLE_WAIT_MILLIS);
+        }
+        catch (InterruptedException e) { // interrupted while waiting, so just carry on and preserve the interrupt
+            Thread.currentThread().interrupt();
+        }
+    }
 
-        MatchHistory summonerMatchHistory = history.getMatchHistory(summoner);
-        history.removeVisitedSummoner(summoner);
-        MatchHistory backtrackMatchHistory= history.getRandomMatchHistory();
-        history.addVisitedSummoner(summoner, summonerMatchHistory);
+    // loads the match history to crawl, ahead of any lower priority requests
+    private MatchHistory fetchMatchHistory(Summoner summoner) {
+        return RequestScheduler.shared().call(summoner.getPlatform(), RequestScheduler.MATCH_HISTORY, RequestScheduler.Priority.HIGH, () -> {
+            MatchHistory matchHistory = summoner.matchHistory()
+                    .withEndIndex(crawlerConfig.getMaxMatches())
+                    .get();
+            matchHistory.load();
+            return matchHistory;
+        });
+    }
 
-        return backtrackMatchHistory;
+    private MatchHistory backtrack(Summoner summoner) {
+        // pick a random previously visited summoner other than the one we're backtracking from
+        return crawlerConfig.getSummonerHistory().getRandomMatchHistory(summoner);
     }
 
-    private Summoner seekNextCrawl(MatchHistory matchHistory) {
+    // returns the crawlable Summoners found in the match history, each once and at most the CrawlerConfig's maxCandidates. empty if there's none.
+    private List<Summoner> seekNextCrawl(MatchHistory matchHistory) {
+        List<Summoner> crawlable = new ArrayList<>();
+
         // can instantly reject of MatchHistory GhostObject doesn't exist
         if (!matchHistory.exists()) {
             listener.onMatchHistoryNotExist(matchHistory);
-            return null;
+            return crawlable;
         }
 
+        ExecutorService prefetcher = this.prefetcher;
+        if (prefetcher == null) seekSerially(matchHistory, crawlable);
+        else seekPrefetching(matchHistory, crawlable, prefetcher);
+
+        // reach with no crawlable summoners if no next summoner to crawl
+        if (crawlable.isEmpty()) listener.onNoNextSummoner(matchHistory);
+        return crawlable;
+    }
+
+    // filters each match then each of its participants one by one, adding the crawlable Summoners in the order found
+    private void seekSerially(MatchHistory matchHistory, List<Summoner> crawlable) {
+        Set<SummonerKey> considered = new HashSet<>();
         for (Match match : matchHistory) {
+            if (foundEnough(crawlable)) return;
             listener.onProcessMatch(match);
-            if (crawlerConfig.getMatchFilter().apply(match)) {
+            Verdict verdict = loadAndFilter(match);
+            listener.onMatchLoaded(match, verdict.loadNanos);
+            listener.onMatchFiltered(match, verdict.filterNanos);
+            if (verdict.crawlable) {
                 listener.onCrawlableMatch(match);
-                ArrayList<Participant> participants = new ArrayList<>();
                 for (Participant participant : match.getParticipants()) {
-                    participants.add(participant);
-                }
-                while (!participants.isEmpty()) {
-                    Participant participant = participants.get(new Random().nextInt(participants.size()));
+                    if (foundEnough(crawlable)) return;
                     listener.onProcessParticipant(participant, match);
                     Summoner summoner = participant.getSummoner();
-                    if (crawlerConfig.getSummonerFilter().apply(summoner)
-                        && !crawlerConfig.getSummonerHistory().wasVisited(summoner)) {
+                    // check the history first, since it's cheaper than the filter. a summoner in several of the matches is only filtered once
+                    if (!considered.add(SummonerKey.of(summoner)) || crawlerConfig.getSummonerHistory().wasVisited(summoner)) {
+                        listener.onNotCrawlableParticipantFound(participant, summoner, match);
+                        continue;
+                    }
+                    Verdict summonerVerdict = filter(summoner);
+                    listener.onSummonerFiltered(summoner, summonerVerdict.filterNanos);
+                    if (summonerVerdict.crawlable) {
                         listener.onCrawlableParticipantFound(participant, summoner, match);
-                        return summoner;
+                        crawlable.add(summoner);
                     }
                     else {
                         listener.onNotCrawlableParticipantFound(participant, summoner, match);
-                        participants.remove(participant);
                     }
                 }
             }
@@ -149,9 +347,142 @@ public class Crawler {
                 listener.onNotCrawlableMatch(match);
             }
         }
-        listener.onNoNextSummoner(matchHistory);
-        // reach if no next summoner to crawl
-        return null;
+    }
+
+    /* Like seekSerially, but the next few matches are loaded and filtered in the background while the current one is processed,
+       and the participants of a crawlable match are filtered concurrently, handling each verdict as it arrives.
+       Listeners are still called on the worker's thread, with matches in order and participants in the order their verdicts arrive,
+       and the loading and filtering times they're given are measured where the work ran. */
+    private void seekPrefetching(MatchHistory matchHistory, List<Summoner> crawlable, ExecutorService prefetcher) {
+        List<Match> matches = new ArrayList<>(matchHistory);
+        int matchesAhead = crawlerConfig.getPrefetchMatches();
+        List<Future<Verdict>> matchVerdicts = new ArrayList<>(matches.size());
+        Set<SummonerKey> considered = new HashSet<>();
+        for (int i = 0; i < matches.size(); i++) {
+            if (foundEnough(crawlable)) {
+                // the matches prefetched beyond this one aren't needed
+                for (int j = i; j < matchVerdicts.size(); j++) {
+                    matchVerdicts.get(j).cancel(false);
+                }
+                return;
+            }
+            // keep the current match and the next few loading and filtering in the background
+            while (matchVerdicts.size() < matches.size() && matchVerdicts.size() <= i + matchesAhead) {
+                Match next = matches.get(matchVerdicts.size());
+                matchVerdicts.add(prefetcher.submit(() -> loadAndFilter(next)));
+            }
+
+            Match match = matches.get(i);
+            listener.onProcessMatch(match);
+            Verdict verdict = await(matchVerdicts.get(i));
+            if (verdict != null) {
+                listener.onMatchLoaded(match, verdict.loadNanos);
+                listener.onMatchFiltered(match, verdict.filterNanos);
+            }
+            if (verdict != null && verdict.crawlable) {
+                listener.onCrawlableMatch(match);
+                seekParticipants(match, crawlable, considered, prefetcher);
+            }
+            else {
+                listener.onNotCrawlableMatch(match);
+            }
+        }
+    }
+
+    // filters the participants not yet considered in the match history concurrently, until enough crawlable Summoners are found
+    private void seekParticipants(Match match, List<Summoner> crawlable, Set<SummonerKey> considered, ExecutorService prefetcher) {
+        CompletionService<Verdict> summonerVerdicts = new ExecutorCompletionService<>(prefetcher);
+        Map<Future<Verdict>, Participant> pending = new HashMap<>();
+        for (Participant participant : match.getParticipants()) {
+            listener.onProcessParticipant(participant, match);
+            Summoner summoner = participant.getSummoner();
+            // check the history first, since it's cheaper than the filter. a summoner in several of the matches is only filtered once
+            if (!considered.add(SummonerKey.of(summoner)) || crawlerConfig.getSummonerHistory().wasVisited(summoner)) {
+                listener.onNotCrawlableParticipantFound(participant, summoner, match);
+                continue;
+            }
+            pending.put(summonerVerdicts.submit(() -> filter(summoner)), participant);
+        }
+
+        while (!pending.isEmpty()) {
+            if (foundEnough(crawlable)) {
+                // the remaining verdicts aren't needed
+                for (Future<Verdict> future : pending.keySet()) {
+                    future.cancel(false);
+                }
+                return;
+            }
+            Future<Verdict> future;
+            try {
+                future = summonerVerdicts.take();
+            }
+            catch (InterruptedException e) { // stop waiting, treating the remaining participants as not crawlable, and preserve the interrupt
+                Thread.currentThread().interrupt();
+                future = pending.keySet().iterator().next();
+            }
+            Participant participant = pending.remove(future);
+            Summoner summoner = participant.getSummoner();
+            Verdict verdict = await(future);
+            if (verdict != null) listener.onSummonerFiltered(summoner, verdict.filterNanos);
+            if (verdict != null && verdict.crawlable) {
+                listener.onCrawlableParticipantFound(participant, summoner, match);
+                crawlable.add(summoner);
+            }
+            else {
+                listener.onNotCrawlableParticipantFound(participant, summoner, match);
+            }
+        }
+    }
+
+    // whether the CrawlerConfig's maxCandidates crawlable Summoners have been found
+    private boolean foundEnough(List<Summoner> crawlable) {
+        int maxCandidates = crawlerConfig.getMaxCandidates();
+        return maxCandidates > 0 && crawlable.size() >= maxCandidates;
+    }
+
+    // loads the match then applies the match filter, timing each
+    private Verdict loadAndFilter(Match match) {
+        long start = System.nanoTime();
+        loadMatch(match);
+        long loaded = System.nanoTime();
+        boolean crawlable = crawlerConfig.getMatchFilter().apply(match);
+        return new Verdict(crawlable, loaded - start, System.nanoTime() - loaded);
+    }
+
+    // applies the summoner filter, timing it
+    private Verdict filter(Summoner summoner) {
+        long start = System.nanoTime();
+        boolean crawlable = crawlerConfig.getSummonerFilter().apply(summoner);
+        return new Verdict(crawlable, 0, System.nanoTime() - start);
+    }
+
+    /* The match is needed whatever the filters decide, so load it ahead of any speculative requests.
+       Several workers may find the same match at once, so it's only requested once, and the others then load it from Orianna's cache. */
+    private void loadMatch(Match match) {
+        RequestScheduler.shared().call(match.getPlatform(), RequestScheduler.MATCH, Long.toString(match.getId()), RequestScheduler.Priority.HIGH, () -> {
+            match.load();
+            return null;
+        });
+        match.load();
+    }
+
+    /* Waits for the result of a prefetch, rethrowing anything it threw as if it had been run on this thread.
+       Returns null (cancelling the prefetch) if interrupted, preserving the interrupt. */
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new RuntimeException(cause);
+        }
     }
 
     public void stop() {
@@ -159,6 +490,17 @@ public class Crawler {
         mode = Mode.IDLE;
     }
 
+    /* Periodically writes a checkpoint of the crawl to the given file while crawling, and once more when the crawl ends.
+       Applies from the next call of run or resume. A null file turns checkpointing off.
+       INPUTS: the file to write checkpoints to, and the interval between checkpoints.
+       THROWS: IllegalArgumentException if: - the interval is less than 1 */
+    public void setCheckpointing(Path checkpointFile, long interval, TimeUnit intervalUnit) throws IllegalArgumentException {
+        if (checkpointFile != null && interval < 1) throw new IllegalArgumentException("Nonsensical input for checkpoint interval (less than 1)");
+        this.checkpointFile = checkpointFile;
+        this.checkpointInterval = interval;
+        this.checkpointIntervalUnit = intervalUnit;
+    }
+
     // accessors
 
     public Mode getMode() {
@@ -177,6 +519,10 @@ public class Crawler {
         return outputHandler;
     }
 
+    public Path getCheckpointFile() {
+        return checkpointFile;
+    }
+
     // mutators
 
     public void setCrawlerConfig(CrawlerConfig crawlerConfig) {
@@ -192,5 +538,19 @@ public class Crawler {
     public void setListener(CrawlerListener listener) {
         listener.onListenerUpdate(this.listener, listener);
         this.listener = listener;
+        listener.onOutputHandlerUpdate(null, outputHandler);
+    }
+
+    // a filter's verdict, with how long loading its input (if it was loaded) and filtering it took, in nanoseconds
+    private static final class Verdict {
+        private final boolean crawlable;
+        private final long loadNanos;
+        private final long filterNanos;
+
+        private Verdict(boolean crawlable, long loadNanos, long filterNanos) {
+            this.crawlable = crawlable;
+            this.loadNanos = loadNanos;
+            this.filterNanos = filterNanos;
+        }
     }
 }
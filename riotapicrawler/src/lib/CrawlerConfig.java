@@ -1,5 +1,6 @@
 package com.omarathon.riotapicrawler.src.lib;
 
+import com.omarathon.riotapicrawler.presets.frontiers.DepthFirstFrontier;
 import com.omarathon.riotapicrawler.src.lib.filter.MatchFilter;
 import com.omarathon.riotapicrawler.src.lib.filter.SummonerFilter;
 
@@ -13,6 +14,20 @@ public class CrawlerConfig {
 
     private SummonerHistory summonerHistory;
 
+    // Summoners found crawlable and waiting to be crawled, which decides the order of the crawl
+    private Frontier frontier = new DepthFirstFrontier();
+
+    // Most crawlable Summoners to find in a MatchHistory before moving on, so the SummonerFilter isn't applied to every participant (0 for no limit)
+    private int maxCandidates = 10;
+
+    // Number of worker threads that crawl in parallel, sharing the frontier, SummonerHistory and OutputHandler
+    private int workers = 1;
+
+    // Number of threads that load matches and evaluate the SummonerFilter concurrently when seeking the next Summoners to crawl (0 to evaluate serially)
+    private int prefetchThreads = 0;
+    // Number of matches ahead of the current one in a MatchHistory to load and filter in the background, when prefetching
+    private int prefetchMatches = 2;
+
     /* INPUTS: MatchFilter, SummonerFilter and maxMatches properties.
        THROWS: IllegalArgumentException if:
         - the input maxMatches is >100 in which case the api cannot obtain so many,
@@ -50,6 +65,26 @@ public class CrawlerConfig {
         return summonerHistory;
     }
 
+    public Frontier getFrontier() {
+        return frontier;
+    }
+
+    public int getMaxCandidates() {
+        return maxCandidates;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public int getPrefetchThreads() {
+        return prefetchThreads;
+    }
+
+    public int getPrefetchMatches() {
+        return prefetchMatches;
+    }
+
     /* Setter for maxMatches THROWS IllegalArgumentException if:
         - the input maxMatches is >100 in which case the api cannot obtain so many,
         - maxMatches is <1 in which case nonsensical input. */
@@ -72,4 +107,42 @@ public class CrawlerConfig {
     public void setSummonerHistory(SummonerHistory summonerHistory) {
         this.summonerHistory = summonerHistory;
     }
+
+    public void setFrontier(Frontier frontier) {
+        this.frontier = frontier;
+    }
+
+    /* Setter for maxCandidates THROWS IllegalArgumentException if:
+        - maxCandidates is <0 in which case nonsensical input.
+       Each Summoner found costs a SummonerFilter evaluation (e.g a league lookup), so a lower limit spends fewer requests per MatchHistory
+       at the cost of keeping fewer Summoners in the frontier. */
+    public void setMaxCandidates(int maxCandidates) throws IllegalArgumentException {
+        if (maxCandidates < 0) throw new IllegalArgumentException("Nonsensical input for maximum candidates per match history (less than 0)");
+        this.maxCandidates = maxCandidates;
+    }
+
+    /* Setter for workers THROWS IllegalArgumentException if:
+        - workers is <1 in which case nothing would crawl.
+       Filters, the SummonerHistory and the OutputHandler are shared between the workers, so they must be thread-safe when workers >1. */
+    public void setWorkers(int workers) throws IllegalArgumentException {
+        if (workers < 1) throw new IllegalArgumentException("Nonsensical input for number of workers (less than 1)");
+        this.workers = workers;
+    }
+
+    /* Setter for prefetchThreads THROWS IllegalArgumentException if:
+        - prefetchThreads is <0 in which case nonsensical input.
+       With prefetchThreads >0, the participants of each crawlable match are filtered concurrently, and the next prefetchMatches matches
+       are loaded and filtered in the background, so the Summoner and league requests of a MatchHistory overlap rather than being made one by one.
+       The filters are then applied from several threads, so must be thread-safe. */
+    public void setPrefetchThreads(int prefetchThreads) throws IllegalArgumentException {
+        if (prefetchThreads < 0) throw new IllegalArgumentException("Nonsensical input for number of prefetch threads (less than 0)");
+        this.prefetchThreads = prefetchThreads;
+    }
+
+    /* Setter for prefetchMatches THROWS IllegalArgumentException if:
+        - prefetchMatches is <0 in which case nonsensical input. */
+    public void setPrefetchMatches(int prefetchMatches) throws IllegalArgumentException {
+        if (prefetchMatches < 0) throw new IllegalArgumentException("Nonsensical input for number of matches to prefetch (less than 0)");
+        this.prefetchMatches = prefetchMatches;
+    }
 }
@@ -6,6 +6,9 @@ import com.merakianalytics.orianna.types.core.match.Participant;
 import com.merakianalytics.orianna.types.core.summoner.Summoner;
 import com.omarathon.riotapicrawler.src.lib.handler.OutputHandler;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 public interface CrawlerListener {
     /*
         run method listeners
@@ -69,6 +72,12 @@ public interface CrawlerListener {
     // when a match from the match history is beginning to be processed
     void onProcessMatch(Match matchBeingProcessed);
 
+    // after the match being processed was loaded, with how long loading it took in nanoseconds (measured where it was loaded, e.g in the background when prefetching)
+    void onMatchLoaded(Match matchBeingProcessed, long loadNanos);
+
+    // after the match filter gave its verdict on the match being processed, with how long the filter took in nanoseconds (measured where it ran)
+    void onMatchFiltered(Match matchBeingProcessed, long filterNanos);
+
     // when the match being processed is crawlable
     void onCrawlableMatch(Match crawlableMatch);
 
@@ -78,6 +87,10 @@ public interface CrawlerListener {
     // when a participant from a crawlable match is being processed
     void onProcessParticipant(Participant participantBeingProcessed, Match matchBeingProcessed);
 
+    // after the summoner filter gave its verdict on a participant's summoner, with how long the filter took in nanoseconds (measured where it ran).
+    // not called for summoners already visited, since they aren't filtered
+    void onSummonerFiltered(Summoner summonerBeingProcessed, long filterNanos);
+
     // when a participant from a crawlable match is found to be crawlable, i.e the instance before we return from seekNextCrawl
     void onCrawlableParticipantFound(Participant crawlableParticipant, Summoner summonerOfParticipant, Match matchOfParticipant);
 
@@ -95,6 +108,20 @@ public interface CrawlerListener {
     void onStop();
 
 
+    /*
+        checkpoint and resume method listeners
+     */
+
+    // when a checkpoint of the crawl was written to the given file
+    void onCheckpoint(Path checkpointFile);
+
+    // when writing a checkpoint of the crawl to the given file failed
+    void onCheckpointFail(Path checkpointFile, IOException e);
+
+    // when the crawl is resumed from the given checkpoint file, from the given summoner
+    void onResume(Path checkpointFile, Summoner initialSummoner);
+
+
     /*
         setCrawlerConfig method listeners
      */
@@ -107,7 +134,7 @@ public interface CrawlerListener {
         setOutputHandler method listeners
      */
 
-    // when setOutputHandler is called
+    // when setOutputHandler is called, and with a null old output handler when the listener is given to a Crawler (constructed or via setListener)
     void onOutputHandlerUpdate(OutputHandler oldOutputHandler, OutputHandler newOutputHandler);
 
 
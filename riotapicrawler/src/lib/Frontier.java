@@ -0,0 +1,35 @@
+/*
+    Stores the crawlable Summoners found by the Crawler that are waiting to be crawled,
+    and decides the order in which they're crawled.
+
+    A Frontier is shared between all of the Crawler's workers, so implementations must be thread-safe.
+    Summoners may be offered more than once (e.g when they appear in several match histories, or are found by several workers),
+    so implementations keep a Summoner waiting once, not adding it again while it's in the frontier (identified by its SummonerKey).
+    The Crawler skips any it has already visited when it polls them.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+ */
+
+package com.omarathon.riotapicrawler.src.lib;
+
+import com.merakianalytics.orianna.types.core.summoner.Summoner;
+
+import java.util.List;
+
+public interface Frontier {
+    // adds the crawlable Summoners found from a single match history, except any already waiting. they may be dropped if the frontier is full
+    void offer(List<Summoner> summoners);
+
+    // removes and returns the next Summoner to crawl, or null if the frontier is empty
+    Summoner poll();
+
+    // number of Summoners waiting in the frontier
+    int size();
+
+    // removes every Summoner from the frontier
+    void clear();
+
+    // a copy of the Summoners waiting in the frontier, in no particular order, e.g for a checkpoint
+    List<Summoner> snapshot();
+}
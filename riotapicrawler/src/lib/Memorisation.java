@@ -0,0 +1,74 @@
+/*
+    Lets whatever reaches a result (e.g an estimate, or a filter's verdict) say that it mustn't be memorised,
+    e.g as it's based on an incomplete estimate, by calling doNotMemorise while reaching it.
+
+    Caches get their values through get, which only caches a value if doNotMemorise wasn't called on the thread while reaching it.
+    Anything reached from such a value isn't memorised either: the mark carries on to whatever value is being reached around it on the thread,
+    e.g a MatchFilter's verdict on a Match whose estimate was cut short, so a cache of verdicts wrapping a cache of estimates never
+    remembers a verdict the estimates didn't.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+ */
+
+package com.omarathon.riotapicrawler.src.lib;
+
+import com.google.common.cache.Cache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+public final class Memorisation {
+    // whether the value being reached on each thread mustn't be memorised
+    private static final ThreadLocal<boolean[]> notMemorable = ThreadLocal.withInitial(() -> new boolean[1]);
+
+    private Memorisation() { }
+
+    // marks the value being reached on this thread as not to be memorised
+    public static void doNotMemorise() {
+        notMemorable.get()[0] = true;
+    }
+
+    /* The cached value for the key, otherwise reaches it with the supplier, caching it unless it mustn't be memorised.
+       Concurrent gets of the same key share one reach, whether or not its value is cached.
+       THROWS: ExecutionException or UncheckedExecutionException (as Cache.get) if reaching the value threw. */
+    public static <V> V get(Cache<Object, V> cache, Object key, Supplier<V> supplier) throws ExecutionException {
+        try {
+            return cache.get(key, () -> {
+                boolean[] mark = notMemorable.get();
+                boolean outer = mark[0];
+                mark[0] = false;
+                try {
+                    V value = supplier.get();
+                    // Guava caches whatever the loader returns, so only a throw keeps the value out of the cache
+                    if (mark[0]) throw new NotMemorable(value);
+                    return value;
+                }
+                finally {
+                    mark[0] |= outer;
+                }
+            });
+        }
+        catch (UncheckedExecutionException e) {
+            if (!(e.getCause() instanceof NotMemorable)) throw e;
+            // whether this thread reached the value or waited for another to, what it reaches from the value isn't memorised either
+            doNotMemorise();
+            @SuppressWarnings("unchecked") // thrown by the loader above, with a value of the cache's type
+            V value = (V) ((NotMemorable) e.getCause()).value;
+            return value;
+        }
+    }
+
+    // carries a value that was reached but mustn't be cached out of the cache's loader
+    private static final class NotMemorable extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Object value;
+
+        private NotMemorable(Object value) {
+            super(null, null, false, false);
+            this.value = value;
+        }
+    }
+}
@@ -2,14 +2,31 @@ package com.omarathon.riotapicrawler.src.lib;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
 import com.merakianalytics.orianna.types.core.match.MatchHistory;
 import com.merakianalytics.orianna.types.core.summoner.Summoner;
+import com.omarathon.riotapicrawler.src.lib.key.SummonerKey;
 
-import java.util.Random;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 public class SummonerHistory {
-    private Cache<Summoner, MatchHistory> cache;
+    private Cache<SummonerKey, VisitedSummoner> cache;
+    // Summoners that a crawler worker has claimed to crawl, which may not be in the cache yet
+    private Cache<SummonerKey, Boolean> claims;
+    // whether visited summoners are stored compactly, by their IDs and the IDs of their matches only
+    private final boolean compact;
+
+    /* Index over the keys of the cache, for picking a random visited summoner in constant time.
+       summoners holds the keys in no particular order, and positions maps each key to its index in summoners,
+       so a key is removed by swapping the last key into its place. Kept in sync with the cache by its removal listener. */
+    private final List<SummonerKey> summoners = new ArrayList<>();
+    private final Map<SummonerKey, Integer> positions = new HashMap<>();
 
     public SummonerHistory() {
         this(1, TimeUnit.DAYS);
@@ -21,37 +38,142 @@ public class SummonerHistory {
                 .maximumSize(100000));
     }
 
-    public SummonerHistory(CacheBuilder<Object, Object> builder) {
-        cache = builder.build();
+    public SummonerHistory(CacheBuilder<Object, Object> builder) throws IllegalStateException {
+        this(builder, false);
+    }
+
+    /* With compact true, only the platform, encrypted account and summoner IDs, and match IDs of each visited summoner are kept,
+       and their Orianna objects are rebuilt (lazily) when requested. This uses a small fraction of the memory of keeping the full
+       Orianna objects, so allows remembering many more summoners, at the cost of reloading a match history when backtracking to it.
+       THROWS: IllegalStateException if the builder already has a removal listener, since the history sets its own. */
+    public SummonerHistory(CacheBuilder<Object, Object> builder, boolean compact) throws IllegalStateException {
+        this.compact = compact;
+        claims = builder.build();
+        cache = builder.removalListener(this::onRemoval).build();
+    }
+
+    // a compact history remembering the given maximum number of summoners for the given duration
+    public static SummonerHistory compact(long maximumSize, long rememberDuration, TimeUnit rememberDurationUnit) {
+        return new SummonerHistory(CacheBuilder.newBuilder()
+                .expireAfterWrite(rememberDuration, rememberDurationUnit)
+                .maximumSize(maximumSize), true);
     }
 
     public void addVisitedSummoner(Summoner summoner, MatchHistory matchHistory) {
-        cache.put(summoner, matchHistory);
+        SummonerKey key = SummonerKey.of(summoner);
+        // build outside of the lock, since compacting may load the match history
+        VisitedSummoner visited = compact ? VisitedSummoner.compact(key, summoner, matchHistory) : VisitedSummoner.full(key, summoner, matchHistory);
+        synchronized (this) {
+            cache.put(key, visited);
+            index(key);
+        }
+    }
+
+    // adds an already built visited summoner, e.g one restored from a checkpoint
+    public synchronized void addVisitedSummoner(VisitedSummoner visited) {
+        cache.put(visited.getKey(), visited);
+        index(visited.getKey());
+    }
+
+    public synchronized void removeVisitedSummoner(Summoner summoner) {
+        SummonerKey key = SummonerKey.of(summoner);
+        cache.invalidate(key);
+        unindex(key);
     }
 
-    public void removeVisitedSummoner(Summoner summoner) {
-        cache.invalidate(summoner);
+    // atomically claims the summoner for crawling. returns true if the caller is the first to claim them, otherwise false.
+    public boolean claim(Summoner summoner) {
+        return claims.asMap().putIfAbsent(SummonerKey.of(summoner), Boolean.TRUE) == null;
     }
 
+    // true if the summoner has been visited, or is claimed by a worker that is crawling them
     public boolean wasVisited(Summoner summoner) {
-        return getMatchHistory(summoner) != null;
+        SummonerKey key = SummonerKey.of(summoner);
+        return cache.getIfPresent(key) != null || claims.getIfPresent(key) != null;
     }
 
     public MatchHistory getMatchHistory(Summoner summoner) {
-        return cache.getIfPresent(summoner);
+        VisitedSummoner visited = getVisitedSummoner(SummonerKey.of(summoner));
+        return (visited == null) ? null : visited.getMatchHistory();
+    }
+
+    public VisitedSummoner getVisitedSummoner(SummonerKey key) {
+        return cache.getIfPresent(key);
     }
 
     public MatchHistory getRandomMatchHistory() {
-        Object[] values = cache.asMap().values().toArray();
-        if (values.length == 0) return null;
-        return (MatchHistory) values[new Random().nextInt(values.length)];
+        return getRandomMatchHistory(null);
+    }
+
+    /* Returns the match history of a uniformly random visited summoner other than the excluded summoner (which may be null),
+       or null if there's no such summoner. Constant time, apart from dropping any expired summoners that are picked. */
+    public MatchHistory getRandomMatchHistory(Summoner excluded) {
+        VisitedSummoner visited = getRandomVisitedSummoner((excluded == null) ? null : SummonerKey.of(excluded));
+        // rebuild the match history outside of the lock
+        return (visited == null) ? null : visited.getMatchHistory();
     }
 
-    public Cache<Summoner, MatchHistory> getCache() {
+    public synchronized VisitedSummoner getRandomVisitedSummoner(SummonerKey excluded) {
+        while (true) {
+            Integer excludedPosition = (excluded == null) ? null : positions.get(excluded);
+            int candidates = (excludedPosition == null) ? summoners.size() : summoners.size() - 1;
+            if (candidates <= 0) return null;
+
+            // pick from every position but the excluded one, by skipping over it
+            int position = ThreadLocalRandom.current().nextInt(candidates);
+            if (excludedPosition != null && position >= excludedPosition) position++;
+
+            SummonerKey key = summoners.get(position);
+            VisitedSummoner visited = cache.getIfPresent(key);
+            if (visited != null) return visited;
+            // expired but not yet reported by the cache, so drop it and pick again
+            unindex(key);
+        }
+    }
+
+    // number of summoners in the history (may include expired summoners that haven't been cleaned up yet)
+    public synchronized int size() {
+        return summoners.size();
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
+
+    public Cache<SummonerKey, VisitedSummoner> getCache() {
         return cache;
     }
 
-    public void setCache(Cache<Summoner, MatchHistory> cache) {
+    /* Note that the input cache's removals (e.g expiry) aren't reported to the history,
+       so its removed summoners are only dropped from the history once picked by getRandomMatchHistory. */
+    public synchronized void setCache(Cache<SummonerKey, VisitedSummoner> cache) {
         this.cache = cache;
+        summoners.clear();
+        positions.clear();
+        for (SummonerKey key : cache.asMap().keySet()) {
+            index(key);
+        }
+    }
+
+    private synchronized void onRemoval(RemovalNotification<SummonerKey, VisitedSummoner> notification) {
+        // a replaced summoner is still in the cache
+        if (notification.getCause() != RemovalCause.REPLACED) unindex(notification.getKey());
+    }
+
+    private void index(SummonerKey key) {
+        if (positions.containsKey(key)) return;
+        positions.put(key, summoners.size());
+        summoners.add(key);
+    }
+
+    private void unindex(SummonerKey key) {
+        Integer position = positions.remove(key);
+        if (position == null) return;
+        int last = summoners.size() - 1;
+        SummonerKey moved = summoners.remove(last);
+        if (position != last) {
+            summoners.set(position, moved);
+            positions.put(moved, position);
+        }
     }
 }
@@ -0,0 +1,275 @@
+/*
+    A Summoner in the SummonerHistory, with the MatchHistory they were crawled with.
+
+    Either holds the full Orianna objects, or (in compact mode) only the Summoner's IDs and the IDs of their matches,
+    rebuilding the Orianna objects when they're requested.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+ */
+
+package com.omarathon.riotapicrawler.src.lib;
+
+import com.google.common.base.Predicate;
+import com.merakianalytics.orianna.Orianna;
+import com.merakianalytics.orianna.types.common.Platform;
+import com.merakianalytics.orianna.types.core.match.Match;
+import com.merakianalytics.orianna.types.core.match.MatchHistory;
+import com.merakianalytics.orianna.types.core.searchable.SearchableList;
+import com.merakianalytics.orianna.types.core.searchable.SearchableLists;
+import com.merakianalytics.orianna.types.core.summoner.Summoner;
+import com.merakianalytics.orianna.types.data.match.MatchList;
+import com.merakianalytics.orianna.types.data.match.MatchReference;
+import com.omarathon.riotapicrawler.src.lib.key.SummonerKey;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+
+public abstract class VisitedSummoner {
+    private final SummonerKey key;
+
+    private VisitedSummoner(SummonerKey key) {
+        this.key = key;
+    }
+
+    // holds the input Summoner and MatchHistory as they are
+    public static VisitedSummoner full(SummonerKey key, Summoner summoner, MatchHistory matchHistory) {
+        return new Full(key, summoner, matchHistory);
+    }
+
+    // holds only the IDs of the input Summoner and their matches. iterates the MatchHistory, so it will be loaded.
+    public static VisitedSummoner compact(SummonerKey key, Summoner summoner, MatchHistory matchHistory) {
+        return new Compact(key, summoner.getAccountId(), matchIds(matchHistory));
+    }
+
+    // holds the given IDs of a Summoner and their matches, e.g when restoring from a checkpoint
+    public static VisitedSummoner compact(SummonerKey key, String accountId, long[] matchIds) {
+        return new Compact(key, accountId, matchIds.clone());
+    }
+
+    public SummonerKey getKey() {
+        return key;
+    }
+
+    public abstract String getAccountId();
+
+    public abstract Summoner getSummoner();
+
+    public abstract MatchHistory getMatchHistory();
+
+    // the IDs of the matches in the MatchHistory the Summoner was crawled with, most recent first
+    public abstract long[] getMatchIds();
+
+    private static long[] matchIds(MatchHistory matchHistory) {
+        if (!matchHistory.exists()) return new long[0];
+        long[] ids = new long[matchHistory.size()];
+        int i = 0;
+        for (Match match : matchHistory) {
+            ids[i++] = match.getId();
+        }
+        return ids;
+    }
+
+    private static class Full extends VisitedSummoner {
+        private final Summoner summoner;
+        private final MatchHistory matchHistory;
+
+        private Full(SummonerKey key, Summoner summoner, MatchHistory matchHistory) {
+            super(key);
+            this.summoner = summoner;
+            this.matchHistory = matchHistory;
+        }
+
+        public String getAccountId() {
+            return summoner.getAccountId();
+        }
+
+        public Summoner getSummoner() {
+            return summoner;
+        }
+
+        public MatchHistory getMatchHistory() {
+            return matchHistory;
+        }
+
+        public long[] getMatchIds() {
+            return matchIds(matchHistory);
+        }
+    }
+
+    private static class Compact extends VisitedSummoner {
+        // the match history is obtained by account ID, so keep it to avoid loading the Summoner to rebuild it
+        private final String accountId;
+        private final long[] matchIds;
+
+        private Compact(SummonerKey key, String accountId, long[] matchIds) {
+            super(key);
+            this.accountId = accountId;
+            this.matchIds = matchIds;
+        }
+
+        public String getAccountId() {
+            return accountId;
+        }
+
+        public Summoner getSummoner() {
+            return getKey().toSummoner();
+        }
+
+        // the MatchHistory the Summoner was crawled with, rebuilt from the match IDs without requesting it again
+        public MatchHistory getMatchHistory() {
+            return new StoredMatchHistory(getKey().getPlatform(), accountId, matchIds);
+        }
+
+        public long[] getMatchIds() {
+            return matchIds.clone();
+        }
+    }
+
+    /* A MatchHistory of the given matches, each lazily loaded. Orianna's MatchHistory requests its next page once its matches run out,
+       so the list methods are answered from the given matches instead, and it never requests more.
+       The matches aren't serialisable, so it's serialised as the match IDs, and rebuilt from them when deserialised. */
+    private static class StoredMatchHistory extends MatchHistory {
+        private static final long serialVersionUID = 1L;
+
+        private final transient SearchableList<Match> matches;
+        private final Platform platform;
+        private final String accountId;
+        private final long[] matchIds;
+
+        private StoredMatchHistory(Platform platform, String accountId, long[] matchIds) {
+            super(matchList(platform, accountId, matchIds));
+            this.platform = platform;
+            this.accountId = accountId;
+            this.matchIds = matchIds;
+            List<Match> matches = new ArrayList<>(matchIds.length);
+            for (long matchId : matchIds) {
+                matches.add(Orianna.matchWithId(matchId).withPlatform(platform).get());
+            }
+            this.matches = SearchableLists.unmodifiableFrom(matches);
+            markAsGhostLoaded(MATCH_HISTORY_LOAD_GROUP);
+        }
+
+        private static MatchList matchList(Platform platform, String accountId, long[] matchIds) {
+            MatchList matchList = new MatchList(matchIds.length);
+            for (long matchId : matchIds) {
+                MatchReference reference = new MatchReference();
+                reference.setPlatform(platform.getTag());
+                reference.setId(matchId);
+                matchList.add(reference);
+            }
+            matchList.setPlatform(platform.getTag());
+            matchList.setAccountId(accountId);
+            matchList.setStartIndex(0);
+            matchList.setEndIndex(matchIds.length);
+            return matchList;
+        }
+
+        private Object writeReplace() {
+            return new SerialisedForm(platform, accountId, matchIds);
+        }
+
+        public boolean exists() {
+            return true;
+        }
+
+        public boolean contains(Object o) {
+            return matches.contains(o);
+        }
+
+        public boolean containsAll(Collection<?> c) {
+            return matches.containsAll(c);
+        }
+
+        public Match get(int index) {
+            return matches.get(index);
+        }
+
+        public int indexOf(Object o) {
+            return matches.indexOf(o);
+        }
+
+        public int lastIndexOf(Object o) {
+            return matches.lastIndexOf(o);
+        }
+
+        public boolean isEmpty() {
+            return matches.isEmpty();
+        }
+
+        public int size() {
+            return matches.size();
+        }
+
+        public Iterator<Match> iterator() {
+            return matches.iterator();
+        }
+
+        public ListIterator<Match> listIterator() {
+            return matches.listIterator();
+        }
+
+        public ListIterator<Match> listIterator(int index) {
+            return matches.listIterator(index);
+        }
+
+        public List<Match> subList(int fromIndex, int toIndex) {
+            return matches.subList(fromIndex, toIndex);
+        }
+
+        public Object[] toArray() {
+            return matches.toArray();
+        }
+
+        public <T> T[] toArray(T[] a) {
+            return matches.toArray(a);
+        }
+
+        public SearchableList<Match> filter(Predicate<Match> predicate) {
+            return matches.filter(predicate);
+        }
+
+        public SearchableList<Match> filter(Predicate<Match> predicate, boolean streaming) {
+            return matches.filter(predicate, streaming);
+        }
+
+        public Match find(Object item) {
+            return matches.find(item);
+        }
+
+        public Match find(Predicate<Match> predicate) {
+            return matches.find(predicate);
+        }
+
+        public SearchableList<Match> search(Object item) {
+            return matches.search(item);
+        }
+
+        public SearchableList<Match> search(Object item, boolean streaming) {
+            return matches.search(item, streaming);
+        }
+    }
+
+    // what a StoredMatchHistory is serialised as
+    private static class SerialisedForm implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final Platform platform;
+        private final String accountId;
+        private final long[] matchIds;
+
+        private SerialisedForm(Platform platform, String accountId, long[] matchIds) {
+            this.platform = platform;
+            this.accountId = accountId;
+            this.matchIds = matchIds;
+        }
+
+        private Object readResolve() {
+            return new StoredMatchHistory(platform, accountId, matchIds);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+/*
+    A component of the crawl whose state may be written to, and restored from, a crawl checkpoint.
+
+    The state written by writeCheckpoint must be readable by readCheckpoint of an instance of the same class,
+    which should merge it into (or replace) its current state.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+ */
+
+package com.omarathon.riotapicrawler.src.lib.checkpoint;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+public interface Checkpointable {
+    void writeCheckpoint(DataOutputStream out) throws IOException;
+
+    void readCheckpoint(DataInputStream in) throws IOException;
+}
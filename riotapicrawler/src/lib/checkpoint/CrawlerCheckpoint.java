@@ -0,0 +1,157 @@
+/*
+    Writes and reads compact checkpoints of a crawl, so that a stopped (or crashed) crawl can be resumed without
+    re-crawling the Summoners it already visited.
+
+    A checkpoint holds, in a gzipped binary file:
+        - the visited summoners in the SummonerHistory, by their IDs and the IDs of their matches
+        - the Summoners waiting in the Frontier, by their SummonerKey
+        - the state of the OutputHandler's SeenMatchIndex, if it's Checkpointable
+        - the verdicts of the MatchFilter and SummonerFilter, if they're Checkpointable
+
+    Each Checkpointable component's state is written with the name of its class, and is only restored into a component
+    of the same class (otherwise it's skipped), so a checkpoint may be resumed with a differently configured crawler.
+
+    A checkpoint is written to a temporary file next to the target, then moved over it, so the target always holds
+    a complete checkpoint even if writing fails part way.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+ */
+
+package com.omarathon.riotapicrawler.src.lib.checkpoint;
+
+import com.merakianalytics.orianna.types.core.summoner.Summoner;
+import com.omarathon.riotapicrawler.src.lib.CrawlerConfig;
+import com.omarathon.riotapicrawler.src.lib.SummonerHistory;
+import com.omarathon.riotapicrawler.src.lib.VisitedSummoner;
+import com.omarathon.riotapicrawler.src.lib.handler.OutputHandler;
+import com.omarathon.riotapicrawler.src.lib.key.SummonerKey;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public final class CrawlerCheckpoint {
+    // "RACP", marks a file as a crawler checkpoint
+    private static final int MAGIC = 0x52414350;
+    private static final int VERSION = 1;
+
+    private CrawlerCheckpoint() {}
+
+    // writes a checkpoint of the crawl using the given config and output handler to the given file, replacing it
+    public static void write(CrawlerConfig crawlerConfig, OutputHandler outputHandler, Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(temporary))))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeSummonerHistory(out, crawlerConfig.getSummonerHistory());
+            writeFrontier(out, crawlerConfig.getFrontier().snapshot());
+            writeComponent(out, outputHandler.getSeenMatchIndex());
+            writeComponent(out, crawlerConfig.getMatchFilter());
+            writeComponent(out, crawlerConfig.getSummonerFilter());
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException e) { // e.g a different file store, so settle for a plain replace
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /* Restores the checkpoint in the given file into the given config and output handler: visited summoners are added to
+       the SummonerHistory (in compact form, whatever the history's mode), and Summoners are offered to the Frontier.
+       THROWS: IOException if the file can't be read or isn't a checkpoint of a supported version. */
+    public static void read(CrawlerConfig crawlerConfig, OutputHandler outputHandler, Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a crawler checkpoint: " + file);
+            int version = in.readInt();
+            if (version != VERSION) throw new IOException("Unsupported crawler checkpoint version: " + version);
+            readSummonerHistory(in, crawlerConfig.getSummonerHistory());
+            crawlerConfig.getFrontier().offer(readFrontier(in));
+            readComponent(in, outputHandler.getSeenMatchIndex());
+            readComponent(in, crawlerConfig.getMatchFilter());
+            readComponent(in, crawlerConfig.getSummonerFilter());
+        }
+    }
+
+    private static void writeSummonerHistory(DataOutputStream out, SummonerHistory summonerHistory) throws IOException {
+        // copy first, since the cache may change while it's written
+        List<VisitedSummoner> visited = new ArrayList<>(summonerHistory.getCache().asMap().values());
+        out.writeInt(visited.size());
+        for (VisitedSummoner visitedSummoner : visited) {
+            visitedSummoner.getKey().writeTo(out);
+            out.writeUTF(visitedSummoner.getAccountId());
+            long[] matchIds = visitedSummoner.getMatchIds();
+            out.writeInt(matchIds.length);
+            for (long matchId : matchIds) {
+                out.writeLong(matchId);
+            }
+        }
+    }
+
+    private static void readSummonerHistory(DataInputStream in, SummonerHistory summonerHistory) throws IOException {
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            SummonerKey key = SummonerKey.readFrom(in);
+            String accountId = in.readUTF();
+            long[] matchIds = new long[in.readInt()];
+            for (int j = 0; j < matchIds.length; j++) {
+                matchIds[j] = in.readLong();
+            }
+            summonerHistory.addVisitedSummoner(VisitedSummoner.compact(key, accountId, matchIds));
+        }
+    }
+
+    private static void writeFrontier(DataOutputStream out, List<Summoner> summoners) throws IOException {
+        out.writeInt(summoners.size());
+        for (Summoner summoner : summoners) {
+            SummonerKey.of(summoner).writeTo(out);
+        }
+    }
+
+    private static List<Summoner> readFrontier(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        List<Summoner> summoners = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            summoners.add(SummonerKey.readFrom(in).toSummoner());
+        }
+        return summoners;
+    }
+
+    // writes the component's class name and length-prefixed state, or an empty section if it isn't Checkpointable
+    private static void writeComponent(DataOutputStream out, Object component) throws IOException {
+        if (!(component instanceof Checkpointable)) {
+            out.writeUTF("");
+            out.writeInt(0);
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream componentOut = new DataOutputStream(bytes)) {
+            ((Checkpointable) component).writeCheckpoint(componentOut);
+        }
+        out.writeUTF(component.getClass().getName());
+        out.writeInt(bytes.size());
+        bytes.writeTo(out);
+    }
+
+    private static void readComponent(DataInputStream in, Object component) throws IOException {
+        String className = in.readUTF();
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        if (component instanceof Checkpointable && component.getClass().getName().equals(className)) {
+            ((Checkpointable) component).readCheckpoint(new DataInputStream(new ByteArrayInputStream(bytes)));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+    A filter combining several child filters, which short-circuits like && or ||.
+
+    Measures the cost (time) and selectivity (pass rate) of each child as it's evaluated, and periodically reorders
+    the children to minimise the expected cost of a decision, assuming the children are independent: a child is ranked by
+    its average cost over the probability that it decides the result on its own (rejecting, for an AndFilter, or passing,
+    for an OrFilter). So cheap, decisive children run first, and e.g an expensive league lookup only runs for Matches that
+    pass the cheap queue check. A child that hasn't been evaluated yet is tried first, so every child gets measured.
+
+    Children that are MemorisingFilters are evaluated through their cache (via apply), and otherwise via filter.
+    Thread-safe, as long as the children are.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+ */
+
+package com.omarathon.riotapicrawler.src.lib.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public abstract class CompositeFilter<F> implements Filter<F> {
+    // number of decisions between reorderings of the children
+    private static final long REORDER_INTERVAL = 64;
+
+    private final List<Child<F>> children;
+    // the children in the order they're evaluated
+    private volatile List<Child<F>> order;
+    private final AtomicLong decisions = new AtomicLong();
+
+    // THROWS: IllegalArgumentException if there are no children
+    protected CompositeFilter(List<? extends Filter<F>> filters) throws IllegalArgumentException {
+        if (filters.isEmpty()) throw new IllegalArgumentException("A composite filter needs at least one child filter!");
+        List<Child<F>> children = new ArrayList<>(filters.size());
+        for (Filter<F> filter : filters) {
+            children.add(new Child<>(filter));
+        }
+        this.children = Collections.unmodifiableList(children);
+        order = this.children;
+    }
+
+    public boolean filter(F o) {
+        boolean decidingResult = decidingResult();
+        if (decisions.incrementAndGet() % REORDER_INTERVAL == 0) reorder();
+        for (Child<F> child : order) {
+            if (child.evaluate(o) == decidingResult) return decidingResult;
+        }
+        return !decidingResult;
+    }
+
+    // the result of a child that decides the result of the whole filter (false for an AndFilter, true for an OrFilter)
+    protected abstract boolean decidingResult();
+
+    // statistics for each child, in the order they're currently evaluated
+    public List<FilterStatistics> getStatistics() {
+        List<FilterStatistics> statistics = new ArrayList<>(children.size());
+        for (Child<F> child : order) {
+            statistics.add(child.statistics());
+        }
+        return statistics;
+    }
+
+    // number of decisions the filter has made
+    public long getDecisions() {
+        return decisions.get();
+    }
+
+    private void reorder() {
+        boolean decidingResult = decidingResult();
+        Integer[] indices = new Integer[children.size()];
+        double[] ranks = new double[children.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+            ranks[i] = children.get(i).rank(decidingResult);
+        }
+        // a stable sort, so ties keep the order the children were given in
+        Arrays.sort(indices, Comparator.comparingDouble(i -> ranks[i]));
+        List<Child<F>> reordered = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            reordered.add(children.get(index));
+        }
+        order = Collections.unmodifiableList(reordered);
+    }
+
+    private static final class Child<F> {
+        private final Filter<F> filter;
+        private final LongAdder evaluations = new LongAdder();
+        private final LongAdder passes = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+
+        private Child(Filter<F> filter) {
+            this.filter = filter;
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean evaluate(F o) {
+            long start = System.nanoTime();
+            boolean result = (filter instanceof MemorisingFilter) ? ((MemorisingFilter<F>) filter).apply(o) : filter.filter(o);
+            totalNanos.add(System.nanoTime() - start);
+            evaluations.increment();
+            if (result) passes.increment();
+            return result;
+        }
+
+        // expected cost per decision this child makes. lower is evaluated earlier, and an unmeasured child is lowest.
+        private double rank(boolean decidingResult) {
+            long evaluations = this.evaluations.sum();
+            if (evaluations == 0) return Double.NEGATIVE_INFINITY;
+            long deciding = decidingResult ? passes.sum() : evaluations - passes.sum();
+            // smoothed, so a child that has never decided still has a (small) chance to
+            double decidingRate = (deciding + 1.0) / (evaluations + 2.0);
+            return ((double) totalNanos.sum() / evaluations) / decidingRate;
+        }
+
+        private FilterStatistics statistics() {
+            return new FilterStatistics(filter, evaluations.sum(), passes.sum(), totalNanos.sum());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+    A snapshot of how a child of a CompositeFilter has performed: how often it was evaluated, how often it passed,
+    and how long it took on average.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+ */
+
+package com.omarathon.riotapicrawler.src.lib.filter;
+
+public final class FilterStatistics {
+    private final Filter<?> filter;
+    private final long evaluations;
+    private final long passes;
+    private final long totalNanos;
+
+    FilterStatistics(Filter<?> filter, long evaluations, long passes, long totalNanos) {
+        this.filter = filter;
+        this.evaluations = evaluations;
+        this.passes = passes;
+        this.totalNanos = totalNanos;
+    }
+
+    public Filter<?> getFilter() {
+        return filter;
+    }
+
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    public long getPasses() {
+        return passes;
+    }
+
+    // fraction of evaluations that passed (0 if never evaluated)
+    public double getPassRate() {
+        return (evaluations == 0) ? 0 : (double) passes / evaluations;
+    }
+
+    // average time an evaluation took, in nanoseconds (0 if never evaluated)
+    public double getAverageNanos() {
+        return (evaluations == 0) ? 0 : (double) totalNanos / evaluations;
+    }
+
+    @Override
+    public String toString() {
+        return filter.getClass().getSimpleName() + ": " + evaluations + " evaluations, "
+                + String.format("%.1f%% passed, %.3fms average", getPassRate() * 100, getAverageNanos() / 1e6);
+    }
+}
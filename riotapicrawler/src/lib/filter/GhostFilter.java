@@ -1,10 +1,34 @@
 package com.omarathon.riotapicrawler.src.lib.filter;
 
+import com.google.common.cache.CacheBuilder;
 import com.merakianalytics.orianna.types.core.GhostObject;
 
+import java.util.function.Function;
+
 public abstract class GhostFilter<F extends GhostObject> extends MemorisingFilter<F>{
+    public GhostFilter(CacheBuilder<Object, Object> cacheBuilder, Function<? super F, ?> keyExtractor) {
+        super(cacheBuilder, keyExtractor);
+    }
+
+    public GhostFilter(CacheBuilder<Object, Object> cacheBuilder) {
+        super(cacheBuilder);
+    }
+
+    public GhostFilter(Function<? super F, ?> keyExtractor) {
+        super(keyExtractor);
+    }
+
+    public GhostFilter() {
+        super();
+    }
+
     @Override
     public boolean apply(F o) {
+        // a remembered verdict saves loading the object to check it exists
+        Boolean verdict = getVerdict(o);
+        if (verdict != null) {
+            return verdict;
+        }
         if (!o.exists()) {
             return false;
         }
@@ -3,13 +3,50 @@
 
     Is a ContextFilter that filters Match objects, with context in the filter method the RiotApi instance.
 
+    Its verdicts are remembered by MatchKey, so the same Match seen through different match histories hits the cache,
+    and may be checkpointed.
+
     Author: Omar Tanner (omarathon)
     Copyright © 2019 omarathon
  */
 
 package com.omarathon.riotapicrawler.src.lib.filter;
 
+import com.google.common.cache.CacheBuilder;
 import com.merakianalytics.orianna.types.core.match.Match;
+import com.omarathon.riotapicrawler.src.lib.checkpoint.Checkpointable;
+import com.omarathon.riotapicrawler.src.lib.key.MatchKey;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+public abstract class MatchFilter extends GhostFilter<Match> implements Checkpointable {
+    public MatchFilter(CacheBuilder<Object, Object> cacheBuilder) {
+        super(cacheBuilder, MatchKey::of);
+    }
+
+    public MatchFilter() {
+        super(MatchKey::of);
+    }
+
+    public void writeCheckpoint(DataOutputStream out) throws IOException {
+        // copy first, since the cache may change while it's written
+        Map<Object, Boolean> verdicts = new HashMap<>(getKeyedCache().asMap());
+        out.writeInt(verdicts.size());
+        for (Map.Entry<Object, Boolean> entry : verdicts.entrySet()) {
+            out.writeLong((Long) entry.getKey());
+            out.writeBoolean(entry.getValue());
+        }
+    }
 
-public abstract class MatchFilter extends GhostFilter<Match> {
+    public void readCheckpoint(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            long key = in.readLong();
+            getKeyedCache().put(key, in.readBoolean());
+        }
+    }
 }
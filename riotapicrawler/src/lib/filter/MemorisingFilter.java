@@ -1,42 +1,132 @@
+/*
+    A Filter which remembers its verdicts, so each item is only filtered once (until the cache expires).
+
+    Verdicts are cached by the key the key extractor gives for each item, which is the item itself by default.
+    Extracting a compact ID (e.g a SummonerKey) means the cache doesn't retain the items, and the same item obtained
+    through different objects hits the cache.
+    Verdicts reached from results that mustn't be memorised (see Memorisation, e.g an estimate cut short by a deadline) aren't remembered.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+ */
+
 package com.omarathon.riotapicrawler.src.lib.filter;
 
+import com.google.common.cache.AbstractLoadingCache;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
 import com.google.common.util.concurrent.ExecutionError;
 import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.omarathon.riotapicrawler.src.lib.Memorisation;
 
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 public abstract class MemorisingFilter<F> implements Filter<F> {
-    private LoadingCache<F, Boolean> cache;
+    private Cache<Object, Boolean> cache;
+    private Function<? super F, ?> keyExtractor;
+    // whether the items are their own keys, i.e no key extractor was given
+    private boolean keyedByItem;
+
+    public MemorisingFilter(CacheBuilder<Object, Object> cacheBuilder, Function<? super F, ?> keyExtractor) {
+        this(cacheBuilder, keyExtractor, false);
+    }
 
     public MemorisingFilter(CacheBuilder<Object, Object> cacheBuilder) {
-        cache = cacheBuilder.build(new CacheLoader<F, Boolean>() {
-            @Override
-            public Boolean load(F o) throws Exception {
-                return filter(o);
-            }
-        });
+        this(cacheBuilder, Function.identity(), true);
+    }
+
+    public MemorisingFilter(Function<? super F, ?> keyExtractor) {
+        this(defaultCacheBuilder(), keyExtractor, false);
     }
 
     public MemorisingFilter() {
-        this(CacheBuilder.newBuilder()
-                        .expireAfterWrite(3, TimeUnit.HOURS)
-                        .maximumSize(100000));
+        this(defaultCacheBuilder(), Function.identity(), true);
+    }
+
+    private MemorisingFilter(CacheBuilder<Object, Object> cacheBuilder, Function<? super F, ?> keyExtractor, boolean keyedByItem) {
+        this.cache = cacheBuilder.build();
+        this.keyExtractor = keyExtractor;
+        this.keyedByItem = keyedByItem;
+    }
+
+    private static CacheBuilder<Object, Object> defaultCacheBuilder() {
+        return CacheBuilder.newBuilder()
+                .expireAfterWrite(3, TimeUnit.HOURS)
+                .maximumSize(100000);
     }
 
     public boolean apply(F filterItem) {
         try {
-            return cache.get(filterItem);
+            return Memorisation.get(cache, keyExtractor.apply(filterItem), () -> filter(filterItem));
         }
         catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
             return filter(filterItem);
         }
     }
 
-    public LoadingCache<F, Boolean> getCache() {
+    // the remembered verdict for the item, or null if there's none
+    public Boolean getVerdict(F filterItem) {
+        return cache.getIfPresent(keyExtractor.apply(filterItem));
+    }
+
+    // the remembered verdicts, by the key of each item
+    public Cache<Object, Boolean> getKeyedCache() {
         return cache;
     }
+
+    /* A view of the remembered verdicts by item, whose gets filter the items they miss (as apply).
+       Its asMap is only supported if no key extractor was given, as otherwise the items can't be obtained from their keys.
+       Deprecated as verdicts are held by key, so use getKeyedCache or getVerdict. */
+    @Deprecated
+    public LoadingCache<F, Boolean> getCache() {
+        return new ItemCache();
+    }
+
+    // the remembered verdicts as a LoadingCache of the items, for getCache
+    private final class ItemCache extends AbstractLoadingCache<F, Boolean> {
+        public Boolean get(F filterItem) throws ExecutionException {
+            return Memorisation.get(cache, keyExtractor.apply(filterItem), () -> filter(filterItem));
+        }
+
+        @SuppressWarnings("unchecked") // as with a LoadingCache, only items of the filter's type are expected
+        public Boolean getIfPresent(Object filterItem) {
+            return cache.getIfPresent(keyExtractor.apply((F) filterItem));
+        }
+
+        public void put(F filterItem, Boolean verdict) {
+            cache.put(keyExtractor.apply(filterItem), verdict);
+        }
+
+        @SuppressWarnings("unchecked") // as above
+        public void invalidate(Object filterItem) {
+            cache.invalidate(keyExtractor.apply((F) filterItem));
+        }
+
+        public void invalidateAll() {
+            cache.invalidateAll();
+        }
+
+        public long size() {
+            return cache.size();
+        }
+
+        public CacheStats stats() {
+            return cache.stats();
+        }
+
+        public void cleanUp() {
+            cache.cleanUp();
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"}) // the items are the keys
+        public ConcurrentMap<F, Boolean> asMap() {
+            if (!keyedByItem) throw new UnsupportedOperationException("The verdicts are held by key, so use getKeyedCache!");
+            return (ConcurrentMap) cache.asMap();
+        }
+    }
 }
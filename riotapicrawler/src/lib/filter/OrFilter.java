@@ -0,0 +1,21 @@
+/*
+    A CompositeFilter that passes an input if any child filter passes it, evaluating the children until one passes (like ||).
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+ */
+
+package com.omarathon.riotapicrawler.src.lib.filter;
+
+import java.util.List;
+
+public class OrFilter<F> extends CompositeFilter<F> {
+    // THROWS: IllegalArgumentException if there are no filters
+    public OrFilter(List<? extends Filter<F>> filters) throws IllegalArgumentException {
+        super(filters);
+    }
+
+    protected boolean decidingResult() {
+        return true;
+    }
+}
@@ -1,6 +1,50 @@
+/*
+    An abstract class which predicates the filter of an input Summoner.
+
+    Its verdicts are remembered by SummonerKey, so the same Summoner seen through different Participants hits the cache,
+    and may be checkpointed.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+ */
+
 package com.omarathon.riotapicrawler.src.lib.filter;
 
+import com.google.common.cache.CacheBuilder;
 import com.merakianalytics.orianna.types.core.summoner.Summoner;
+import com.omarathon.riotapicrawler.src.lib.checkpoint.Checkpointable;
+import com.omarathon.riotapicrawler.src.lib.key.SummonerKey;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+public abstract class SummonerFilter extends GhostFilter<Summoner> implements Checkpointable {
+    public SummonerFilter(CacheBuilder<Object, Object> cacheBuilder) {
+        super(cacheBuilder, SummonerKey::of);
+    }
+
+    public SummonerFilter() {
+        super(SummonerKey::of);
+    }
+
+    public void writeCheckpoint(DataOutputStream out) throws IOException {
+        // copy first, since the cache may change while it's written
+        Map<Object, Boolean> verdicts = new HashMap<>(getKeyedCache().asMap());
+        out.writeInt(verdicts.size());
+        for (Map.Entry<Object, Boolean> entry : verdicts.entrySet()) {
+            ((SummonerKey) entry.getKey()).writeTo(out);
+            out.writeBoolean(entry.getValue());
+        }
+    }
 
-public abstract class SummonerFilter extends GhostFilter<Summoner> {
+    public void readCheckpoint(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            SummonerKey key = SummonerKey.readFrom(in);
+            getKeyedCache().put(key, in.readBoolean());
+        }
+    }
 }
@@ -0,0 +1,310 @@
+/*
+    An OutputHandler that hands Matches off to another OutputHandler on its own worker threads, through a bounded queue,
+    so that a slow sink (e.g posting to a Firebase) doesn't hold up crawling.
+
+    When the queue is full, the Backpressure decides what happens to a new Match:
+        - BLOCK: the crawler waits for space, so crawling slows to the speed of the sink and nothing is lost
+        - DROP_OLDEST: the oldest queued Match is dropped to make space, so crawling never waits
+        - SPILL_TO_DISK: the Match's MatchKey is appended to a spill file, and the Match is reloaded (through Orianna)
+          and handled once the queue has emptied, so crawling never waits and nothing is lost
+
+    stop() (called by the Crawler when the crawl ends) waits for every queued and spilled Match to be handled, then stops
+    the wrapped handler. The workers start again if more Matches are applied afterwards.
+
+    Exposes the queue depth, the number of spilled, dropped, handled and failed Matches, and the latency of the wrapped handler.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+ */
+
+package com.omarathon.riotapicrawler.src.lib.handler;
+
+import com.merakianalytics.orianna.Orianna;
+import com.merakianalytics.orianna.types.common.Platform;
+import com.merakianalytics.orianna.types.core.match.Match;
+import com.omarathon.riotapicrawler.src.lib.key.MatchKey;
+import com.omarathon.riotapicrawler.src.lib.scheduler.RequestScheduler;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class AsyncOutputHandler extends OutputHandler {
+    public enum Backpressure {
+        BLOCK, DROP_OLDEST, SPILL_TO_DISK
+    }
+
+    // how long an idle worker waits for a Match before checking whether it should stop, in milliseconds
+    private static final long POLL_MILLIS = 100;
+
+    private final OutputHandler handler;
+    private final BlockingQueue<Match> queue;
+    private final int workers;
+    private final Backpressure backpressure;
+    private final Path spillPath;
+
+    private final List<Thread> workerThreads = new ArrayList<>();
+    private volatile boolean running = false;
+    // the spill file, used as a FIFO of MatchKeys: written at its end, read from readPosition (null until something is spilled)
+    private RandomAccessFile spillFile;
+    // the temporary spill file, deleted when stopped (null if spilling to the given file)
+    private Path temporarySpillPath;
+    private long readPosition = 0;
+
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder handled = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder handlerNanos = new LongAdder();
+    private final AtomicLong maxHandlerNanos = new AtomicLong();
+
+    // blocks when the queue is full
+    public AsyncOutputHandler(OutputHandler handler, int capacity, int workers) throws IllegalArgumentException {
+        this(handler, capacity, workers, Backpressure.BLOCK);
+    }
+
+    // spills to a temporary file, if spilling
+    public AsyncOutputHandler(OutputHandler handler, int capacity, int workers, Backpressure backpressure) throws IllegalArgumentException {
+        this(handler, capacity, workers, backpressure, null);
+    }
+
+    /* INPUTS: the OutputHandler to hand Matches off to (which must be thread-safe if workers >1), the capacity of the queue,
+               the number of worker threads, the Backpressure when the queue is full, and the file to spill to (or null for a temporary file).
+       THROWS: IllegalArgumentException if:
+        - capacity is <1,
+        - workers is <1. */
+    public AsyncOutputHandler(OutputHandler handler, int capacity, int workers, Backpressure backpressure, Path spillPath) throws IllegalArgumentException {
+        if (capacity < 1) throw new IllegalArgumentException("Nonsensical input for queue capacity (less than 1)");
+        if (workers < 1) throw new IllegalArgumentException("Nonsensical input for number of workers (less than 1)");
+        this.handler = handler;
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.workers = workers;
+        this.backpressure = backpressure;
+        this.spillPath = spillPath;
+    }
+
+    public void handle(Match match) {
+        start();
+        switch (backpressure) {
+            case BLOCK:
+                try {
+                    queue.put(match);
+                }
+                catch (InterruptedException e) { // handle it on this thread instead, and preserve the interrupt
+                    Thread.currentThread().interrupt();
+                    handleNow(match);
+                }
+                break;
+
+            case DROP_OLDEST:
+                while (!queue.offer(match)) {
+                    if (queue.poll() != null) dropped.increment();
+                }
+                break;
+
+            case SPILL_TO_DISK:
+                // once anything is spilled, keep spilling until the spill file is read back, so Matches stay in order
+                if (hasSpilled() || !queue.offer(match)) spill(match);
+                break;
+        }
+    }
+
+    // waits for every queued and spilled Match to be handled, then stops the workers and the wrapped handler
+    @Override
+    public void stop() {
+        List<Thread> stopping;
+        synchronized (this) {
+            running = false;
+            stopping = new ArrayList<>(workerThreads);
+            workerThreads.clear();
+        }
+        for (Thread worker : stopping) {
+            try {
+                worker.join();
+            }
+            catch (InterruptedException e) { // stop waiting, and preserve the interrupt
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        closeSpillFile();
+        handler.stop();
+    }
+
+    private synchronized void start() {
+        if (running) return;
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            Thread worker = new Thread(this::work, "output-worker-" + i);
+            worker.setDaemon(true);
+            workerThreads.add(worker);
+            worker.start();
+        }
+    }
+
+    private void work() {
+        while (true) {
+            // queued Matches came before any spilled ones, and only wait for the queue when there's nothing spilled to read back
+            Match match = queue.poll();
+            if (match == null) match = unspill();
+            if (match == null) {
+                try {
+                    match = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                catch (InterruptedException e) {
+                    return;
+                }
+            }
+            if (match == null) {
+                // nothing left to handle, so stop if stopping
+                if (!running) return;
+                continue;
+            }
+            handleNow(match);
+        }
+    }
+
+    private void handleNow(Match match) {
+        long start = System.nanoTime();
+        try {
+            handler.apply(match);
+            handled.increment();
+        }
+        catch (RuntimeException e) { // a failing Match mustn't stop the worker
+            failed.increment();
+        }
+        finally {
+            long nanos = System.nanoTime() - start;
+            handlerNanos.add(nanos);
+            maxHandlerNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    private synchronized boolean hasSpilled() {
+        try {
+            return spillFile != null && readPosition < spillFile.length();
+        }
+        catch (IOException e) {
+            return false;
+        }
+    }
+
+    private synchronized void spill(Match match) {
+        try {
+            if (spillFile == null) {
+                Path path = spillPath;
+                if (path == null) path = temporarySpillPath = Files.createTempFile("crawler-spill", ".bin");
+                spillFile = new RandomAccessFile(path.toFile(), "rw");
+                spillFile.setLength(0);
+                readPosition = 0;
+            }
+            spillFile.seek(spillFile.length());
+            spillFile.writeLong(MatchKey.of(match));
+            spilled.increment();
+        }
+        catch (IOException e) { // can't spill, so the Match is lost
+            dropped.increment();
+        }
+    }
+
+    // the next spilled Match that could be reloaded, or null if there's none. Matches that fail to reload count as failed.
+    private Match unspill() {
+        while (true) {
+            long matchKey;
+            synchronized (this) {
+                try {
+                    if (spillFile == null || readPosition >= spillFile.length()) return null;
+                    spillFile.seek(readPosition);
+                    matchKey = spillFile.readLong();
+                    readPosition += Long.BYTES;
+                    spilled.decrement();
+                    // read back completely, so start the file again
+                    if (readPosition >= spillFile.length()) {
+                        spillFile.setLength(0);
+                        readPosition = 0;
+                    }
+                }
+                catch (IOException e) {
+                    return null;
+                }
+            }
+            try {
+                return reload(matchKey);
+            }
+            catch (RuntimeException e) { // e.g the request failed, so the Match is lost, but mustn't stop the worker
+                failed.increment();
+            }
+        }
+    }
+
+    // reloads outside of the lock, through the scheduler so it's held to the rate limit like any other request
+    private static Match reload(long matchKey) {
+        Platform platform = MatchKey.platformOf(matchKey);
+        long gameId = MatchKey.gameIdOf(matchKey);
+        return RequestScheduler.shared().call(platform, RequestScheduler.MATCH, Long.toString(gameId), RequestScheduler.Priority.NORMAL, () -> {
+            Match match = Orianna.matchWithId(gameId).withPlatform(platform).get();
+            match.load();
+            return match;
+        });
+    }
+
+    private synchronized void closeSpillFile() {
+        if (spillFile == null) return;
+        try {
+            spillFile.close();
+            if (temporarySpillPath != null) Files.deleteIfExists(temporarySpillPath);
+        }
+        catch (IOException e) {
+            // nothing left in it to lose
+        }
+        spillFile = null;
+        temporarySpillPath = null;
+        readPosition = 0;
+    }
+
+    // metrics
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    // number of Matches currently in the spill file
+    public long getSpilled() {
+        return spilled.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getHandled() {
+        return handled.sum();
+    }
+
+    // number of Matches the wrapped handler threw on, or that were spilled and couldn't be reloaded
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    // average time the wrapped handler took per Match, in milliseconds (0 if none yet)
+    public double getAverageHandlerMillis() {
+        long count = handled.sum() + failed.sum();
+        return (count == 0) ? 0 : handlerNanos.sum() / (count * 1e6);
+    }
+
+    public long getMaxHandlerMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxHandlerNanos.get());
+    }
+
+    public OutputHandler getHandler() {
+        return handler;
+    }
+}
@@ -10,6 +10,12 @@ public class FilteringOutputHandlerFactory {
             public void handle(Match input) {
                 outputHandler.handle(input);
             }
+
+            // let the wrapped handler drain or flush anything it's holding when the crawl ends
+            @Override
+            public void stop() {
+                outputHandler.stop();
+            }
         };
     }
 }
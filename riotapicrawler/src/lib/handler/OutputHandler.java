@@ -2,9 +2,18 @@ package com.omarathon.riotapicrawler.src.lib.handler;
 
 import com.merakianalytics.orianna.types.core.match.Match;
 import com.merakianalytics.orianna.types.core.match.MatchHistory;
+import com.omarathon.riotapicrawler.src.lib.key.MatchKey;
+
+import java.util.concurrent.atomic.LongAdder;
 
 public abstract class OutputHandler implements Handler<Match> {
+    // if set, Matches that have already been seen are not handled again
+    private SeenMatchIndex seenMatchIndex;
+    private final LongAdder handledMatches = new LongAdder();
+
     public void apply(Match match) {
+        if (seenMatchIndex != null && !seenMatchIndex.markSeen(MatchKey.of(match))) return;
+        handledMatches.increment();
         handle(match);
     }
 
@@ -13,4 +22,22 @@ public abstract class OutputHandler implements Handler<Match> {
             apply(match);
         }
     }
+
+    // called by the Crawler when the crawl ends, after the last Match has been applied. handlers that buffer or hand off Matches should finish handling them here.
+    public void stop() {
+    }
+
+    // number of Matches passed on to handle, i.e those applied that weren't already seen (or filtered out, by a FilteringOutputHandler)
+    public long getHandledMatches() {
+        return handledMatches.sum();
+    }
+
+    public SeenMatchIndex getSeenMatchIndex() {
+        return seenMatchIndex;
+    }
+
+    // set to null to handle every Match, including ones already seen
+    public void setSeenMatchIndex(SeenMatchIndex seenMatchIndex) {
+        this.seenMatchIndex = seenMatchIndex;
+    }
 }
@@ -0,0 +1,20 @@
+/*
+    Remembers which Matches have already been output, so that an OutputHandler only handles each Match once
+    (a Match is found through each of its participants' match histories).
+
+    Matches are identified by their MatchKey. Implementations have a fixed memory budget, so may eventually forget
+    old Matches, and must be thread-safe since an OutputHandler is shared between the Crawler's workers.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+ */
+
+package com.omarathon.riotapicrawler.src.lib.handler;
+
+public interface SeenMatchIndex {
+    // marks the Match with the given MatchKey as seen. returns true if it wasn't seen before, otherwise false.
+    boolean markSeen(long matchKey);
+
+    // true if the Match with the given MatchKey has been seen (or, for probabilistic indexes, probably has been)
+    boolean wasSeen(long matchKey);
+}
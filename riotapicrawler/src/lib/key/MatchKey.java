@@ -0,0 +1,37 @@
+/*
+    Encodes a Match's Platform and game ID into a single primitive long, for compact keys of Matches.
+
+    Game IDs fit within the low 56 bits, and the Platform's ordinal occupies the high bits.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+ */
+
+package com.omarathon.riotapicrawler.src.lib.key;
+
+import com.merakianalytics.orianna.types.common.Platform;
+import com.merakianalytics.orianna.types.core.match.Match;
+
+public final class MatchKey {
+    private static final int PLATFORM_SHIFT = 56;
+    private static final long GAME_ID_MASK = (1L << PLATFORM_SHIFT) - 1;
+
+    private MatchKey() { }
+
+    // the key of an Orianna Match, which only requires it to have its platform and ID
+    public static long of(Match match) {
+        return of(match.getPlatform(), match.getId());
+    }
+
+    public static long of(Platform platform, long gameId) {
+        return ((long) platform.ordinal() << PLATFORM_SHIFT) | (gameId & GAME_ID_MASK);
+    }
+
+    public static Platform platformOf(long key) {
+        return Platform.values()[(int) (key >>> PLATFORM_SHIFT)];
+    }
+
+    public static long gameIdOf(long key) {
+        return key & GAME_ID_MASK;
+    }
+}
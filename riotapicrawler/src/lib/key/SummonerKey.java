@@ -0,0 +1,77 @@
+/*
+    A compact, immutable identifier for a Summoner: their Platform and encrypted summoner ID.
+
+    Unlike an Orianna Summoner, it's equal for the same Summoner however it was obtained (and whether or not it's loaded),
+    so it's suitable as a key in caches and sets.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+ */
+
+package com.omarathon.riotapicrawler.src.lib.key;
+
+import com.merakianalytics.orianna.Orianna;
+import com.merakianalytics.orianna.types.common.Platform;
+import com.merakianalytics.orianna.types.core.summoner.Summoner;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Objects;
+
+public final class SummonerKey {
+    private final Platform platform;
+    private final String summonerId;
+
+    public SummonerKey(Platform platform, String summonerId) {
+        this.platform = platform;
+        this.summonerId = summonerId;
+    }
+
+    // the key of an Orianna Summoner, which only requires them to have their platform and ID
+    public static SummonerKey of(Summoner summoner) {
+        return new SummonerKey(summoner.getPlatform(), summoner.getId());
+    }
+
+    // reads a key written by writeTo
+    public static SummonerKey readFrom(DataInput in) throws IOException {
+        Platform platform = Platform.values()[in.readUnsignedByte()];
+        return new SummonerKey(platform, in.readUTF());
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeByte(platform.ordinal());
+        out.writeUTF(summonerId);
+    }
+
+    public Platform getPlatform() {
+        return platform;
+    }
+
+    public String getSummonerId() {
+        return summonerId;
+    }
+
+    // a (not yet loaded) Orianna Summoner for this key
+    public Summoner toSummoner() {
+        return Orianna.summonerWithId(summonerId).withPlatform(platform).get();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SummonerKey)) return false;
+
+        SummonerKey k = (SummonerKey) o;
+        return platform == k.platform && Objects.equals(summonerId, k.summonerId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(platform) * 31 + Objects.hashCode(summonerId);
+    }
+
+    public String toString() {
+        return platform.getTag() + "/" + summonerId;
+    }
+}
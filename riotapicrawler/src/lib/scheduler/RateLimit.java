@@ -0,0 +1,40 @@
+/*
+    A rate limit: at most the given number of permits (requests) within any window of the given length,
+    as in Riot's "X requests every Y seconds" application and method rate limits.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+ */
+
+package com.omarathon.riotapicrawler.src.lib.scheduler;
+
+import java.util.concurrent.TimeUnit;
+
+public final class RateLimit {
+    private final int permits;
+    private final long windowNanos;
+
+    /* INPUTS: the number of permits in each window, and the length of the window.
+       THROWS: IllegalArgumentException if:
+        - permits is <1,
+        - the window is <1. */
+    public RateLimit(int permits, long window, TimeUnit windowUnit) throws IllegalArgumentException {
+        if (permits < 1) throw new IllegalArgumentException("Nonsensical input for rate limit permits (less than 1)");
+        if (window < 1) throw new IllegalArgumentException("Nonsensical input for rate limit window (less than 1)");
+        this.permits = permits;
+        this.windowNanos = windowUnit.toNanos(window);
+    }
+
+    public int getPermits() {
+        return permits;
+    }
+
+    public long getWindowNanos() {
+        return windowNanos;
+    }
+
+    @Override
+    public String toString() {
+        return permits + " per " + TimeUnit.NANOSECONDS.toMillis(windowNanos) + "ms";
+    }
+}
@@ -0,0 +1,330 @@
+/*
+    Schedules the Riot API requests made (through Orianna) by every crawler thread, so that crawl-critical requests
+    aren't stuck behind speculative ones when the rate limit is reached.
+
+    Tracks, per platform, the application rate limits (shared by every request) and the method rate limits (per kind of request),
+    as sliding windows. A request waits until every window it counts against has a free permit, and among the waiting requests
+    of a platform the highest priority one (then the earliest) goes first. A request that's only blocked by its own method limit
+    doesn't hold up the requests of other methods.
+
+    Requests are run on the calling thread once scheduled, so Orianna's own rate limiter (and retries) still apply beneath.
+    By default the shared scheduler has no limits, so only orders and measures requests; set one with the limits of your API key via setShared.
+
+    Requests made with a key (the resource they're for, e.g a summoner's ID) are coalesced per platform and method through a SingleFlight,
+    before they're scheduled: while one is in flight, the others for the same resource share its result rather than using up the rate limit.
+    Requests that share a result wait for it at the priority of the request in flight.
+
+    Exposes the queue depth, the number of requests and time spent waiting for each priority, and the number of coalesced requests.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+ */
+
+package com.omarathon.riotapicrawler.src.lib.scheduler;
+
+import com.merakianalytics.orianna.types.common.Platform;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+public class RequestScheduler {
+    // methods (kinds of request) made by the crawler, for method rate limits
+    public static final String SUMMONER = "summoner";
+    public static final String MATCH_HISTORY = "match-history";
+    public static final String MATCH = "match";
+    public static final String LEAGUE_POSITIONS = "league-positions";
+
+    public enum Priority {
+        // requests the crawl can't continue without, e.g the match history of the next Summoner to crawl
+        HIGH,
+        NORMAL,
+        // speculative requests, e.g league lookups to filter participants that may never be crawled
+        LOW
+    }
+
+    // longest a request waits before rechecking the windows, in case of a missed signal
+    private static final long MAX_WAIT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static volatile RequestScheduler shared = new RequestScheduler();
+
+    private final List<RateLimit> appLimits;
+    private final Map<String, List<RateLimit>> methodLimits = new HashMap<>();
+    private final Map<Platform, PlatformQueue> queues = new EnumMap<>(Platform.class);
+
+    private final LongAdder[] requests = newAdders();
+    private final LongAdder[] waitNanos = newAdders();
+    private final AtomicLong[] maxWaitNanos = new AtomicLong[Priority.values().length];
+    private final SingleFlight<String, Object> inFlight = new SingleFlight<>();
+
+    // a scheduler with the given application rate limits, applied per platform (none means unlimited)
+    public RequestScheduler(RateLimit... appLimits) {
+        this.appLimits = Arrays.asList(appLimits.clone());
+        for (int i = 0; i < maxWaitNanos.length; i++) {
+            maxWaitNanos[i] = new AtomicLong();
+        }
+    }
+
+    // the application rate limits of a development API key
+    public static RequestScheduler forDevelopmentKey() {
+        return new RequestScheduler(new RateLimit(20, 1, TimeUnit.SECONDS), new RateLimit(100, 2, TimeUnit.MINUTES));
+    }
+
+    // the scheduler used by the Crawler and the preset filters and estimators
+    public static RequestScheduler shared() {
+        return shared;
+    }
+
+    public static void setShared(RequestScheduler scheduler) {
+        shared = scheduler;
+    }
+
+    // sets the rate limits of the given method, applied per platform. must be called before the scheduler is used.
+    public synchronized RequestScheduler setMethodLimits(String method, RateLimit... limits) {
+        methodLimits.put(method, Arrays.asList(limits.clone()));
+        return this;
+    }
+
+    /* Waits for the request to be scheduled, then makes it (on this thread), returning its result.
+       If interrupted while waiting, the request is made straight away and the interrupt is preserved. */
+    public <T> T call(Platform platform, String method, Priority priority, Supplier<T> request) {
+        long waited = acquire(platform, method, priority);
+        int ordinal = priority.ordinal();
+        requests[ordinal].increment();
+        waitNanos[ordinal].add(waited);
+        maxWaitNanos[ordinal].accumulateAndGet(waited, Math::max);
+        return request.get();
+    }
+
+    /* Like call, but if a request of the same method for the same key (on the platform) is in flight,
+       waits for and returns its result instead, without being scheduled. */
+    @SuppressWarnings("unchecked")
+    public <T> T call(Platform platform, String method, String key, Priority priority, Supplier<T> request) {
+        return (T) inFlight.call(platform.name() + '/' + method + '/' + key, () -> call(platform, method, priority, request));
+    }
+
+    public void run(Platform platform, String method, Priority priority, Runnable request) {
+        call(platform, method, priority, () -> {
+            request.run();
+            return null;
+        });
+    }
+
+    // number of requests made with a key that shared the result of one in flight, rather than being scheduled
+    public long getCoalescedRequests() {
+        return inFlight.getSharedRequests();
+    }
+
+    // number of requests waiting to be scheduled, across every platform
+    public int getQueueDepth() {
+        int depth = 0;
+        for (PlatformQueue queue : queues()) {
+            depth += queue.depth();
+        }
+        return depth;
+    }
+
+    public int getQueueDepth(Platform platform) {
+        PlatformQueue queue;
+        synchronized (this) {
+            queue = queues.get(platform);
+        }
+        return (queue == null) ? 0 : queue.depth();
+    }
+
+    // number of requests of the given priority that have been scheduled
+    public long getRequests(Priority priority) {
+        return requests[priority.ordinal()].sum();
+    }
+
+    // average time requests of the given priority waited to be scheduled, in milliseconds (0 if there were none)
+    public double getAverageWaitMillis(Priority priority) {
+        long count = getRequests(priority);
+        return (count == 0) ? 0 : waitNanos[priority.ordinal()].sum() / (count * 1e6);
+    }
+
+    public long getMaxWaitMillis(Priority priority) {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos[priority.ordinal()].get());
+    }
+
+    // waits until the request may be made, returning how long it waited in nanoseconds
+    private long acquire(Platform platform, String method, Priority priority) {
+        PlatformQueue queue;
+        synchronized (this) {
+            queue = queues.computeIfAbsent(platform, p -> new PlatformQueue());
+        }
+        return queue.acquire(method, priority);
+    }
+
+    private synchronized List<PlatformQueue> queues() {
+        return new ArrayList<>(queues.values());
+    }
+
+    private synchronized List<RateLimit> methodLimits(String method) {
+        List<RateLimit> limits = methodLimits.get(method);
+        return (limits == null) ? new ArrayList<>() : limits;
+    }
+
+    private static LongAdder[] newAdders() {
+        LongAdder[] adders = new LongAdder[Priority.values().length];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    // a waiting request
+    private static final class Ticket implements Comparable<Ticket> {
+        private final String method;
+        private final Priority priority;
+        private final long sequence;
+
+        private Ticket(String method, Priority priority, long sequence) {
+            this.method = method;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        public int compareTo(Ticket other) {
+            int byPriority = priority.compareTo(other.priority);
+            return (byPriority != 0) ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    // the waiting requests and rate limit windows of a single platform
+    private final class PlatformQueue {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+        private final PriorityQueue<Ticket> waiting = new PriorityQueue<>();
+        private final List<Window> appWindows = new ArrayList<>();
+        private final Map<String, List<Window>> methodWindows = new HashMap<>();
+        private long nextSequence = 0;
+
+        private PlatformQueue() {
+            for (RateLimit limit : appLimits) {
+                appWindows.add(new Window(limit));
+            }
+        }
+
+        private int depth() {
+            lock.lock();
+            try {
+                return waiting.size();
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        private long acquire(String method, Priority priority) {
+            long start = System.nanoTime();
+            lock.lock();
+            try {
+                Ticket ticket = new Ticket(method, priority, nextSequence++);
+                waiting.add(ticket);
+                try {
+                    while (true) {
+                        long now = System.nanoTime();
+                        // the first waiting request (by priority) that isn't blocked by its own method limit is next in line
+                        Ticket next = next(now);
+                        long availableAt = (next == ticket) ? availableAt(appWindows, now) : now;
+                        if (next == ticket && availableAt <= now) {
+                            record(appWindows, now);
+                            record(methodWindows(method), now);
+                            break;
+                        }
+                        // wait until a window frees up (if it's blocking this request), or another request is scheduled
+                        long blockedUntil = Math.max(availableAt, availableAt(methodWindows(method), now));
+                        long waitNanos = (blockedUntil > now) ? Math.min(blockedUntil - now, MAX_WAIT_NANOS) : MAX_WAIT_NANOS;
+                        changed.awaitNanos(waitNanos);
+                    }
+                }
+                catch (InterruptedException e) { // give up waiting, and preserve the interrupt
+                    Thread.currentThread().interrupt();
+                }
+                finally {
+                    waiting.remove(ticket);
+                    changed.signalAll();
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+            return System.nanoTime() - start;
+        }
+
+        private Ticket next(long now) {
+            if (waiting.size() == 1) return waiting.peek();
+            Ticket[] tickets = waiting.toArray(new Ticket[0]);
+            Arrays.sort(tickets);
+            for (Ticket ticket : tickets) {
+                if (availableAt(methodWindows(ticket.method), now) <= now) return ticket;
+            }
+            return null;
+        }
+
+        private List<Window> methodWindows(String method) {
+            return methodWindows.computeIfAbsent(method, m -> {
+                List<Window> windows = new ArrayList<>();
+                for (RateLimit limit : methodLimits(m)) {
+                    windows.add(new Window(limit));
+                }
+                return windows;
+            });
+        }
+    }
+
+    private static long availableAt(List<Window> windows, long now) {
+        long availableAt = now;
+        for (Window window : windows) {
+            availableAt = Math.max(availableAt, window.availableAt(now));
+        }
+        return availableAt;
+    }
+
+    private static void record(List<Window> windows, long now) {
+        for (Window window : windows) {
+            window.record(now);
+        }
+    }
+
+    // a sliding window over the times of the most recent permits of a rate limit, as a ring buffer
+    private static final class Window {
+        private final long windowNanos;
+        private final long[] times;
+        private int oldest = 0;
+        private int size = 0;
+
+        private Window(RateLimit limit) {
+            this.windowNanos = limit.getWindowNanos();
+            this.times = new long[limit.getPermits()];
+        }
+
+        // the earliest time a permit is free
+        private long availableAt(long now) {
+            if (size < times.length) return now;
+            return Math.max(now, times[oldest] + windowNanos);
+        }
+
+        private void record(long now) {
+            if (size < times.length) {
+                times[(oldest + size) % times.length] = now;
+                size++;
+            }
+            else { // full, so the oldest permit (which has left the window) is replaced
+                times[oldest] = now;
+                oldest = (oldest + 1) % times.length;
+            }
+        }
+    }
+}
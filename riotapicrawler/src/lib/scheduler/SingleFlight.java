@@ -0,0 +1,84 @@
+/*
+    Coalesces concurrent requests for the same resource: while a request for a key is in flight, any other request
+    for that key waits for it and shares its result (or rethrows what it threw), rather than being made again.
+
+    Only requests in flight at the same time are coalesced, so results aren't cached: once a request completes,
+    the next request for its key is made afresh. A request mustn't itself make a request for its own key.
+
+    Exposes the number of requests made and the number that shared another's result.
+
+    Author: Omar Tanner (omarathon)
+    Copyright © 2019 omarathon
+ */
+
+package com.omarathon.riotapicrawler.src.lib.scheduler;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+public class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+    private final LongAdder made = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+
+    /* Makes the request on this thread and returns its result, unless a request for the same key is already in flight,
+       in which case waits for and returns (or rethrows) its result.
+       If interrupted while waiting, the request is made straight away and the interrupt is preserved. */
+    public V call(K key, Supplier<V> request) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = flights.putIfAbsent(key, flight);
+        if (inFlight != null) return await(inFlight, request);
+
+        made.increment();
+        try {
+            V result = request.get();
+            flight.complete(result);
+            return result;
+        }
+        catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    // number of requests in flight
+    public int size() {
+        return flights.size();
+    }
+
+    // number of requests made, i.e that didn't share the result of another
+    public long getRequests() {
+        return made.sum();
+    }
+
+    // number of requests that shared the result of one already in flight
+    public long getSharedRequests() {
+        return shared.sum();
+    }
+
+    private V await(CompletableFuture<V> inFlight, Supplier<V> request) {
+        try {
+            V result = inFlight.get();
+            shared.increment();
+            return result;
+        }
+        catch (InterruptedException e) { // give up waiting and make the request, preserving the interrupt
+            Thread.currentThread().interrupt();
+            made.increment();
+            return request.get();
+        }
+        catch (ExecutionException e) { // the request in flight threw, so rethrow it as if it had been made on this thread
+            shared.increment();
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+}